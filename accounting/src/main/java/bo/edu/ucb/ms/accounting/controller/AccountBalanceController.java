@@ -0,0 +1,75 @@
+package bo.edu.ucb.ms.accounting.controller;
+
+import bo.edu.ucb.ms.accounting.dto.AccountBalanceDto;
+import bo.edu.ucb.ms.accounting.dto.AccountDto;
+import bo.edu.ucb.ms.accounting.dto.TrialBalanceDto;
+import bo.edu.ucb.ms.accounting.service.AccountBalanceService;
+import bo.edu.ucb.ms.accounting.service.JournalDictionaryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * REST Controller for account balances
+ */
+@RestController
+@RequestMapping("/api/accounting")
+public class AccountBalanceController {
+    
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+    
+    @Autowired
+    private JournalDictionaryService journalDictionaryService;
+    
+    /**
+     * Get the chart of accounts
+     * @return List of AccountDto ordered by code
+     */
+    @GetMapping("/accounts")
+    public ResponseEntity<List<AccountDto>> getAccounts() {
+        return ResponseEntity.ok(journalDictionaryService.getAccounts());
+    }
+    
+    /**
+     * Get monthly account balances
+     * @param accountCode Account code, optional
+     * @param period Month (YYYY-MM), optional
+     * @return List of AccountBalanceDto
+     */
+    @GetMapping("/balances")
+    public ResponseEntity<List<AccountBalanceDto>> getBalances(
+            @RequestParam(required = false) String accountCode,
+            @RequestParam(required = false) String period) {
+        
+        try {
+            YearMonth month = period != null ? YearMonth.parse(period) : null;
+            return ResponseEntity.ok(accountBalanceService.getBalances(accountCode, month));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Get the trial balance
+     * @param asOf Last transaction date included (YYYY-MM-DD), optional
+     * @param includePending true to count draft entries as well as posted ones
+     * @return TrialBalanceDto
+     */
+    @GetMapping("/trial-balance")
+    public ResponseEntity<TrialBalanceDto> getTrialBalance(
+            @RequestParam(required = false) String asOf,
+            @RequestParam(defaultValue = "false") boolean includePending) {
+        
+        try {
+            LocalDate date = asOf != null ? LocalDate.parse(asOf) : null;
+            return ResponseEntity.ok(accountBalanceService.getTrialBalance(date, includePending));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package bo.edu.ucb.ms.accounting.controller;
 
+import bo.edu.ucb.ms.accounting.dto.JournalBulkResultDto;
+import bo.edu.ucb.ms.accounting.dto.JournalBulkUpdateDto;
 import bo.edu.ucb.ms.accounting.dto.JournalDto;
 import bo.edu.ucb.ms.accounting.entity.Journal;
 import bo.edu.ucb.ms.accounting.service.JournalService;
@@ -11,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * REST Controller for Journal operations
@@ -32,6 +35,8 @@ public class JournalController {
         try {
             Journal journal = journalService.createJournalEntry(journalDto);
             return ResponseEntity.status(HttpStatus.CREATED).body(journal);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -157,5 +162,46 @@ public class JournalController {
             return ResponseEntity.notFound().build();
         }
     }
+    
+    /**
+     * Post every selected draft entry
+     * @param request Ids and/or filters selecting the entries
+     * @return Counts of matched, updated and skipped entries
+     */
+    @PostMapping("/journal/bulk/post")
+    public ResponseEntity<JournalBulkResultDto> bulkPostJournalEntries(@Valid @RequestBody JournalBulkUpdateDto request) {
+        try {
+            return ResponseEntity.ok(journalService.bulkPostJournalEntries(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Approve every selected entry
+     * @param request Ids and/or filters selecting the entries, and approvedBy
+     * @return Counts of matched and updated entries
+     */
+    @PostMapping("/journal/bulk/approve")
+    public ResponseEntity<JournalBulkResultDto> bulkApproveJournalEntries(@Valid @RequestBody JournalBulkUpdateDto request) {
+        try {
+            return ResponseEntity.ok(journalService.bulkApproveJournalEntries(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Reverse every selected posted entry
+     * @param request Ids and/or filters selecting the entries, and reversedByEntry
+     * @return Counts of matched, updated and skipped entries
+     */
+    @PostMapping("/journal/bulk/reverse")
+    public ResponseEntity<JournalBulkResultDto> bulkReverseJournalEntries(@Valid @RequestBody JournalBulkUpdateDto request) {
+        try {
+            return ResponseEntity.ok(journalService.bulkReverseJournalEntries(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
-
@@ -0,0 +1,79 @@
+package bo.edu.ucb.ms.accounting.controller;
+
+import bo.edu.ucb.ms.accounting.dto.LedgerReportDto;
+import bo.edu.ucb.ms.accounting.dto.TrialBalanceDto;
+import bo.edu.ucb.ms.accounting.service.ReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * REST Controller for reports scanned from the journal
+ */
+@RestController
+@RequestMapping("/api/accounting/reports")
+public class ReportController {
+
+    @Autowired
+    private ReportService reportService;
+
+    /**
+     * Get the trial balance by scanning every entry up to a date
+     * @param asOf Last transaction date included (YYYY-MM-DD), optional
+     * @param includePending true to count draft entries as well as posted ones
+     * @return TrialBalanceDto
+     */
+    @GetMapping("/trial-balance")
+    public ResponseEntity<TrialBalanceDto> getTrialBalance(
+            @RequestParam(required = false) String asOf,
+            @RequestParam(defaultValue = "false") boolean includePending) {
+
+        LocalDate date;
+        try {
+            date = asOf != null ? LocalDate.parse(asOf) : null;
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(reportService.getTrialBalance(date, includePending));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Get the movements of each account in a date range
+     * @param startDate First transaction date (YYYY-MM-DD), optional
+     * @param endDate Last transaction date (YYYY-MM-DD), optional
+     * @param accountCode Account code, optional
+     * @param includePending true to count draft entries as well as posted ones
+     * @return LedgerReportDto
+     */
+    @GetMapping("/ledger")
+    public ResponseEntity<LedgerReportDto> getLedger(
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) String accountCode,
+            @RequestParam(defaultValue = "false") boolean includePending) {
+
+        LocalDate start;
+        LocalDate end;
+        try {
+            start = startDate != null ? LocalDate.parse(startDate) : null;
+            end = endDate != null ? LocalDate.parse(endDate) : null;
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(reportService.getLedger(start, end, accountCode, includePending));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package bo.edu.ucb.ms.accounting.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO with the totals of one account in one month
+ * debitTotal and creditTotal count posted entries; pendingDebit and pendingCredit
+ * count drafts; balance is debitTotal minus creditTotal.
+ */
+public class AccountBalanceDto {
+    
+    private String accountCode;
+    private String accountName;
+    private String period;
+    private BigDecimal debitTotal;
+    private BigDecimal creditTotal;
+    private BigDecimal balance;
+    private BigDecimal pendingDebit;
+    private BigDecimal pendingCredit;
+    
+    // Default constructor
+    public AccountBalanceDto() {}
+    
+    // Getters and Setters
+    public String getAccountCode() {
+        return accountCode;
+    }
+    
+    public void setAccountCode(String accountCode) {
+        this.accountCode = accountCode;
+    }
+    
+    public String getAccountName() {
+        return accountName;
+    }
+    
+    public void setAccountName(String accountName) {
+        this.accountName = accountName;
+    }
+    
+    public String getPeriod() {
+        return period;
+    }
+    
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+    
+    public BigDecimal getDebitTotal() {
+        return debitTotal;
+    }
+    
+    public void setDebitTotal(BigDecimal debitTotal) {
+        this.debitTotal = debitTotal;
+    }
+    
+    public BigDecimal getCreditTotal() {
+        return creditTotal;
+    }
+    
+    public void setCreditTotal(BigDecimal creditTotal) {
+        this.creditTotal = creditTotal;
+    }
+    
+    public BigDecimal getBalance() {
+        return balance;
+    }
+    
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+    
+    public BigDecimal getPendingDebit() {
+        return pendingDebit;
+    }
+    
+    public void setPendingDebit(BigDecimal pendingDebit) {
+        this.pendingDebit = pendingDebit;
+    }
+    
+    public BigDecimal getPendingCredit() {
+        return pendingCredit;
+    }
+    
+    public void setPendingCredit(BigDecimal pendingCredit) {
+        this.pendingCredit = pendingCredit;
+    }
+}
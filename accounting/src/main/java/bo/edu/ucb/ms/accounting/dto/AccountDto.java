@@ -0,0 +1,45 @@
+package bo.edu.ucb.ms.accounting.dto;
+
+/**
+ * DTO for an account of the chart of accounts
+ */
+public class AccountDto {
+
+    private Integer id;
+    private String code;
+    private String name;
+
+    // Default constructor
+    public AccountDto() {}
+
+    public AccountDto(Integer id, String code, String name) {
+        this.id = id;
+        this.code = code;
+        this.name = name;
+    }
+
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,47 @@
+package bo.edu.ucb.ms.accounting.dto;
+
+/**
+ * DTO with the outcome of a bulk post, approve or reverse
+ * matched counts the entries selected by the filters; skipped counts those left
+ * unchanged because their status does not allow the operation.
+ */
+public class JournalBulkResultDto {
+
+    private int matched;
+    private int updated;
+    private int skipped;
+
+    // Default constructor
+    public JournalBulkResultDto() {}
+
+    public JournalBulkResultDto(int matched, int updated) {
+        this.matched = matched;
+        this.updated = updated;
+        this.skipped = matched - updated;
+    }
+
+    // Getters and Setters
+    public int getMatched() {
+        return matched;
+    }
+
+    public void setMatched(int matched) {
+        this.matched = matched;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+}
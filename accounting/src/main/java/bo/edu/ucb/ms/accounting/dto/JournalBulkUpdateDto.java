@@ -0,0 +1,103 @@
+package bo.edu.ucb.ms.accounting.dto;
+
+import jakarta.validation.constraints.*;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for a bulk post, approve or reverse
+ * The entries are selected by ids and/or by transaction date range, status,
+ * reference number and department (at least one, combined with AND).
+ * approvedBy is required to approve and reversedByEntry to reverse.
+ */
+public class JournalBulkUpdateDto {
+
+    private List<Long> ids;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    @Pattern(regexp = "draft|posted|reversed", message = "Status must be draft, posted or reversed")
+    private String status;
+
+    @Size(max = 50, message = "Reference number must not exceed 50 characters")
+    private String referenceNumber;
+
+    @Size(max = 100, message = "Department must not exceed 100 characters")
+    private String department;
+
+    @Size(max = 100, message = "Approved by must not exceed 100 characters")
+    private String approvedBy;
+
+    @Size(max = 20, message = "Reversed by entry must not exceed 20 characters")
+    private String reversedByEntry;
+
+    // Default constructor
+    public JournalBulkUpdateDto() {}
+
+    // Getters and Setters
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getReferenceNumber() {
+        return referenceNumber;
+    }
+
+    public void setReferenceNumber(String referenceNumber) {
+        this.referenceNumber = referenceNumber;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
+    public String getApprovedBy() {
+        return approvedBy;
+    }
+
+    public void setApprovedBy(String approvedBy) {
+        this.approvedBy = approvedBy;
+    }
+
+    public String getReversedByEntry() {
+        return reversedByEntry;
+    }
+
+    public void setReversedByEntry(String reversedByEntry) {
+        this.reversedByEntry = reversedByEntry;
+    }
+}
@@ -58,6 +58,11 @@ public class JournalDto {
     
     private String reversedByEntry;
     private String notes;
+    
+    // Client key (e.g. reference number plus line) that makes retries return the original entry
+    @Size(max = 100, message = "Idempotency key must not exceed 100 characters")
+    private String idempotencyKey;
+    
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
@@ -270,6 +275,14 @@ public class JournalDto {
         this.notes = notes;
     }
     
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
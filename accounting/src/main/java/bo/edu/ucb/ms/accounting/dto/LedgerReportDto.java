@@ -0,0 +1,79 @@
+package bo.edu.ucb.ms.accounting.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for a ledger report: the movements of every account in a date range
+ */
+public class LedgerReportDto {
+    
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private boolean includePending;
+    private List<TrialBalanceLineDto> lines;
+    private BigDecimal totalDebit;
+    private BigDecimal totalCredit;
+    
+    // Default constructor
+    public LedgerReportDto() {}
+    
+    public LedgerReportDto(LocalDate startDate, LocalDate endDate, boolean includePending, List<TrialBalanceLineDto> lines) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.includePending = includePending;
+        this.lines = lines;
+        this.totalDebit = lines.stream().map(TrialBalanceLineDto::getDebitTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+        this.totalCredit = lines.stream().map(TrialBalanceLineDto::getCreditTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+    
+    // Getters and Setters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+    
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+    
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+    
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+    
+    public boolean isIncludePending() {
+        return includePending;
+    }
+    
+    public void setIncludePending(boolean includePending) {
+        this.includePending = includePending;
+    }
+    
+    public List<TrialBalanceLineDto> getLines() {
+        return lines;
+    }
+    
+    public void setLines(List<TrialBalanceLineDto> lines) {
+        this.lines = lines;
+    }
+    
+    public BigDecimal getTotalDebit() {
+        return totalDebit;
+    }
+    
+    public void setTotalDebit(BigDecimal totalDebit) {
+        this.totalDebit = totalDebit;
+    }
+    
+    public BigDecimal getTotalCredit() {
+        return totalCredit;
+    }
+    
+    public void setTotalCredit(BigDecimal totalCredit) {
+        this.totalCredit = totalCredit;
+    }
+}
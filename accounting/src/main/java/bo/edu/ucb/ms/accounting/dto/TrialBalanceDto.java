@@ -0,0 +1,73 @@
+package bo.edu.ucb.ms.accounting.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for a trial balance: the totals of every account up to a date
+ */
+public class TrialBalanceDto {
+    
+    private LocalDate asOf;
+    private boolean includePending;
+    private List<TrialBalanceLineDto> lines;
+    private BigDecimal totalDebit;
+    private BigDecimal totalCredit;
+    
+    // Default constructor
+    public TrialBalanceDto() {}
+    
+    public TrialBalanceDto(LocalDate asOf, boolean includePending, List<TrialBalanceLineDto> lines) {
+        this.asOf = asOf;
+        this.includePending = includePending;
+        this.lines = lines;
+        this.totalDebit = lines.stream().map(TrialBalanceLineDto::getDebitTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+        this.totalCredit = lines.stream().map(TrialBalanceLineDto::getCreditTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+    
+    // Getters and Setters
+    public LocalDate getAsOf() {
+        return asOf;
+    }
+    
+    public void setAsOf(LocalDate asOf) {
+        this.asOf = asOf;
+    }
+    
+    public boolean isIncludePending() {
+        return includePending;
+    }
+    
+    public void setIncludePending(boolean includePending) {
+        this.includePending = includePending;
+    }
+    
+    public List<TrialBalanceLineDto> getLines() {
+        return lines;
+    }
+    
+    public void setLines(List<TrialBalanceLineDto> lines) {
+        this.lines = lines;
+    }
+    
+    public BigDecimal getTotalDebit() {
+        return totalDebit;
+    }
+    
+    public void setTotalDebit(BigDecimal totalDebit) {
+        this.totalDebit = totalDebit;
+    }
+    
+    public BigDecimal getTotalCredit() {
+        return totalCredit;
+    }
+    
+    public void setTotalCredit(BigDecimal totalCredit) {
+        this.totalCredit = totalCredit;
+    }
+    
+    public boolean isBalanced() {
+        return totalDebit.compareTo(totalCredit) == 0;
+    }
+}
@@ -0,0 +1,67 @@
+package bo.edu.ucb.ms.accounting.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for one account of a trial balance; balance is debitTotal minus creditTotal
+ */
+public class TrialBalanceLineDto {
+    
+    private String accountCode;
+    private String accountName;
+    private BigDecimal debitTotal;
+    private BigDecimal creditTotal;
+    private BigDecimal balance;
+    
+    // Default constructor
+    public TrialBalanceLineDto() {}
+    
+    public TrialBalanceLineDto(String accountCode, String accountName, BigDecimal debitTotal, BigDecimal creditTotal) {
+        this.accountCode = accountCode;
+        this.accountName = accountName;
+        this.debitTotal = debitTotal;
+        this.creditTotal = creditTotal;
+        this.balance = debitTotal.subtract(creditTotal);
+    }
+    
+    // Getters and Setters
+    public String getAccountCode() {
+        return accountCode;
+    }
+    
+    public void setAccountCode(String accountCode) {
+        this.accountCode = accountCode;
+    }
+    
+    public String getAccountName() {
+        return accountName;
+    }
+    
+    public void setAccountName(String accountName) {
+        this.accountName = accountName;
+    }
+    
+    public BigDecimal getDebitTotal() {
+        return debitTotal;
+    }
+    
+    public void setDebitTotal(BigDecimal debitTotal) {
+        this.debitTotal = debitTotal;
+    }
+    
+    public BigDecimal getCreditTotal() {
+        return creditTotal;
+    }
+    
+    public void setCreditTotal(BigDecimal creditTotal) {
+        this.creditTotal = creditTotal;
+    }
+    
+    public BigDecimal getBalance() {
+        return balance;
+    }
+    
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
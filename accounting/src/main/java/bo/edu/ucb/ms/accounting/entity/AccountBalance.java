@@ -0,0 +1,143 @@
+package bo.edu.ucb.ms.accounting.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Running debit and credit totals of one account in one month
+ *
+ * Maintained in the same transaction as every journal insert, post and reverse:
+ * posted entries count in debitTotal/creditTotal, drafts in pendingDebit/pendingCredit,
+ * and reversed entries in neither.
+ */
+@Entity
+@Table(name = "account_balance")
+@IdClass(AccountBalance.Key.class)
+public class AccountBalance {
+    
+    @Id
+    @Column(name = "account_code", length = 20)
+    private String accountCode;
+    
+    // Month of the transaction date as yyyymm
+    @Id
+    @Column(name = "period")
+    private Integer period;
+    
+    @Column(name = "account_name", nullable = false, length = 255)
+    private String accountName;
+    
+    @Column(name = "debit_total", nullable = false, precision = 17, scale = 2)
+    private BigDecimal debitTotal = BigDecimal.ZERO;
+    
+    @Column(name = "credit_total", nullable = false, precision = 17, scale = 2)
+    private BigDecimal creditTotal = BigDecimal.ZERO;
+    
+    @Column(name = "pending_debit", nullable = false, precision = 17, scale = 2)
+    private BigDecimal pendingDebit = BigDecimal.ZERO;
+    
+    @Column(name = "pending_credit", nullable = false, precision = 17, scale = 2)
+    private BigDecimal pendingCredit = BigDecimal.ZERO;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public AccountBalance() {}
+    
+    // Getters and Setters
+    public String getAccountCode() {
+        return accountCode;
+    }
+    
+    public void setAccountCode(String accountCode) {
+        this.accountCode = accountCode;
+    }
+    
+    public Integer getPeriod() {
+        return period;
+    }
+    
+    public void setPeriod(Integer period) {
+        this.period = period;
+    }
+    
+    public String getAccountName() {
+        return accountName;
+    }
+    
+    public void setAccountName(String accountName) {
+        this.accountName = accountName;
+    }
+    
+    public BigDecimal getDebitTotal() {
+        return debitTotal;
+    }
+    
+    public void setDebitTotal(BigDecimal debitTotal) {
+        this.debitTotal = debitTotal;
+    }
+    
+    public BigDecimal getCreditTotal() {
+        return creditTotal;
+    }
+    
+    public void setCreditTotal(BigDecimal creditTotal) {
+        this.creditTotal = creditTotal;
+    }
+    
+    public BigDecimal getPendingDebit() {
+        return pendingDebit;
+    }
+    
+    public void setPendingDebit(BigDecimal pendingDebit) {
+        this.pendingDebit = pendingDebit;
+    }
+    
+    public BigDecimal getPendingCredit() {
+        return pendingCredit;
+    }
+    
+    public void setPendingCredit(BigDecimal pendingCredit) {
+        this.pendingCredit = pendingCredit;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    /**
+     * Composite primary key: account code and period
+     */
+    public static class Key implements Serializable {
+        
+        private String accountCode;
+        private Integer period;
+        
+        public Key() {}
+        
+        public Key(String accountCode, Integer period) {
+            this.accountCode = accountCode;
+            this.period = period;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(accountCode, key.accountCode) && Objects.equals(period, key.period);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountCode, period);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "journal")
+@EntityListeners(JournalDictionaryListener.class)
 public class Journal {
     
     @Id
@@ -22,10 +23,14 @@ public class Journal {
     @Column(name = "posting_date")
     private LocalDate postingDate;
     
-    @Column(name = "account_code", nullable = false, length = 20)
+    @Column(name = "account_id", nullable = false)
+    private Integer accountId;
+    
+    // Account code and name come from the chart of accounts through accountId
+    @Transient
     private String accountCode;
     
-    @Column(name = "account_name", nullable = false, length = 255)
+    @Transient
     private String accountName;
     
     @Column(name = "description", nullable = false, columnDefinition = "TEXT")
@@ -44,7 +49,11 @@ public class Journal {
     @Column(name = "balance_type", length = 1)
     private BalanceType balanceType;
     
-    @Column(name = "department", length = 100)
+    @Column(name = "department_id")
+    private Integer departmentId;
+    
+    // Department and creator come from the journal dictionary through their ids
+    @Transient
     private String department;
     
     @Column(name = "cost_center", length = 50)
@@ -62,7 +71,10 @@ public class Journal {
     @Column(name = "source_document", length = 100)
     private String sourceDocument;
     
-    @Column(name = "created_by", nullable = false, length = 100)
+    @Column(name = "created_by_id", nullable = false)
+    private Integer createdById;
+    
+    @Transient
     private String createdBy;
     
     @Column(name = "approved_by", length = 100)
@@ -78,9 +90,13 @@ public class Journal {
     @Column(name = "reversed_by_entry", length = 20)
     private String reversedByEntry;
     
+    // Free text, rarely repeated, so it is stored inline rather than in the dictionary
     @Column(name = "notes", columnDefinition = "TEXT")
     private String notes;
     
+    @Column(name = "idempotency_key", unique = true, length = 100)
+    private String idempotencyKey;
+    
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
     
@@ -174,6 +190,14 @@ public class Journal {
         this.accountName = accountName;
     }
     
+    public Integer getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Integer accountId) {
+        this.accountId = accountId;
+    }
+    
     public String getDescription() {
         return description;
     }
@@ -222,6 +246,14 @@ public class Journal {
         this.department = department;
     }
     
+    public Integer getDepartmentId() {
+        return departmentId;
+    }
+    
+    public void setDepartmentId(Integer departmentId) {
+        this.departmentId = departmentId;
+    }
+    
     public String getCostCenter() {
         return costCenter;
     }
@@ -270,6 +302,14 @@ public class Journal {
         this.createdBy = createdBy;
     }
     
+    public Integer getCreatedById() {
+        return createdById;
+    }
+    
+    public void setCreatedById(Integer createdById) {
+        this.createdById = createdById;
+    }
+    
     public String getApprovedBy() {
         return approvedBy;
     }
@@ -310,6 +350,15 @@ public class Journal {
         this.notes = notes;
     }
     
+    
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
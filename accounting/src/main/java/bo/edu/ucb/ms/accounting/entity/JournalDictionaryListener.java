@@ -0,0 +1,27 @@
+package bo.edu.ucb.ms.accounting.entity;
+
+import bo.edu.ucb.ms.accounting.service.JournalDictionaryService;
+import jakarta.persistence.PostLoad;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Fills the account and attribute values of every loaded journal entry from the
+ * in-memory dictionary, so callers keep reading names as before
+ *
+ * Spring Boot hands Hibernate a Spring bean container, so this listener is created
+ * with its dependencies injected. The service is looked up on first use, because it
+ * is not ready while the EntityManagerFactory that creates the listener is being built.
+ */
+public class JournalDictionaryListener {
+
+    private final ObjectProvider<JournalDictionaryService> journalDictionaryService;
+
+    public JournalDictionaryListener(ObjectProvider<JournalDictionaryService> journalDictionaryService) {
+        this.journalDictionaryService = journalDictionaryService;
+    }
+
+    @PostLoad
+    public void assignValues(Journal journal) {
+        journalDictionaryService.getObject().assignValues(journal);
+    }
+}
@@ -0,0 +1,126 @@
+package bo.edu.ucb.ms.accounting.ingestion;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory record of the idempotency keys already used by journal entries
+ *
+ * A Bloom filter, so a key it has never seen is answered as new without a database
+ * lookup, and only a key that may have been used costs a query. It is loaded from the
+ * journal in the background at startup; until then, or if loading fails, every key is
+ * treated as possibly used. The filter is sized from the number of keys in the journal,
+ * with room to double, and rebuilt the same way in the background once more keys than
+ * that have been added, so its false positive rate does not creep up as the journal
+ * grows. Keys inserted by other instances are not seen, which is safe: the unique index
+ * and ON CONFLICT DO NOTHING still return the existing entry.
+ */
+@Component
+public class IdempotencyKeyFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeyFilter.class);
+
+    private static final int LOAD_BATCH_SIZE = 10000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Lower bound of the filter size
+    @Value("${accounting.idempotency.expected-keys:1000000}")
+    private long expectedKeys;
+
+    @Value("${accounting.idempotency.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    // Filter being built by a rebuild, which also receives the keys added meanwhile
+    private volatile BloomFilter next;
+    private volatile long capacity;
+    private final AtomicLong keys = new AtomicLong();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile boolean loaded;
+
+    @PostConstruct
+    public void start() {
+        filter = new BloomFilter(expectedKeys, falsePositiveRate);
+        capacity = expectedKeys;
+        rebuilding.set(true);
+        startRebuild();
+    }
+
+    /**
+     * @param key Idempotency key
+     * @return false only if no journal entry can have this key
+     */
+    public boolean mightContain(String key) {
+        return !loaded || filter.mightContain(key);
+    }
+
+    /**
+     * Remember a key used by a journal entry
+     * @param key Idempotency key
+     */
+    public void add(String key) {
+        filter.add(key);
+        BloomFilter building = next;
+        if (building != null) {
+            building.add(key);
+        }
+        if (keys.incrementAndGet() > capacity && rebuilding.compareAndSet(false, true)) {
+            startRebuild();
+        }
+    }
+
+    private void startRebuild() {
+        Thread loader = new Thread(this::rebuild, "idempotency-key-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void rebuild() {
+        long started = System.nanoTime();
+        try {
+            Long existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM journal WHERE idempotency_key IS NOT NULL", Long.class);
+            long size = Math.max(expectedKeys, (existing != null ? existing : 0) * 2);
+            BloomFilter building = new BloomFilter(size, falsePositiveRate);
+            next = building;
+
+            long lastId = 0;
+            long count = 0;
+            List<Object[]> batch;
+            do {
+                batch = jdbcTemplate.query(
+                        "SELECT id, idempotency_key FROM journal WHERE idempotency_key IS NOT NULL AND id > ? ORDER BY id LIMIT " + LOAD_BATCH_SIZE,
+                        (rs, rowNum) -> new Object[] { rs.getLong(1), rs.getString(2) }, lastId);
+                for (Object[] row : batch) {
+                    building.add((String) row[1]);
+                    lastId = (Long) row[0];
+                }
+                count += batch.size();
+            } while (batch.size() == LOAD_BATCH_SIZE);
+
+            filter = building;
+            capacity = size;
+            keys.set(count);
+            loaded = true;
+            log.info("Idempotency keys: loaded {} key(s) into a filter sized for {} in {} ms",
+                    count, size, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Idempotency keys: could not load, {}: {}",
+                    loaded ? "keeping the current filter" : "every key will be looked up", e.getMessage());
+        } finally {
+            next = null;
+            rebuilding.set(false);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package bo.edu.ucb.ms.accounting.ingestion;
+
+import bo.edu.ucb.ms.accounting.entity.Journal;
+import bo.edu.ucb.ms.accounting.repository.JournalRepository;
+import bo.edu.ucb.ms.accounting.service.AccountBalanceService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Group commit for journal entry inserts
+ *
+ * Callers put their entry on a bounded lock-free ring buffer and wait for its future.
+ * A single writer thread drains the buffer into batches of up to the configured size,
+ * waiting at most the configured time for a batch to fill, and writes each batch with
+ * one multi-row INSERT and its account balance updates in one transaction. Futures
+ * are completed only after the commit.
+ * Entries whose idempotency key is already used are skipped by ON CONFLICT DO NOTHING
+ * and their futures get the existing entry instead.
+ * If a batch fails, for example on a duplicate entry number, its entries are retried
+ * one by one so only the offending entries fail.
+ */
+@Component
+public class JournalGroupCommitter {
+
+    // PostgreSQL accepts at most 32767 bind parameters per statement
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final String[] COLUMNS = {
+            "journal_entry_number", "transaction_date", "posting_date", "account_id", "description",
+            "reference_number", "debit_amount", "credit_amount", "balance_type", "department_id", "cost_center",
+            "project_code", "currency_code", "exchange_rate", "source_document", "created_by_id", "approved_by",
+            "approval_date", "status", "reversed_by_entry", "notes", "idempotency_key", "created_at",
+            "updated_at" };
+    private static final String INSERT_PREFIX = "INSERT INTO journal (" + String.join(", ", COLUMNS) + ") VALUES ";
+    private static final String INSERT_SUFFIX = " ON CONFLICT (idempotency_key) DO NOTHING";
+    private static final String ROW = "(" + String.join(", ", Collections.nCopies(COLUMNS.length, "?")) + ")";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+
+    @Autowired
+    private JournalRepository journalRepository;
+
+    @Value("${accounting.journal-ingestion.buffer-size:4096}")
+    private int bufferSize;
+
+    @Value("${accounting.journal-ingestion.batch-size:256}")
+    private int batchSize;
+
+    @Value("${accounting.journal-ingestion.max-wait-ms:2}")
+    private long maxWaitMillis;
+
+    private MpscRingBuffer<Submission> ring;
+    private TransactionTemplate transactionTemplate;
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        batchSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        ring = new MpscRingBuffer<>(bufferSize);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        writer = new Thread(this::run, "journal-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Queue a journal entry for insertion
+     * @param journal Entry to insert; its id and timestamps are set once it is committed
+     * @return Future completed with the entry after its batch commits
+     * @throws RejectedExecutionException if the buffer is full or the committer is stopping
+     */
+    public CompletableFuture<Journal> submit(Journal journal) {
+        Submission submission = new Submission(journal, new CompletableFuture<>());
+        if (!running || !ring.offer(submission)) {
+            throw new RejectedExecutionException("Journal ingestion buffer is full");
+        }
+        LockSupport.unpark(writer);
+        return submission.future();
+    }
+
+    private void run() {
+        List<Submission> batch = new ArrayList<>(batchSize);
+        while (running || !ring.isEmpty()) {
+            Submission first = ring.poll();
+            if (first == null) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(10));
+                continue;
+            }
+            batch.add(first);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+            while (batch.size() < batchSize) {
+                Submission next = ring.poll();
+                if (next != null) {
+                    batch.add(next);
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !running) {
+                    break;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Submission> batch) {
+        try {
+            List<Journal> results = transactionTemplate.execute(status -> insert(batch));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future().complete(results.get(i));
+            }
+        } catch (RuntimeException batchFailure) {
+            if (batch.size() == 1) {
+                batch.get(0).future().completeExceptionally(batchFailure);
+                return;
+            }
+            for (Submission submission : batch) {
+                try {
+                    List<Journal> results = transactionTemplate.execute(status -> insert(List.of(submission)));
+                    submission.future().complete(results.get(0));
+                } catch (RuntimeException e) {
+                    submission.future().completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return For each submission, in order, the inserted entry or the existing entry with its idempotency key
+     */
+    private List<Journal> insert(List<Submission> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object> args = new ArrayList<>(batch.size() * COLUMNS.length);
+        for (Submission submission : batch) {
+            Journal journal = submission.journal();
+            // Same defaults the entity applies before a JPA insert
+            if (journal.getPostingDate() == null) {
+                journal.setPostingDate(LocalDate.now());
+            }
+            journal.setCreatedAt(now);
+            journal.setUpdatedAt(now);
+            Collections.addAll(args, journal.getJournalEntryNumber(), journal.getTransactionDate(),
+                    journal.getPostingDate(), journal.getAccountId(), journal.getDescription(),
+                    journal.getReferenceNumber(), journal.getDebitAmount(), journal.getCreditAmount(),
+                    journal.getBalanceType() != null ? journal.getBalanceType().name() : null,
+                    journal.getDepartmentId(), journal.getCostCenter(), journal.getProjectCode(),
+                    journal.getCurrencyCode(), journal.getExchangeRate(), journal.getSourceDocument(),
+                    journal.getCreatedById(), journal.getApprovedBy(), journal.getApprovalDate(),
+                    journal.getStatus() != null ? journal.getStatus().name() : null, journal.getReversedByEntry(),
+                    journal.getNotes(), journal.getIdempotencyKey(), journal.getCreatedAt(), journal.getUpdatedAt());
+        }
+
+        String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(batch.size(), ROW)) + INSERT_SUFFIX;
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, new String[] { "id", "journal_entry_number" });
+            new ArgumentPreparedStatementSetter(args.toArray()).setValues(ps);
+            return ps;
+        }, keys);
+
+        // Only inserted rows come back; match them by their unique entry number
+        Map<String, Long> insertedIds = new HashMap<>();
+        for (Map<String, Object> row : keys.getKeyList()) {
+            insertedIds.put((String) row.get("journal_entry_number"), ((Number) row.get("id")).longValue());
+        }
+        List<Journal> inserted = new ArrayList<>(batch.size());
+        List<Journal> results = new ArrayList<>(batch.size());
+        List<String> existingKeys = new ArrayList<>();
+        for (Submission submission : batch) {
+            Journal journal = submission.journal();
+            Long id = insertedIds.remove(journal.getJournalEntryNumber());
+            if (id != null) {
+                journal.setId(id);
+                inserted.add(journal);
+                results.add(journal);
+            } else if (journal.getIdempotencyKey() != null) {
+                existingKeys.add(journal.getIdempotencyKey());
+                results.add(null);
+            } else {
+                throw new IllegalStateException("Journal entry " + journal.getJournalEntryNumber() + " was not inserted");
+            }
+        }
+        accountBalanceService.recordInserted(inserted);
+
+        if (!existingKeys.isEmpty()) {
+            Map<String, Journal> existing = new HashMap<>();
+            journalRepository.findByIdempotencyKeyIn(existingKeys)
+                    .forEach(journal -> existing.put(journal.getIdempotencyKey(), journal));
+            for (int i = 0; i < batch.size(); i++) {
+                if (results.get(i) == null) {
+                    results.set(i, existing.get(batch.get(i).journal().getIdempotencyKey()));
+                }
+            }
+        }
+        return results;
+    }
+
+    private record Submission(Journal journal, CompletableFuture<Journal> future) {
+    }
+}
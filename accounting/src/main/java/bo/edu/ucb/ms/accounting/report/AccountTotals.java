@@ -0,0 +1,42 @@
+package bo.edu.ucb.ms.accounting.report;
+
+import java.math.BigDecimal;
+
+/**
+ * Debit and credit totals of one account, accumulated in cents
+ *
+ * Report scans add every journal row here, so the hot path works on primitive longs
+ * instead of allocating a BigDecimal per row.
+ */
+public class AccountTotals {
+
+    private final int accountId;
+    private long debitCents;
+    private long creditCents;
+
+    AccountTotals(int accountId) {
+        this.accountId = accountId;
+    }
+
+    void add(long debit, long credit) {
+        debitCents += debit;
+        creditCents += credit;
+    }
+
+    void merge(AccountTotals other) {
+        debitCents += other.debitCents;
+        creditCents += other.creditCents;
+    }
+
+    public int getAccountId() {
+        return accountId;
+    }
+
+    public BigDecimal getDebitTotal() {
+        return BigDecimal.valueOf(debitCents, 2);
+    }
+
+    public BigDecimal getCreditTotal() {
+        return BigDecimal.valueOf(creditCents, 2);
+    }
+}
@@ -0,0 +1,242 @@
+package bo.edu.ucb.ms.accounting.report;
+
+import bo.edu.ucb.ms.accounting.entity.Journal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Parallel scan of the journal for reports over arbitrary date ranges
+ *
+ * The transaction_date range is split into chunks that fork/join workers scan in
+ * parallel, each on its own connection and read-only transaction, adding every row
+ * to per-account cent accumulators; partial results are merged as the tasks join.
+ * The coordinating transaction exports its PostgreSQL snapshot and every worker
+ * imports it, so all chunks see the same committed data even while entries are
+ * being written.
+ */
+@Component
+public class JournalReportEngine {
+
+    // More chunks than workers, so workers that finish early steal from busy ones
+    private static final int CHUNKS_PER_WORKER = 4;
+    private static final int FETCH_SIZE = 10000;
+    private static final int MAX_CONCURRENT_REPORTS = 2;
+    private static final Pattern SNAPSHOT_ID = Pattern.compile("[0-9A-Fa-f-]+");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${accounting.reports.parallelism:0}")
+    private int parallelism;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maxPoolSize;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private ForkJoinPool pool;
+    private Semaphore reportPermits;
+
+    @PostConstruct
+    public void start() {
+        // Each running report holds one connection plus one per busy worker; leave the rest for writes
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        parallelism = Math.max(1, Math.min(workers, maxPoolSize / 2));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(FETCH_SIZE);
+        readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        // Always a fresh transaction, even if the caller or a helping thread already has one
+        readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        readOnlyTransaction.setReadOnly(true);
+        AtomicInteger threadNumber = new AtomicInteger();
+        pool = new ForkJoinPool(parallelism, p -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("journal-report-" + threadNumber.incrementAndGet());
+            return thread;
+        }, null, false);
+        reportPermits = new Semaphore(MAX_CONCURRENT_REPORTS, true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * @return Number of chunks scanned at the same time
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sum debits and credits per account over a transaction date range
+     * @param startDate First transaction date included, or null for the earliest entry
+     * @param endDate Last transaction date included, or null for the latest entry
+     * @param accountId Account id, or null for every account
+     * @param includePending true to count draft entries as well as posted ones
+     * @return Totals by account id
+     * @throws RejectedExecutionException if other reports keep the engine busy for too long
+     */
+    public Map<Integer, AccountTotals> aggregate(LocalDate startDate, LocalDate endDate, Integer accountId,
+                                                 boolean includePending) {
+        return aggregate(startDate, endDate, accountId, includePending, parallelism * CHUNKS_PER_WORKER);
+    }
+
+    Map<Integer, AccountTotals> aggregate(LocalDate startDate, LocalDate endDate, Integer accountId,
+                                          boolean includePending, int chunkCount) {
+        List<String> statuses = includePending
+                ? List.of(Journal.Status.posted.name(), Journal.Status.draft.name())
+                : List.of(Journal.Status.posted.name());
+        try {
+            if (!reportPermits.tryAcquire(60, TimeUnit.SECONDS)) {
+                throw new RejectedExecutionException("Too many reports running");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to run a report", e);
+        }
+        try {
+            return readOnlyTransaction.execute(status -> {
+                LocalDate start = startDate;
+                LocalDate end = endDate;
+                if (start == null || end == null) {
+                    Map<String, Object> range = jdbcTemplate.queryForMap(
+                            "SELECT MIN(transaction_date) AS first_date, MAX(transaction_date) AS last_date FROM journal");
+                    if (range.get("first_date") == null) {
+                        return new HashMap<>();
+                    }
+                    start = start != null ? start : ((Date) range.get("first_date")).toLocalDate();
+                    end = end != null ? end : ((Date) range.get("last_date")).toLocalDate();
+                }
+                if (start.isAfter(end)) {
+                    return new HashMap<>();
+                }
+
+                List<LocalDate[]> chunks = split(start, end, chunkCount);
+                if (chunks.size() == 1) {
+                    return scan(chunks.get(0), accountId, statuses);
+                }
+                String snapshot = jdbcTemplate.queryForObject("SELECT pg_export_snapshot()", String.class);
+                if (snapshot == null || !SNAPSHOT_ID.matcher(snapshot).matches()) {
+                    throw new IllegalStateException("Unexpected snapshot id: " + snapshot);
+                }
+                return pool.invoke(new ChunkTask(chunks, 0, chunks.size(), accountId, statuses, snapshot));
+            });
+        } finally {
+            reportPermits.release();
+        }
+    }
+
+    /**
+     * Split an inclusive date range into at most chunkCount half-open ranges of about the same length
+     */
+    private static List<LocalDate[]> split(LocalDate start, LocalDate end, int chunkCount) {
+        long days = ChronoUnit.DAYS.between(start, end) + 1;
+        int count = (int) Math.max(1, Math.min(chunkCount, days));
+        List<LocalDate[]> chunks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            chunks.add(new LocalDate[] { start.plusDays(days * i / count), start.plusDays(days * (i + 1) / count) });
+        }
+        return chunks;
+    }
+
+    private Map<Integer, AccountTotals> scan(LocalDate[] chunk, Integer accountId, List<String> statuses) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT account_id, CAST(COALESCE(debit_amount, 0) * 100 AS BIGINT), " +
+                "CAST(COALESCE(credit_amount, 0) * 100 AS BIGINT) FROM journal " +
+                "WHERE transaction_date >= ? AND transaction_date < ? AND status IN (")
+                .append(String.join(", ", Collections.nCopies(statuses.size(), "?"))).append(")");
+        List<Object> args = new ArrayList<>(List.of(chunk[0], chunk[1]));
+        args.addAll(statuses);
+        if (accountId != null) {
+            sql.append(" AND account_id = ?");
+            args.add(accountId);
+        }
+
+        Map<Integer, AccountTotals> totals = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            int id = rs.getInt(1);
+            AccountTotals account = totals.get(id);
+            if (account == null) {
+                account = new AccountTotals(id);
+                totals.put(id, account);
+            }
+            account.add(rs.getLong(2), rs.getLong(3));
+        }, args.toArray());
+        return totals;
+    }
+
+    private static Map<Integer, AccountTotals> merge(Map<Integer, AccountTotals> left, Map<Integer, AccountTotals> right) {
+        Map<Integer, AccountTotals> target = left.size() >= right.size() ? left : right;
+        Map<Integer, AccountTotals> source = target == left ? right : left;
+        source.forEach((id, totals) -> {
+            AccountTotals existing = target.putIfAbsent(id, totals);
+            if (existing != null) {
+                existing.merge(totals);
+            }
+        });
+        return target;
+    }
+
+    private class ChunkTask extends RecursiveTask<Map<Integer, AccountTotals>> {
+
+        private final List<LocalDate[]> chunks;
+        private final int from;
+        private final int to;
+        private final Integer accountId;
+        private final List<String> statuses;
+        private final String snapshot;
+
+        ChunkTask(List<LocalDate[]> chunks, int from, int to, Integer accountId, List<String> statuses,
+                  String snapshot) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.accountId = accountId;
+            this.statuses = statuses;
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        protected Map<Integer, AccountTotals> compute() {
+            if (to - from == 1) {
+                return readOnlyTransaction.execute(status -> {
+                    jdbcTemplate.execute("SET TRANSACTION SNAPSHOT '" + snapshot + "'");
+                    return scan(chunks.get(from), accountId, statuses);
+                });
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(chunks, from, middle, accountId, statuses, snapshot);
+            left.fork();
+            Map<Integer, AccountTotals> right =
+                    new ChunkTask(chunks, middle, to, accountId, statuses, snapshot).compute();
+            return merge(left.join(), right);
+        }
+    }
+}
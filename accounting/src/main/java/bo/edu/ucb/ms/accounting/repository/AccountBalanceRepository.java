@@ -0,0 +1,27 @@
+package bo.edu.ucb.ms.accounting.repository;
+
+import bo.edu.ucb.ms.accounting.entity.AccountBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AccountBalanceRepository extends JpaRepository<AccountBalance, AccountBalance.Key> {
+    
+    // Find the monthly balances of an account
+    List<AccountBalance> findByAccountCodeOrderByPeriod(String accountCode);
+    
+    // Find the balances of every account in a period
+    List<AccountBalance> findByPeriodOrderByAccountCode(Integer period);
+    
+    // Find every balance
+    List<AccountBalance> findAllByOrderByAccountCodeAscPeriodAsc();
+    
+    // Sum the balances of each account up to a period: account code, account name, debit, credit, pending debit, pending credit
+    @Query("SELECT b.accountCode, MAX(b.accountName), SUM(b.debitTotal), SUM(b.creditTotal), SUM(b.pendingDebit), SUM(b.pendingCredit) " +
+           "FROM AccountBalance b WHERE b.period <= :period GROUP BY b.accountCode ORDER BY b.accountCode")
+    List<Object[]> sumByAccountUpToPeriod(@Param("period") Integer period);
+}
@@ -8,6 +8,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,20 +18,28 @@ public interface JournalRepository extends JpaRepository<Journal, Long> {
     // Find journal entry by journal entry number
     Optional<Journal> findByJournalEntryNumber(String journalEntryNumber);
     
-    // Find journal entries by account code
-    List<Journal> findByAccountCode(String accountCode);
+    // Find journal entry by idempotency key
+    Optional<Journal> findByIdempotencyKey(String idempotencyKey);
+    
+    // Find journal entries by idempotency keys
+    List<Journal> findByIdempotencyKeyIn(Collection<String> idempotencyKeys);
+    
+    // Find journal entries by account
+    List<Journal> findByAccountId(Integer accountId);
     
     // Find journal entries by account name
-    List<Journal> findByAccountNameContainingIgnoreCase(String accountName);
+    @Query(value = "SELECT j.* FROM journal j JOIN account a ON a.id = j.account_id " +
+                   "WHERE LOWER(a.name) LIKE LOWER(CONCAT('%', :accountName, '%'))", nativeQuery = true)
+    List<Journal> findByAccountNameContainingIgnoreCase(@Param("accountName") String accountName);
     
     // Find journal entries by status
     List<Journal> findByStatus(Journal.Status status);
     
-    // Find journal entries by created by
-    List<Journal> findByCreatedBy(String createdBy);
+    // Find journal entries by created by (journal dictionary id)
+    List<Journal> findByCreatedById(Integer createdById);
     
-    // Find journal entries by department
-    List<Journal> findByDepartment(String department);
+    // Find journal entries by department (journal dictionary id)
+    List<Journal> findByDepartmentId(Integer departmentId);
     
     // Find journal entries by date range
     List<Journal> findByTransactionDateBetween(LocalDate startDate, LocalDate endDate);
@@ -68,11 +77,16 @@ public interface JournalRepository extends JpaRepository<Journal, Long> {
     List<Object[]> getJournalEntriesSummaryByStatus();
     
     // Get journal entries by account and date range
-    @Query("SELECT j FROM Journal j WHERE j.accountCode = :accountCode AND j.transactionDate BETWEEN :startDate AND :endDate")
-    List<Journal> findJournalEntriesByAccountAndDateRange(@Param("accountCode") String accountCode, 
+    @Query("SELECT j FROM Journal j WHERE j.accountId = :accountId AND j.transactionDate BETWEEN :startDate AND :endDate")
+    List<Journal> findJournalEntriesByAccountAndDateRange(@Param("accountId") Integer accountId, 
                                                           @Param("startDate") LocalDate startDate, 
                                                           @Param("endDate") LocalDate endDate);
     
+    // Sum entries of each account and status in a date range: account id, status, debit, credit
+    @Query("SELECT j.accountId, j.status, COALESCE(SUM(j.debitAmount), 0), COALESCE(SUM(j.creditAmount), 0) " +
+           "FROM Journal j WHERE j.transactionDate BETWEEN :startDate AND :endDate GROUP BY j.accountId, j.status")
+    List<Object[]> sumByAccountAndStatus(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
     // Find draft journal entries
     @Query("SELECT j FROM Journal j WHERE j.status = 'draft'")
     List<Journal> findDraftJournalEntries();
@@ -0,0 +1,243 @@
+package bo.edu.ucb.ms.accounting.service;
+
+import bo.edu.ucb.ms.accounting.dto.AccountBalanceDto;
+import bo.edu.ucb.ms.accounting.dto.AccountDto;
+import bo.edu.ucb.ms.accounting.dto.TrialBalanceDto;
+import bo.edu.ucb.ms.accounting.dto.TrialBalanceLineDto;
+import bo.edu.ucb.ms.accounting.entity.AccountBalance;
+import bo.edu.ucb.ms.accounting.entity.Journal;
+import bo.edu.ucb.ms.accounting.repository.AccountBalanceRepository;
+import bo.edu.ucb.ms.accounting.repository.JournalRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Service class for account balances and the trial balance
+ *
+ * Journal writes call {@link #recordInserted} and {@link #recordStatusChanges} inside
+ * their own transaction, so the account_balance table always matches the journal.
+ * Status changes are recorded only for rows a conditional UPDATE actually changed.
+ * Reads then aggregate one row per account and month instead of every journal row.
+ */
+@Service
+@Transactional
+public class AccountBalanceService {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO account_balance (account_code, period, account_name, debit_total, credit_total, " +
+            "pending_debit, pending_credit, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (account_code, period) DO UPDATE SET account_name = EXCLUDED.account_name, " +
+            "debit_total = account_balance.debit_total + EXCLUDED.debit_total, " +
+            "credit_total = account_balance.credit_total + EXCLUDED.credit_total, " +
+            "pending_debit = account_balance.pending_debit + EXCLUDED.pending_debit, " +
+            "pending_credit = account_balance.pending_credit + EXCLUDED.pending_credit, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    // Rows are upserted in key order so concurrent writers lock them in the same order
+    private static final Comparator<BalanceKey> KEY_ORDER =
+            Comparator.comparing(BalanceKey::accountCode).thenComparingInt(BalanceKey::period);
+
+    @Autowired
+    private AccountBalanceRepository accountBalanceRepository;
+
+    @Autowired
+    private JournalRepository journalRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JournalDictionaryService journalDictionaryService;
+
+    /**
+     * Add newly inserted journal entries to the balances; joins the current transaction
+     * @param journals Inserted entries, counted according to their status
+     */
+    public void recordInserted(Collection<Journal> journals) {
+        Map<BalanceKey, BalanceDelta> deltas = new TreeMap<>(KEY_ORDER);
+        for (Journal journal : journals) {
+            delta(deltas, journal).add(journal, journal.getStatus(), 1);
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Move journal entries that all had the same status between balance buckets; joins the current transaction
+     * @param journals Entries with their new status
+     * @param previousStatus Status of every entry before the change
+     */
+    public void recordStatusChanges(Collection<Journal> journals, Journal.Status previousStatus) {
+        Map<BalanceKey, BalanceDelta> deltas = new TreeMap<>(KEY_ORDER);
+        for (Journal journal : journals) {
+            BalanceDelta delta = delta(deltas, journal);
+            delta.add(journal, previousStatus, -1);
+            delta.add(journal, journal.getStatus(), 1);
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Get monthly account balances
+     * @param accountCode Account code, or null for every account
+     * @param period Month, or null for every month
+     * @return List of AccountBalanceDto ordered by account code and period
+     */
+    @Transactional(readOnly = true)
+    public List<AccountBalanceDto> getBalances(String accountCode, YearMonth period) {
+        List<AccountBalance> balances;
+        if (accountCode != null) {
+            balances = accountBalanceRepository.findByAccountCodeOrderByPeriod(accountCode);
+            if (period != null) {
+                balances = balances.stream().filter(b -> b.getPeriod() == toPeriod(period)).toList();
+            }
+        } else if (period != null) {
+            balances = accountBalanceRepository.findByPeriodOrderByAccountCode(toPeriod(period));
+        } else {
+            balances = accountBalanceRepository.findAllByOrderByAccountCodeAscPeriodAsc();
+        }
+        return balances.stream().map(this::convertToDto).toList();
+    }
+
+    /**
+     * Get the trial balance up to a date
+     * Whole months are read from the balances table; only the entries of a partial
+     * last month are summed from the journal.
+     * @param asOf Last transaction date included, or null for every entry
+     * @param includePending true to count draft entries as well as posted ones
+     * @return TrialBalanceDto with one line per account, ordered by account code
+     */
+    @Transactional(readOnly = true)
+    public TrialBalanceDto getTrialBalance(LocalDate asOf, boolean includePending) {
+        int lastFullPeriod = Integer.MAX_VALUE;
+        LocalDate partialStart = null;
+        if (asOf != null) {
+            YearMonth month = YearMonth.from(asOf);
+            if (asOf.equals(month.atEndOfMonth())) {
+                lastFullPeriod = toPeriod(month);
+            } else {
+                lastFullPeriod = toPeriod(month.minusMonths(1));
+                partialStart = month.atDay(1);
+            }
+        }
+
+        Map<String, TrialBalanceLineDto> lines = new TreeMap<>();
+        for (Object[] row : accountBalanceRepository.sumByAccountUpToPeriod(lastFullPeriod)) {
+            BigDecimal debit = (BigDecimal) row[2];
+            BigDecimal credit = (BigDecimal) row[3];
+            if (includePending) {
+                debit = debit.add((BigDecimal) row[4]);
+                credit = credit.add((BigDecimal) row[5]);
+            }
+            addLine(lines, (String) row[0], (String) row[1], debit, credit);
+        }
+        if (partialStart != null) {
+            for (Object[] row : journalRepository.sumByAccountAndStatus(partialStart, asOf)) {
+                Journal.Status status = (Journal.Status) row[1];
+                if (status == Journal.Status.posted || (includePending && status == Journal.Status.draft)) {
+                    AccountDto account = journalDictionaryService.getAccount((Integer) row[0]);
+                    addLine(lines, account.getCode(), account.getName(), (BigDecimal) row[2], (BigDecimal) row[3]);
+                }
+            }
+        }
+        return new TrialBalanceDto(asOf, includePending, new ArrayList<>(lines.values()));
+    }
+
+    private void addLine(Map<String, TrialBalanceLineDto> lines, String accountCode, String accountName,
+                         BigDecimal debit, BigDecimal credit) {
+        TrialBalanceLineDto line = lines.get(accountCode);
+        if (line == null) {
+            lines.put(accountCode, new TrialBalanceLineDto(accountCode, accountName, debit, credit));
+        } else {
+            lines.put(accountCode, new TrialBalanceLineDto(accountCode, line.getAccountName(),
+                    line.getDebitTotal().add(debit), line.getCreditTotal().add(credit)));
+        }
+    }
+
+    private void apply(Map<BalanceKey, BalanceDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (Map.Entry<BalanceKey, BalanceDelta> entry : deltas.entrySet()) {
+            BalanceDelta delta = entry.getValue();
+            rows.add(new Object[] { entry.getKey().accountCode(), entry.getKey().period(), delta.accountName,
+                    delta.debit, delta.credit, delta.pendingDebit, delta.pendingCredit, now });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    private static BalanceDelta delta(Map<BalanceKey, BalanceDelta> deltas, Journal journal) {
+        BalanceKey key = new BalanceKey(journal.getAccountCode(), toPeriod(YearMonth.from(journal.getTransactionDate())));
+        BalanceDelta delta = deltas.computeIfAbsent(key, k -> new BalanceDelta());
+        delta.accountName = journal.getAccountName();
+        return delta;
+    }
+
+    private static int toPeriod(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    /**
+     * Convert AccountBalance entity to AccountBalanceDto
+     * @param balance AccountBalance entity
+     * @return AccountBalanceDto
+     */
+    private AccountBalanceDto convertToDto(AccountBalance balance) {
+        AccountBalanceDto dto = new AccountBalanceDto();
+        dto.setAccountCode(balance.getAccountCode());
+        dto.setAccountName(balance.getAccountName());
+        dto.setPeriod(YearMonth.of(balance.getPeriod() / 100, balance.getPeriod() % 100).toString());
+        dto.setDebitTotal(balance.getDebitTotal());
+        dto.setCreditTotal(balance.getCreditTotal());
+        dto.setBalance(balance.getDebitTotal().subtract(balance.getCreditTotal()));
+        dto.setPendingDebit(balance.getPendingDebit());
+        dto.setPendingCredit(balance.getPendingCredit());
+        return dto;
+    }
+
+    private record BalanceKey(String accountCode, int period) {
+    }
+
+    private static class BalanceDelta {
+        private String accountName;
+        private BigDecimal debit = BigDecimal.ZERO;
+        private BigDecimal credit = BigDecimal.ZERO;
+        private BigDecimal pendingDebit = BigDecimal.ZERO;
+        private BigDecimal pendingCredit = BigDecimal.ZERO;
+
+        // Posted entries count in the totals, drafts as pending, reversed entries nowhere
+        private void add(Journal journal, Journal.Status status, int sign) {
+            BigDecimal debitAmount = signed(journal.getDebitAmount(), sign);
+            BigDecimal creditAmount = signed(journal.getCreditAmount(), sign);
+            if (status == Journal.Status.posted) {
+                debit = debit.add(debitAmount);
+                credit = credit.add(creditAmount);
+            } else if (status == Journal.Status.draft) {
+                pendingDebit = pendingDebit.add(debitAmount);
+                pendingCredit = pendingCredit.add(creditAmount);
+            }
+        }
+
+        private static BigDecimal signed(BigDecimal amount, int sign) {
+            if (amount == null) {
+                return BigDecimal.ZERO;
+            }
+            return sign < 0 ? amount.negate() : amount;
+        }
+    }
+}
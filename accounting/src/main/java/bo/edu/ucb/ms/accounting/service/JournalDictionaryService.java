@@ -0,0 +1,238 @@
+package bo.edu.ucb.ms.accounting.service;
+
+import bo.edu.ucb.ms.accounting.dto.AccountDto;
+import bo.edu.ucb.ms.accounting.entity.Journal;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service class for the chart of accounts and the dictionary of repeated journal attributes
+ *
+ * Journal rows store ids instead of the account code and name, department and creator;
+ * free-text notes stay inline. Both tables only grow and their rows never change, so they are cached in
+ * memory without invalidation: every journal entry with the same department shares one
+ * String instance, and names are resolved without touching the database. Unknown
+ * accounts and values are created on first use in their own committed transaction, so
+ * a rolled back journal insert never leaves a cached id without its row.
+ */
+@Service
+public class JournalDictionaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalDictionaryService.class);
+
+    /**
+     * Journal attributes stored in the dictionary
+     */
+    public enum Kind {
+        department, created_by
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, AccountDto> accountsByCode = new ConcurrentHashMap<>();
+    private final Map<Integer, AccountDto> accountsById = new ConcurrentHashMap<>();
+    private final Map<Kind, Map<String, Integer>> valueIds = new EnumMap<>(Kind.class);
+    private final Map<Integer, String> values = new ConcurrentHashMap<>();
+    private TransactionTemplate newTransaction;
+
+    @PostConstruct
+    public void load() {
+        for (Kind kind : Kind.values()) {
+            valueIds.put(kind, new ConcurrentHashMap<>());
+        }
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            jdbcTemplate.query("SELECT id, code, name FROM account",
+                    rs -> { cacheAccount(new AccountDto(rs.getInt(1), rs.getString(2), rs.getString(3))); });
+            jdbcTemplate.query("SELECT id, kind, value FROM journal_dictionary",
+                    rs -> { cacheValue(Kind.valueOf(rs.getString(2)), rs.getString(3), rs.getInt(1)); });
+            log.info("Journal dictionary: loaded {} account(s) and {} value(s)", accountsById.size(), values.size());
+        } catch (RuntimeException e) {
+            log.warn("Journal dictionary: could not preload, entries will be loaded on use: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Get all accounts of the chart of accounts
+     * @return List of AccountDto ordered by code
+     */
+    public List<AccountDto> getAccounts() {
+        List<AccountDto> accounts = jdbcTemplate.query("SELECT id, code, name FROM account",
+                (rs, rowNum) -> cacheAccount(new AccountDto(rs.getInt(1), rs.getString(2), rs.getString(3))));
+        accounts.sort(Comparator.comparing(AccountDto::getCode));
+        return accounts;
+    }
+
+    /**
+     * Get an account by code, creating it if the code is new
+     * The name of an existing account is kept, the given one is only used for new accounts.
+     * @param code Account code
+     * @param name Account name for a new account
+     * @return Account with its id
+     */
+    public AccountDto resolveAccount(String code, String name) {
+        AccountDto account = accountsByCode.get(code);
+        if (account != null) {
+            return account;
+        }
+        return newTransaction.execute(status -> {
+            jdbcTemplate.update("INSERT INTO account (code, name) VALUES (?, ?) ON CONFLICT (code) DO NOTHING", code, name);
+            return cacheAccount(jdbcTemplate.queryForObject("SELECT id, code, name FROM account WHERE code = ?",
+                    (rs, rowNum) -> new AccountDto(rs.getInt(1), rs.getString(2), rs.getString(3)), code));
+        });
+    }
+
+    /**
+     * Find an account by code without creating it
+     * @param code Account code
+     * @return Account if it exists
+     */
+    public Optional<AccountDto> findAccount(String code) {
+        AccountDto account = accountsByCode.get(code);
+        if (account != null) {
+            return Optional.of(account);
+        }
+        return jdbcTemplate.query("SELECT id, code, name FROM account WHERE code = ?",
+                (rs, rowNum) -> cacheAccount(new AccountDto(rs.getInt(1), rs.getString(2), rs.getString(3))), code)
+                .stream().findFirst();
+    }
+
+    /**
+     * Get an account by id
+     * @param id Account id
+     * @return Account
+     */
+    public AccountDto getAccount(int id) {
+        AccountDto account = accountsById.get(id);
+        if (account != null) {
+            return account;
+        }
+        return cacheAccount(jdbcTemplate.queryForObject("SELECT id, code, name FROM account WHERE id = ?",
+                (rs, rowNum) -> new AccountDto(rs.getInt(1), rs.getString(2), rs.getString(3)), id));
+    }
+
+    /**
+     * Get the id of a value, creating it if the value is new
+     * @param kind Attribute the value belongs to
+     * @param value Value, or null
+     * @return Id, or null for a null value
+     */
+    public Integer resolveValue(Kind kind, String value) {
+        if (value == null) {
+            return null;
+        }
+        Integer id = valueIds.get(kind).get(value);
+        if (id != null) {
+            return id;
+        }
+        return newTransaction.execute(status -> {
+            jdbcTemplate.update("INSERT INTO journal_dictionary (kind, value) VALUES (?, ?) " +
+                    "ON CONFLICT (kind, md5(value)) DO NOTHING", kind.name(), value);
+            Integer created = jdbcTemplate.queryForObject(
+                    "SELECT id FROM journal_dictionary WHERE kind = ? AND md5(value) = md5(?) AND value = ?",
+                    Integer.class, kind.name(), value, value);
+            cacheValue(kind, value, created);
+            return created;
+        });
+    }
+
+    /**
+     * Find the id of a value without creating it
+     * @param kind Attribute the value belongs to
+     * @param value Value
+     * @return Id if the value exists
+     */
+    public Optional<Integer> findValue(Kind kind, String value) {
+        Integer id = valueIds.get(kind).get(value);
+        if (id != null) {
+            return Optional.of(id);
+        }
+        List<Integer> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM journal_dictionary WHERE kind = ? AND md5(value) = md5(?) AND value = ?",
+                Integer.class, kind.name(), value, value);
+        ids.forEach(found -> cacheValue(kind, value, found));
+        return ids.stream().findFirst();
+    }
+
+    /**
+     * Get a value by id
+     * @param id Value id, or null
+     * @return Value, or null for a null id
+     */
+    public String getValue(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        String value = values.get(id);
+        if (value != null) {
+            return value;
+        }
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT kind, value FROM journal_dictionary WHERE id = ?", id);
+        return cacheValue(Kind.valueOf((String) row.get("kind")), (String) row.get("value"), id);
+    }
+
+    /**
+     * Set the dictionary ids of a new journal entry from its account and attribute values
+     * The account name is replaced by the one in the chart of accounts.
+     * @param journal Journal entry with account code, account name and attribute values
+     */
+    public void assignIds(Journal journal) {
+        AccountDto account = resolveAccount(journal.getAccountCode(), journal.getAccountName());
+        journal.setAccountId(account.getId());
+        journal.setAccountName(account.getName());
+        journal.setDepartmentId(resolveValue(Kind.department, journal.getDepartment()));
+        journal.setCreatedById(resolveValue(Kind.created_by, journal.getCreatedBy()));
+    }
+
+    /**
+     * Set the account and attribute values of a journal entry from its dictionary ids
+     * @param journal Journal entry with dictionary ids
+     */
+    public void assignValues(Journal journal) {
+        if (journal.getAccountId() != null) {
+            AccountDto account = getAccount(journal.getAccountId());
+            journal.setAccountCode(account.getCode());
+            journal.setAccountName(account.getName());
+        }
+        journal.setDepartment(getValue(journal.getDepartmentId()));
+        journal.setCreatedBy(getValue(journal.getCreatedById()));
+    }
+
+    private AccountDto cacheAccount(AccountDto account) {
+        AccountDto cached = accountsByCode.putIfAbsent(account.getCode(), account);
+        if (cached != null) {
+            return cached;
+        }
+        accountsById.put(account.getId(), account);
+        return account;
+    }
+
+    // Keeps the first instance of each value, so all journal entries share it
+    private String cacheValue(Kind kind, String value, int id) {
+        String cached = values.putIfAbsent(id, value);
+        if (cached != null) {
+            return cached;
+        }
+        valueIds.get(kind).put(value, id);
+        return value;
+    }
+}
@@ -1,16 +1,34 @@
 package bo.edu.ucb.ms.accounting.service;
 
+import bo.edu.ucb.ms.accounting.dto.JournalBulkResultDto;
+import bo.edu.ucb.ms.accounting.dto.JournalBulkUpdateDto;
 import bo.edu.ucb.ms.accounting.dto.JournalDto;
 import bo.edu.ucb.ms.accounting.entity.Journal;
+import bo.edu.ucb.ms.accounting.ingestion.IdempotencyKeyFilter;
+import bo.edu.ucb.ms.accounting.ingestion.JournalGroupCommitter;
 import bo.edu.ucb.ms.accounting.repository.JournalRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 
 /**
  * Service class for Journal business logic
@@ -22,11 +40,45 @@ public class JournalService {
     @Autowired
     private JournalRepository journalRepository;
     
+    @Autowired
+    private JournalGroupCommitter journalGroupCommitter;
+    
+    @Autowired
+    private IdempotencyKeyFilter idempotencyKeyFilter;
+    
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+    
+    @Autowired
+    private JournalDictionaryService journalDictionaryService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${accounting.journal-ingestion.enabled:true}")
+    private boolean groupCommitEnabled;
+    
+    @Value("${accounting.journal-bulk.chunk-size:1000}")
+    private int bulkChunkSize;
+    
     /**
      * Create a new journal entry
+     * With group commit enabled the entry is inserted together with concurrent ones and
+     * this call returns once their shared transaction has committed; it runs outside a
+     * transaction so waiting callers do not hold database connections.
+     * If an entry with the same idempotency key exists, it is returned and nothing is
+     * inserted, so clients can safely retry.
      * @param journalDto Journal entry information
-     * @return Created Journal entity
+     * @return Created Journal entity, or the existing one with the same idempotency key
+     * @throws java.util.concurrent.RejectedExecutionException if the ingestion buffer is full
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Journal createJournalEntry(JournalDto journalDto) {
         // Generate unique journal entry number if not provided
         if (journalDto.getJournalEntryNumber() == null || journalDto.getJournalEntryNumber().isEmpty()) {
@@ -35,9 +87,49 @@ public class JournalService {
         
         // Convert DTO to entity
         Journal journal = convertToEntity(journalDto);
+        String idempotencyKey = journal.getIdempotencyKey();
         
-        // Save and return
-        return journalRepository.save(journal);
+        // Only keys the filter may have seen cost a lookup; the insert itself catches the rest
+        if (idempotencyKey != null && idempotencyKeyFilter.mightContain(idempotencyKey)) {
+            Optional<Journal> existing = journalRepository.findByIdempotencyKey(idempotencyKey);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
+        
+        journalDictionaryService.assignIds(journal);
+        Journal created = groupCommitEnabled ? submit(journal) : save(journal);
+        if (idempotencyKey != null) {
+            idempotencyKeyFilter.add(idempotencyKey);
+        }
+        return created;
+    }
+    
+    private Journal submit(Journal journal) {
+        try {
+            return journalGroupCommitter.submit(journal).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+    
+    private Journal save(Journal journal) {
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                Journal saved = journalRepository.save(journal);
+                accountBalanceService.recordInserted(List.of(saved));
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same idempotency key won the race
+            if (journal.getIdempotencyKey() != null) {
+                Optional<Journal> existing = journalRepository.findByIdempotencyKey(journal.getIdempotencyKey());
+                if (existing.isPresent()) {
+                    return existing.get();
+                }
+            }
+            throw e;
+        }
     }
     
     /**
@@ -87,22 +179,30 @@ public class JournalService {
      * @return List of JournalDto
      */
     public List<JournalDto> getJournalEntriesByAccountCode(String accountCode) {
-        List<Journal> journals = journalRepository.findByAccountCode(accountCode);
+        List<Journal> journals = journalDictionaryService.findAccount(accountCode)
+                .map(account -> journalRepository.findByAccountId(account.getId()))
+                .orElse(List.of());
         return journals.stream().map(this::convertToDto).toList();
     }
     
     /**
      * Post a journal entry (change status from draft to posted)
+     * The status is changed with a conditional UPDATE, so of two concurrent calls only
+     * one changes the row and moves the balance.
      * @param journalEntryNumber Journal entry number
      * @return Updated JournalDto
+     * @throws IllegalStateException if the entry is not a draft
      */
     public JournalDto postJournalEntry(String journalEntryNumber) {
         Optional<Journal> journalOpt = journalRepository.findByJournalEntryNumber(journalEntryNumber);
         if (journalOpt.isPresent()) {
             Journal journal = journalOpt.get();
-            journal.post();
-            Journal updatedJournal = journalRepository.save(journal);
-            return convertToDto(updatedJournal);
+            if (updateChunk(List.of(journal.getId()), "status = ?", List.of(Journal.Status.posted.name()),
+                    Journal.Status.draft, Journal.Status.posted) == 0) {
+                throw new IllegalStateException("Only draft entries can be posted");
+            }
+            entityManager.refresh(journal);
+            return convertToDto(journal);
         }
         return null;
     }
@@ -126,21 +226,185 @@ public class JournalService {
     
     /**
      * Reverse a journal entry
+     * Like posting, only the call whose conditional UPDATE changes the row moves the balance.
      * @param journalEntryNumber Journal entry number
      * @param reversedByEntry Entry number that reverses this one
      * @return Updated JournalDto
+     * @throws IllegalStateException if the entry is not posted
      */
     public JournalDto reverseJournalEntry(String journalEntryNumber, String reversedByEntry) {
         Optional<Journal> journalOpt = journalRepository.findByJournalEntryNumber(journalEntryNumber);
         if (journalOpt.isPresent()) {
             Journal journal = journalOpt.get();
-            journal.reverse(reversedByEntry);
-            Journal updatedJournal = journalRepository.save(journal);
-            return convertToDto(updatedJournal);
+            if (updateChunk(List.of(journal.getId()), "status = ?, reversed_by_entry = ?",
+                    List.of(Journal.Status.reversed.name(), reversedByEntry),
+                    Journal.Status.posted, Journal.Status.reversed) == 0) {
+                throw new IllegalStateException("Only posted entries can be reversed");
+            }
+            entityManager.refresh(journal);
+            return convertToDto(journal);
         }
         return null;
     }
     
+    /**
+     * Post every selected draft entry; entries in any other status are skipped
+     * @param request Entries to post
+     * @return Counts of matched, posted and skipped entries
+     * @throws IllegalArgumentException if no filter is given
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public JournalBulkResultDto bulkPostJournalEntries(JournalBulkUpdateDto request) {
+        return bulkUpdate(request, "status = ?", List.of(Journal.Status.posted.name()),
+                Journal.Status.draft, Journal.Status.posted);
+    }
+    
+    /**
+     * Approve every selected entry
+     * @param request Entries to approve and the approving user
+     * @return Counts of matched and approved entries
+     * @throws IllegalArgumentException if no filter or approving user is given
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public JournalBulkResultDto bulkApproveJournalEntries(JournalBulkUpdateDto request) {
+        if (request.getApprovedBy() == null || request.getApprovedBy().isBlank()) {
+            throw new IllegalArgumentException("Approved by is required");
+        }
+        return bulkUpdate(request, "approved_by = ?, approval_date = ?",
+                List.of(request.getApprovedBy(), Timestamp.valueOf(LocalDateTime.now())), null, null);
+    }
+    
+    /**
+     * Reverse every selected posted entry; entries in any other status are skipped
+     * @param request Entries to reverse and the entry number that reverses them
+     * @return Counts of matched, reversed and skipped entries
+     * @throws IllegalArgumentException if no filter or reversing entry is given
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public JournalBulkResultDto bulkReverseJournalEntries(JournalBulkUpdateDto request) {
+        if (request.getReversedByEntry() == null || request.getReversedByEntry().isBlank()) {
+            throw new IllegalArgumentException("Reversed by entry is required");
+        }
+        return bulkUpdate(request, "status = ?, reversed_by_entry = ?",
+                List.of(Journal.Status.reversed.name(), request.getReversedByEntry()),
+                Journal.Status.posted, Journal.Status.reversed);
+    }
+    
+    /**
+     * Apply a set-based UPDATE to the selected entries in chunks of ascending ids
+     * Each chunk is one UPDATE plus its balance changes in its own transaction, so a
+     * month-end close never holds locks on every entry at once. Rows not in
+     * requiredStatus are left untouched by the UPDATE itself, which also makes the
+     * operation safe to repeat.
+     */
+    private JournalBulkResultDto bulkUpdate(JournalBulkUpdateDto request, String assignments, List<Object> assignmentArgs,
+                                            Journal.Status requiredStatus, Journal.Status newStatus) {
+        StringBuilder filter = new StringBuilder();
+        List<Object> filterArgs = new ArrayList<>();
+        if (request.getStartDate() != null) {
+            filter.append(" AND transaction_date >= ?");
+            filterArgs.add(request.getStartDate());
+        }
+        if (request.getEndDate() != null) {
+            filter.append(" AND transaction_date <= ?");
+            filterArgs.add(request.getEndDate());
+        }
+        if (request.getStatus() != null && !request.getStatus().isBlank()) {
+            filter.append(" AND status = ?");
+            filterArgs.add(Journal.Status.valueOf(request.getStatus()).name());
+        }
+        if (request.getReferenceNumber() != null && !request.getReferenceNumber().isBlank()) {
+            filter.append(" AND reference_number = ?");
+            filterArgs.add(request.getReferenceNumber());
+        }
+        if (request.getDepartment() != null && !request.getDepartment().isBlank()) {
+            Optional<Integer> departmentId =
+                    journalDictionaryService.findValue(JournalDictionaryService.Kind.department, request.getDepartment());
+            if (departmentId.isEmpty()) {
+                return new JournalBulkResultDto(0, 0);
+            }
+            filter.append(" AND department_id = ?");
+            filterArgs.add(departmentId.get());
+        }
+        List<Long> ids = request.getIds() == null || request.getIds().isEmpty() ? null
+                : request.getIds().stream().filter(Objects::nonNull).distinct().sorted().toList();
+        if (ids == null && filter.isEmpty()) {
+            throw new IllegalArgumentException("At least one filter is required");
+        }
+        if (request.getStartDate() != null && request.getEndDate() != null
+                && request.getStartDate().isAfter(request.getEndDate())) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        
+        int chunkSize = Math.max(1, Math.min(bulkChunkSize, 10000));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int matched = 0;
+        int updated = 0;
+        int offset = 0;
+        long afterId = 0;
+        while (true) {
+            List<Object> args = new ArrayList<>();
+            String sql;
+            if (ids != null) {
+                if (offset >= ids.size()) {
+                    break;
+                }
+                List<Long> candidates = ids.subList(offset, Math.min(offset + chunkSize, ids.size()));
+                offset += candidates.size();
+                args.addAll(candidates);
+                sql = "SELECT id FROM journal WHERE id IN (" + placeholders(candidates.size()) + ")" + filter + " ORDER BY id";
+            } else {
+                args.add(afterId);
+                sql = "SELECT id FROM journal WHERE id > ?" + filter + " ORDER BY id LIMIT " + chunkSize;
+            }
+            args.addAll(filterArgs);
+            List<Long> selected = jdbcTemplate.queryForList(sql, Long.class, args.toArray());
+            if (selected.isEmpty()) {
+                if (ids == null) {
+                    break;
+                }
+                continue;
+            }
+            afterId = selected.get(selected.size() - 1);
+            matched += selected.size();
+            updated += transactionTemplate.execute(status ->
+                    updateChunk(selected, assignments, assignmentArgs, requiredStatus, newStatus));
+        }
+        return new JournalBulkResultDto(matched, updated);
+    }
+    
+    private int updateChunk(List<Long> ids, String assignments, List<Object> assignmentArgs,
+                            Journal.Status requiredStatus, Journal.Status newStatus) {
+        List<Object> args = new ArrayList<>(assignmentArgs);
+        args.add(Timestamp.valueOf(LocalDateTime.now()));
+        args.addAll(ids);
+        String sql = "UPDATE journal SET " + assignments + ", updated_at = ? WHERE id IN (" + placeholders(ids.size()) + ")";
+        if (requiredStatus != null) {
+            sql += " AND status = ?";
+            args.add(requiredStatus.name());
+        }
+        sql += " RETURNING account_id, transaction_date, debit_amount, credit_amount";
+        
+        List<Journal> changed = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            Journal journal = new Journal();
+            journal.setAccountId(rs.getInt(1));
+            journal.setTransactionDate(rs.getDate(2).toLocalDate());
+            journal.setDebitAmount(rs.getBigDecimal(3));
+            journal.setCreditAmount(rs.getBigDecimal(4));
+            journal.setStatus(newStatus);
+            journalDictionaryService.assignValues(journal);
+            return journal;
+        }, args.toArray());
+        if (newStatus != null) {
+            accountBalanceService.recordStatusChanges(changed, requiredStatus);
+        }
+        return changed.size();
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
     /**
      * Convert Journal entity to JournalDto
      * @param journal Journal entity
@@ -171,6 +435,7 @@ public class JournalService {
         dto.setStatus(journal.getStatus() != null ? journal.getStatus().name() : null);
         dto.setReversedByEntry(journal.getReversedByEntry());
         dto.setNotes(journal.getNotes());
+        dto.setIdempotencyKey(journal.getIdempotencyKey());
         dto.setCreatedAt(journal.getCreatedAt());
         dto.setUpdatedAt(journal.getUpdatedAt());
         return dto;
@@ -213,6 +478,8 @@ public class JournalService {
         
         journal.setReversedByEntry(dto.getReversedByEntry());
         journal.setNotes(dto.getNotes());
+        journal.setIdempotencyKey(dto.getIdempotencyKey() != null && !dto.getIdempotencyKey().isBlank()
+                ? dto.getIdempotencyKey() : null);
         return journal;
     }
 }
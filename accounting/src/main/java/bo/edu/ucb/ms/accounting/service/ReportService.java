@@ -0,0 +1,78 @@
+package bo.edu.ucb.ms.accounting.service;
+
+import bo.edu.ucb.ms.accounting.dto.AccountDto;
+import bo.edu.ucb.ms.accounting.dto.LedgerReportDto;
+import bo.edu.ucb.ms.accounting.dto.TrialBalanceDto;
+import bo.edu.ucb.ms.accounting.dto.TrialBalanceLineDto;
+import bo.edu.ucb.ms.accounting.report.AccountTotals;
+import bo.edu.ucb.ms.accounting.report.JournalReportEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service class for reports computed from the journal entries themselves
+ *
+ * Unlike {@link AccountBalanceService} these reports do not depend on the monthly
+ * balances and work for any date range; the scan runs in parallel in
+ * {@link JournalReportEngine} with its own read-only transactions.
+ */
+@Service
+public class ReportService {
+
+    @Autowired
+    private JournalReportEngine journalReportEngine;
+
+    @Autowired
+    private JournalDictionaryService journalDictionaryService;
+
+    /**
+     * Get the trial balance up to a date by scanning the journal
+     * @param asOf Last transaction date included, or null for every entry
+     * @param includePending true to count draft entries as well as posted ones
+     * @return TrialBalanceDto with one line per account, ordered by account code
+     */
+    public TrialBalanceDto getTrialBalance(LocalDate asOf, boolean includePending) {
+        Map<Integer, AccountTotals> totals = journalReportEngine.aggregate(null, asOf, null, includePending);
+        return new TrialBalanceDto(asOf, includePending, toLines(totals));
+    }
+
+    /**
+     * Get the debit and credit movements of each account in a date range
+     * @param startDate First transaction date included, or null for the earliest entry
+     * @param endDate Last transaction date included, or null for the latest entry
+     * @param accountCode Account code, or null for every account
+     * @param includePending true to count draft entries as well as posted ones
+     * @return LedgerReportDto with one line per account, ordered by account code
+     */
+    public LedgerReportDto getLedger(LocalDate startDate, LocalDate endDate, String accountCode, boolean includePending) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        Integer accountId = null;
+        if (accountCode != null) {
+            Optional<AccountDto> account = journalDictionaryService.findAccount(accountCode);
+            if (account.isEmpty()) {
+                return new LedgerReportDto(startDate, endDate, includePending, List.of());
+            }
+            accountId = account.get().getId();
+        }
+        Map<Integer, AccountTotals> totals = journalReportEngine.aggregate(startDate, endDate, accountId, includePending);
+        return new LedgerReportDto(startDate, endDate, includePending, toLines(totals));
+    }
+
+    private List<TrialBalanceLineDto> toLines(Map<Integer, AccountTotals> totals) {
+        return totals.values().stream()
+                .map(t -> {
+                    AccountDto account = journalDictionaryService.getAccount(t.getAccountId());
+                    return new TrialBalanceLineDto(account.getCode(), account.getName(), t.getDebitTotal(), t.getCreditTotal());
+                })
+                .sorted(Comparator.comparing(TrialBalanceLineDto::getAccountCode))
+                .toList();
+    }
+}
@@ -0,0 +1,50 @@
+package bo.edu.ucb.ms.accounting.ingestion;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTests {
+
+	@Test
+	void addedValuesAreAlwaysFound() {
+		BloomFilter filter = new BloomFilter(10000, 0.01);
+		for (int i = 0; i < 10000; i++) {
+			filter.add("key-" + i);
+		}
+		for (int i = 0; i < 10000; i++) {
+			assertTrue(filter.mightContain("key-" + i));
+		}
+	}
+
+	@Test
+	void emptyFilterContainsNothing() {
+		BloomFilter filter = new BloomFilter(1000, 0.01);
+		assertFalse(filter.mightContain("key-1"));
+		assertFalse(filter.mightContain(""));
+	}
+
+	@Test
+	void falsePositiveRateStaysNearTarget() {
+		BloomFilter filter = new BloomFilter(10000, 0.01);
+		for (int i = 0; i < 10000; i++) {
+			filter.add("key-" + i);
+		}
+		int falsePositives = 0;
+		for (int i = 0; i < 100000; i++) {
+			if (filter.mightContain("other-" + i)) {
+				falsePositives++;
+			}
+		}
+		// 1% target; allow for hash variance
+		assertTrue(falsePositives < 2000, falsePositives + " false positives out of 100000");
+	}
+
+	@Test
+	void degenerateSizesStillWork() {
+		BloomFilter filter = new BloomFilter(0, 0);
+		filter.add("only");
+		assertTrue(filter.mightContain("only"));
+	}
+}
@@ -0,0 +1,95 @@
+package bo.edu.ucb.ms.accounting.ingestion;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscRingBufferTests {
+
+	@Test
+	void capacityIsRoundedUpToAPowerOfTwo() {
+		assertEquals(4, slots(new MpscRingBuffer<>(4)));
+		assertEquals(4, slots(new MpscRingBuffer<>(1)));
+		assertEquals(4, slots(new MpscRingBuffer<>(2)));
+		assertEquals(8, slots(new MpscRingBuffer<>(5)));
+	}
+
+	@Test
+	void pollReturnsElementsInOfferOrder() {
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+		assertTrue(buffer.isEmpty());
+		assertNull(buffer.poll());
+
+		buffer.offer(1);
+		buffer.offer(2);
+		buffer.offer(3);
+		assertFalse(buffer.isEmpty());
+		assertEquals(1, buffer.poll());
+		assertEquals(2, buffer.poll());
+		assertEquals(3, buffer.poll());
+		assertNull(buffer.poll());
+		assertTrue(buffer.isEmpty());
+	}
+
+	@Test
+	void slotsAreReusedAfterPoll() {
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+		for (int i = 0; i < 100; i++) {
+			assertTrue(buffer.offer(i));
+			assertTrue(buffer.offer(-i));
+			assertEquals(i, buffer.poll());
+			assertEquals(-i, buffer.poll());
+		}
+		assertTrue(buffer.isEmpty());
+	}
+
+	@Test
+	void concurrentProducersLoseNoElement() throws InterruptedException {
+		int producers = 4;
+		int perProducer = 10000;
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(64);
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			int first = p * perProducer;
+			Thread thread = new Thread(() -> {
+				for (int i = first; i < first + perProducer; i++) {
+					while (!buffer.offer(i)) {
+						Thread.onSpinWait();
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+
+		Set<Integer> received = new HashSet<>();
+		long deadline = System.nanoTime() + 10_000_000_000L;
+		while (received.size() < producers * perProducer && System.nanoTime() < deadline) {
+			Integer element = buffer.poll();
+			if (element != null) {
+				assertTrue(received.add(element), "element " + element + " polled twice");
+			}
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(producers * perProducer, received.size());
+		assertTrue(buffer.isEmpty());
+	}
+
+	private static int slots(MpscRingBuffer<Integer> buffer) {
+		int offered = 0;
+		while (buffer.offer(offered)) {
+			offered++;
+		}
+		return offered;
+	}
+}
@@ -0,0 +1,95 @@
+package bo.edu.ucb.ms.accounting.report;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares a single-connection scan with the parallel scan of {@link JournalReportEngine}
+ *
+ * Runs against a throwaway PostgreSQL container created from the README schema, so
+ * the configured database is never touched; needs Docker. Run with:
+ * mvn test -Dbenchmark=true [-Dbenchmark.rows=1000000]
+ */
+@SpringBootTest(properties = { "accounting.reports.parallelism=4", "eureka.client.enabled=false" })
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JournalReportEngineBenchmarkTests {
+
+	private static final Logger log = LoggerFactory.getLogger(JournalReportEngineBenchmarkTests.class);
+
+	private static final LocalDate FIRST_DATE = LocalDate.of(1900, 1, 1);
+	private static final int DAYS = 3650;
+	private static final int ROUNDS = 3;
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+			.withInitScript("accounting-schema.sql");
+
+	@Autowired
+	private JournalReportEngine journalReportEngine;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void seed() {
+		int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+		jdbcTemplate.update("INSERT INTO account (code, name) " +
+				"SELECT 'BENCH-' || i, 'Benchmark ' || i FROM generate_series(0, 49) AS i");
+		jdbcTemplate.update("INSERT INTO journal_dictionary (kind, value) VALUES ('created_by', 'benchmark') " +
+				"ON CONFLICT (kind, md5(value)) DO NOTHING");
+		jdbcTemplate.update(
+				"INSERT INTO journal (journal_entry_number, transaction_date, account_id, description, " +
+				"debit_amount, credit_amount, created_by_id, status) " +
+				"SELECT 'BENCH-' || i, DATE '1900-01-01' + (i % " + DAYS + "), a.id, " +
+				"'Benchmark entry', CASE WHEN i % 2 = 0 THEN (i % 100000) / 100.0 ELSE 0 END, " +
+				"CASE WHEN i % 2 = 1 THEN (i % 100000) / 100.0 ELSE 0 END, d.id, " +
+				"CASE i % 10 WHEN 0 THEN 'reversed' WHEN 1 THEN 'draft' ELSE 'posted' END " +
+				"FROM generate_series(1, ?) AS i JOIN account a ON a.code = 'BENCH-' || (i % 50) " +
+				"JOIN journal_dictionary d ON d.kind = 'created_by' AND md5(d.value) = md5('benchmark')", rows);
+		jdbcTemplate.execute("ANALYZE journal");
+	}
+
+	@Test
+	void parallelScan() {
+		LocalDate lastDate = FIRST_DATE.plusDays(DAYS - 1);
+		Map<Integer, AccountTotals> single = journalReportEngine.aggregate(FIRST_DATE, lastDate, null, true, 1);
+		Map<Integer, AccountTotals> parallel = journalReportEngine.aggregate(FIRST_DATE, lastDate, null, true);
+
+		assertEquals(single.keySet(), parallel.keySet());
+		single.forEach((id, totals) -> {
+			assertEquals(totals.getDebitTotal(), parallel.get(id).getDebitTotal());
+			assertEquals(totals.getCreditTotal(), parallel.get(id).getCreditTotal());
+		});
+
+		long singleNanos = Long.MAX_VALUE;
+		long parallelNanos = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			long started = System.nanoTime();
+			journalReportEngine.aggregate(FIRST_DATE, lastDate, null, true, 1);
+			singleNanos = Math.min(singleNanos, System.nanoTime() - started);
+			started = System.nanoTime();
+			journalReportEngine.aggregate(FIRST_DATE, lastDate, null, true);
+			parallelNanos = Math.min(parallelNanos, System.nanoTime() - started);
+		}
+		log.info("Journal report benchmark: single scan {} ms, {} workers {} ms, speedup {}x ({} cores)",
+				singleNanos / 1_000_000, journalReportEngine.getParallelism(), parallelNanos / 1_000_000,
+				String.format("%.2f", (double) singleNanos / parallelNanos), Runtime.getRuntime().availableProcessors());
+	}
+}
@@ -0,0 +1,118 @@
+package bo.edu.ucb.ms.accounting.service;
+
+import bo.edu.ucb.ms.accounting.entity.Journal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class AccountBalanceServiceTests {
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@InjectMocks
+	private AccountBalanceService accountBalanceService;
+
+	@Captor
+	private ArgumentCaptor<List<Object[]>> rows;
+
+	@Test
+	void insertedEntriesCountByStatus() {
+		accountBalanceService.recordInserted(List.of(
+				journal("1100", "2024-03-05", "100.00", "0", Journal.Status.posted),
+				journal("1100", "2024-03-20", "0", "40.00", Journal.Status.draft),
+				journal("1100", "2024-03-25", "999.00", "0", Journal.Status.reversed)));
+
+		List<Object[]> upserted = upserted();
+		assertEquals(1, upserted.size());
+		assertRow(upserted.get(0), "1100", 202403, "100.00", "0", "0", "40.00");
+	}
+
+	@Test
+	void postingMovesDraftAmountsFromPendingToTotals() {
+		accountBalanceService.recordStatusChanges(List.of(
+				journal("1100", "2024-03-05", "100.00", "0", Journal.Status.posted),
+				journal("1100", "2024-03-06", "0", "25.00", Journal.Status.posted)), Journal.Status.draft);
+
+		List<Object[]> upserted = upserted();
+		assertEquals(1, upserted.size());
+		assertRow(upserted.get(0), "1100", 202403, "100.00", "25.00", "-100.00", "-25.00");
+	}
+
+	@Test
+	void reversingRemovesPostedAmountsFromTotals() {
+		accountBalanceService.recordStatusChanges(List.of(
+				journal("1100", "2024-03-05", "100.00", "0", Journal.Status.reversed)), Journal.Status.posted);
+
+		assertRow(upserted().get(0), "1100", 202403, "-100.00", "0", "0", "0");
+	}
+
+	@Test
+	void rowsAreOnePerAccountAndMonthInKeyOrder() {
+		accountBalanceService.recordInserted(List.of(
+				journal("2100", "2024-03-05", "10.00", "0", Journal.Status.posted),
+				journal("1100", "2024-04-01", "20.00", "0", Journal.Status.posted),
+				journal("1100", "2024-03-31", "30.00", "0", Journal.Status.posted),
+				journal("1100", "2024-03-01", "5.00", "0", Journal.Status.posted)));
+
+		List<Object[]> upserted = upserted();
+		assertEquals(3, upserted.size());
+		assertRow(upserted.get(0), "1100", 202403, "35.00", "0", "0", "0");
+		assertRow(upserted.get(1), "1100", 202404, "20.00", "0", "0", "0");
+		assertRow(upserted.get(2), "2100", 202403, "10.00", "0", "0", "0");
+	}
+
+	@Test
+	void nothingIsWrittenWithoutEntries() {
+		accountBalanceService.recordStatusChanges(List.of(), Journal.Status.draft);
+
+		verifyNoInteractions(jdbcTemplate);
+	}
+
+	private List<Object[]> upserted() {
+		verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+		return rows.getValue();
+	}
+
+	// Row layout: code, period, name, debit, credit, pending debit, pending credit, timestamp
+	private static void assertRow(Object[] row, String accountCode, int period, String debit, String credit,
+			String pendingDebit, String pendingCredit) {
+		assertEquals(accountCode, row[0]);
+		assertEquals(period, row[1]);
+		assertEquals("Account " + accountCode, row[2]);
+		assertAmount(debit, row[3]);
+		assertAmount(credit, row[4]);
+		assertAmount(pendingDebit, row[5]);
+		assertAmount(pendingCredit, row[6]);
+	}
+
+	private static void assertAmount(String expected, Object actual) {
+		assertEquals(0, new BigDecimal(expected).compareTo((BigDecimal) actual), "expected " + expected + " but was " + actual);
+	}
+
+	private static Journal journal(String accountCode, String date, String debit, String credit, Journal.Status status) {
+		Journal journal = new Journal();
+		journal.setAccountCode(accountCode);
+		journal.setAccountName("Account " + accountCode);
+		journal.setTransactionDate(LocalDate.parse(date));
+		journal.setDebitAmount(new BigDecimal(debit));
+		journal.setCreditAmount(new BigDecimal(credit));
+		journal.setStatus(status);
+		return journal;
+	}
+}
@@ -0,0 +1,109 @@
+package bo.edu.ucb.ms.accounting.service;
+
+import bo.edu.ucb.ms.accounting.dto.AccountDto;
+import bo.edu.ucb.ms.accounting.entity.Journal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JournalDictionaryServiceTests {
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@InjectMocks
+	private JournalDictionaryService journalDictionaryService;
+
+	@BeforeEach
+	void load() {
+		journalDictionaryService.load();
+	}
+
+	@Test
+	void accountIsReadOnceThenServedFromMemory() {
+		AccountDto cash = new AccountDto(1, "1100", "Cash");
+		when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class), eq(1))).thenReturn(cash);
+
+		assertSame(cash, journalDictionaryService.getAccount(1));
+		assertSame(cash, journalDictionaryService.getAccount(1));
+		assertEquals(Optional.of(cash), journalDictionaryService.findAccount("1100"));
+		assertSame(cash, journalDictionaryService.resolveAccount("1100", "Other name"));
+
+		verify(jdbcTemplate, times(1)).queryForObject(anyString(), any(RowMapper.class), eq(1));
+	}
+
+	@Test
+	void newValueIsCreatedOnceThenServedFromMemory() {
+		when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("department"), eq("Sales"), eq("Sales")))
+				.thenReturn(7);
+
+		assertEquals(7, journalDictionaryService.resolveValue(JournalDictionaryService.Kind.department, "Sales"));
+		assertEquals(7, journalDictionaryService.resolveValue(JournalDictionaryService.Kind.department, "Sales"));
+		assertEquals(Optional.of(7), journalDictionaryService.findValue(JournalDictionaryService.Kind.department, "Sales"));
+		assertEquals("Sales", journalDictionaryService.getValue(7));
+
+		verify(jdbcTemplate, times(1)).update(anyString(), eq("department"), eq("Sales"));
+		verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Integer.class), eq("department"), eq("Sales"), eq("Sales"));
+	}
+
+	@Test
+	void valuesReadByIdAreSharedBetweenEntries() {
+		when(jdbcTemplate.queryForMap(anyString(), eq(3))).thenReturn(Map.of("kind", "created_by", "value", "alice"));
+		when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class), eq(1)))
+				.thenReturn(new AccountDto(1, "1100", "Cash"));
+
+		Journal first = journal(1, 3);
+		Journal second = journal(1, 3);
+		journalDictionaryService.assignValues(first);
+		journalDictionaryService.assignValues(second);
+
+		assertEquals("1100", first.getAccountCode());
+		assertEquals("Cash", first.getAccountName());
+		assertEquals("alice", first.getCreatedBy());
+		assertSame(first.getCreatedBy(), second.getCreatedBy());
+		assertEquals(Optional.of(3), journalDictionaryService.findValue(JournalDictionaryService.Kind.created_by, "alice"));
+		verify(jdbcTemplate, times(1)).queryForMap(anyString(), eq(3));
+	}
+
+	@Test
+	void nullValuesNeverTouchTheDatabase() {
+		assertNull(journalDictionaryService.resolveValue(JournalDictionaryService.Kind.department, null));
+		assertNull(journalDictionaryService.getValue(null));
+
+		// Only the two preload queries of load()
+		verify(jdbcTemplate, times(2)).query(anyString(), any(RowCallbackHandler.class));
+		verifyNoMoreInteractions(jdbcTemplate);
+	}
+
+	private static Journal journal(int accountId, int createdById) {
+		Journal journal = new Journal();
+		journal.setAccountId(accountId);
+		journal.setCreatedById(createdById);
+		return journal;
+	}
+}
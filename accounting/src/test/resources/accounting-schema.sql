@@ -0,0 +1,61 @@
+-- Accounting schema from the README, used by tests that start their own PostgreSQL container
+
+-- Plan de cuentas: cada asiento guarda solo el id de su cuenta
+CREATE TABLE ACCOUNT (
+    id SERIAL PRIMARY KEY,
+    code VARCHAR(20) UNIQUE NOT NULL,
+    name VARCHAR(255) NOT NULL
+);
+
+-- Valores repetidos de los asientos (departamento, creador), guardados una sola vez
+CREATE TABLE JOURNAL_DICTIONARY (
+    id SERIAL PRIMARY KEY,
+    kind VARCHAR(20) NOT NULL CHECK (kind IN ('department', 'created_by')),
+    value TEXT NOT NULL
+);
+
+CREATE UNIQUE INDEX idx_journal_dictionary_value ON JOURNAL_DICTIONARY (kind, md5(value));
+
+CREATE TABLE JOURNAL (
+    id SERIAL PRIMARY KEY,
+    journal_entry_number VARCHAR(20) UNIQUE NOT NULL,
+    transaction_date DATE NOT NULL,
+    posting_date DATE DEFAULT CURRENT_DATE,
+    account_id INTEGER NOT NULL REFERENCES ACCOUNT (id),
+    description TEXT NOT NULL,
+    reference_number VARCHAR(50),
+    debit_amount DECIMAL(15,2) DEFAULT 0.00,
+    credit_amount DECIMAL(15,2) DEFAULT 0.00,
+    balance_type CHAR(1) CHECK (balance_type IN ('D', 'C')),
+    department_id INTEGER REFERENCES JOURNAL_DICTIONARY (id),
+    cost_center VARCHAR(50),
+    project_code VARCHAR(50),
+    currency_code CHAR(3) DEFAULT 'USD',
+    exchange_rate DECIMAL(10,6) DEFAULT 1.000000,
+    source_document VARCHAR(100),
+    created_by_id INTEGER NOT NULL REFERENCES JOURNAL_DICTIONARY (id),
+    approved_by VARCHAR(100),
+    approval_date TIMESTAMP,
+    status VARCHAR(20) DEFAULT 'draft',
+    reversed_by_entry VARCHAR(20),
+    notes TEXT,
+    idempotency_key VARCHAR(100),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_journal_transaction_date ON JOURNAL (transaction_date);
+CREATE UNIQUE INDEX idx_journal_idempotency_key ON JOURNAL (idempotency_key);
+
+-- Saldos por cuenta y mes (period = yyyymm), mantenidos en la misma transacción que cada asiento
+CREATE TABLE ACCOUNT_BALANCE (
+    account_code VARCHAR(20) NOT NULL,
+    period INTEGER NOT NULL,
+    account_name VARCHAR(255) NOT NULL,
+    debit_total DECIMAL(17,2) NOT NULL DEFAULT 0.00,
+    credit_total DECIMAL(17,2) NOT NULL DEFAULT 0.00,
+    pending_debit DECIMAL(17,2) NOT NULL DEFAULT 0.00,
+    pending_credit DECIMAL(17,2) NOT NULL DEFAULT 0.00,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (account_code, period)
+);
@@ -2,8 +2,10 @@ package bo.edu.ucb.producto;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ProductoApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,35 @@
+package bo.edu.ucb.producto.config;
+
+import bo.edu.ucb.producto.warehouse.cache.CatalogSnapshotFilter;
+import bo.edu.ucb.producto.warehouse.cache.CatalogSnapshotHolder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers the catalog snapshot filter in front of the product read endpoints
+ */
+@Configuration
+@ConditionalOnProperty(name = "warehouse.catalog-snapshot.enabled", havingValue = "true")
+public class CatalogSnapshotConfig {
+
+    @Value("${warehouse.catalog.max-age-seconds:0}")
+    private long catalogMaxAgeSeconds;
+
+    @Bean
+    public FilterRegistrationBean<CatalogSnapshotFilter> catalogSnapshotFilter(CatalogSnapshotHolder holder) {
+        String cacheControl = CacheControl.maxAge(catalogMaxAgeSeconds, TimeUnit.SECONDS)
+                .cachePublic().mustRevalidate().getHeaderValue();
+        CatalogSnapshotFilter filter = new CatalogSnapshotFilter(holder, cacheControl);
+
+        FilterRegistrationBean<CatalogSnapshotFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/warehouse/products", "/api/warehouse/products/*");
+        registration.setName("catalogSnapshotFilter");
+        return registration;
+    }
+}
@@ -0,0 +1,34 @@
+package bo.edu.ucb.producto.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the token check in front of the internal endpoints
+ *
+ * Without a token the internal endpoints stay disabled: every call is answered with 403.
+ */
+@Configuration
+public class InternalEndpointConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(InternalEndpointConfig.class);
+
+    @Value("${warehouse.internal.token:}")
+    private String token;
+
+    @Bean
+    public FilterRegistrationBean<InternalTokenFilter> internalTokenFilter() {
+        if (token.isBlank()) {
+            log.warn("warehouse.internal.token (WAREHOUSE_INTERNAL_TOKEN) is not set; the /api/warehouse/internal "
+                    + "endpoints are disabled, so peer cache eviction and stock returns from Sales are rejected");
+        }
+        FilterRegistrationBean<InternalTokenFilter> registration = new FilterRegistrationBean<>(new InternalTokenFilter(token));
+        registration.addUrlPatterns("/api/warehouse/internal/*");
+        registration.setName("internalTokenFilter");
+        return registration;
+    }
+}
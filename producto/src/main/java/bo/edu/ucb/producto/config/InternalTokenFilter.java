@@ -0,0 +1,40 @@
+package bo.edu.ucb.producto.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Rejects calls to the internal endpoints that do not carry the shared service token
+ *
+ * The internal endpoints (peer cache eviction, stock returns from Sales) are meant for
+ * other services only; the token keeps them closed even when a route reaches them.
+ * A blank token matches no request, which disables the endpoints.
+ */
+public class InternalTokenFilter extends OncePerRequestFilter {
+
+    public static final String TOKEN_HEADER = "X-Internal-Token";
+
+    private final byte[] token;
+
+    public InternalTokenFilter(String token) {
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(TOKEN_HEADER);
+        if (token.length == 0 || header == null || !MessageDigest.isEqual(token, header.getBytes(StandardCharsets.UTF_8))) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,49 @@
+package bo.edu.ucb.producto.controller;
+
+import bo.edu.ucb.producto.warehouse.cache.ProductCacheInvalidator;
+import bo.edu.ucb.producto.warehouse.dto.CacheRegionStatisticsDto;
+import bo.edu.ucb.producto.warehouse.event.CatalogChangeLoader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * REST Controller for the product cache
+ */
+@RestController
+@RequestMapping("/api/warehouse")
+public class CacheController {
+
+    @Autowired
+    private ProductCacheInvalidator productCacheInvalidator;
+
+    @Autowired
+    private CatalogChangeLoader catalogChangeLoader;
+
+    /**
+     * Get second-level cache statistics
+     * @return List of CacheRegionStatisticsDto, one per region
+     */
+    @GetMapping("/cache/statistics")
+    public ResponseEntity<List<CacheRegionStatisticsDto>> getCacheStatistics() {
+        return ResponseEntity.ok(productCacheInvalidator.getStatistics());
+    }
+
+    /**
+     * Evict products from the local cache and refresh the in-memory views of them; called by the other producto instances
+     * The shared internal token is checked by InternalTokenFilter.
+     * @param keysChanged Whether a product was created or its SKU or category changed
+     * @param productIds Product IDs
+     * @return 204 No Content
+     */
+    @PostMapping("/internal/cache/evict")
+    public ResponseEntity<Void> evictProducts(@RequestParam(defaultValue = "false") boolean keysChanged,
+                                              @RequestBody Set<Integer> productIds) {
+        productCacheInvalidator.evict(productIds, keysChanged);
+        catalogChangeLoader.refresh(productIds);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,15 +1,41 @@
 package bo.edu.ucb.producto.controller;
 
+import bo.edu.ucb.producto.warehouse.dto.InventoryMovementDto;
+import bo.edu.ucb.producto.warehouse.dto.ProductChangesDto;
 import bo.edu.ucb.producto.warehouse.dto.ProductDto;
+import bo.edu.ucb.producto.warehouse.dto.ProductFacetsDto;
+import bo.edu.ucb.producto.warehouse.dto.ProductImportResultDto;
+import bo.edu.ucb.producto.warehouse.dto.ProductRepriceDto;
+import bo.edu.ucb.producto.warehouse.dto.ProductRepriceResultDto;
+import bo.edu.ucb.producto.warehouse.dto.StockAdjustmentBatchDto;
+import bo.edu.ucb.producto.warehouse.dto.StockAdjustmentResultDto;
+import bo.edu.ucb.producto.warehouse.dto.StockDecrementBatchDto;
+import bo.edu.ucb.producto.warehouse.dto.StockDecrementResultDto;
 import bo.edu.ucb.producto.warehouse.entity.Product;
+import bo.edu.ucb.producto.service.ProductImportService;
 import bo.edu.ucb.producto.service.ProductService;
+import bo.edu.ucb.producto.warehouse.cache.CatalogVersion;
+import bo.edu.ucb.producto.warehouse.inventory.LowStockTracker;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST Controller for Product operations
@@ -18,21 +44,120 @@ import java.util.List;
 @RequestMapping("/api/warehouse")
 public class ProductController {
     
+    private static final int MAX_LOOKUP_IDS_QUERY = 1000;
+    private static final int MAX_LOOKUP_IDS_BODY = 10000;
+    
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private ProductImportService productImportService;
+    
+    @Autowired
+    private LowStockTracker lowStockTracker;
+    
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
+    @Value("${warehouse.catalog.max-age-seconds:0}")
+    private long catalogMaxAgeSeconds;
+    
     /**
-     * Get all products
-     * @return List of ProductDto
+     * Get all products, or only the given ones
+     * @param ids Optional comma-separated product IDs, at most 1000
+     * @param ifNoneMatch Catalog ETag of a previous response, optional
+     * @return List of ProductDto; with ids, in request order and without unknown IDs; 304 if the catalog is unchanged
      */
     @GetMapping("/products")
-    public ResponseEntity<List<ProductDto>> getAllProducts() {
-        List<ProductDto> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductDto>> getAllProducts(@RequestParam(required = false) List<Integer> ids,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ids != null && ids.size() > MAX_LOOKUP_IDS_QUERY) {
+            return ResponseEntity.badRequest().build();
+        }
+        String eTag = catalogVersion.getETag();
+        if (CatalogVersion.matches(ifNoneMatch, eTag)) {
+            return catalogResponse(HttpStatus.NOT_MODIFIED, eTag).build();
+        }
+        List<ProductDto> products = ids == null ? productService.getAllProducts() : productService.getProductsByIds(ids);
+        return catalogResponse(HttpStatus.OK, eTag).body(products);
+    }
+    
+    /**
+     * Get the products changed after a point of the catalog change feed
+     * Consumers keep the returned nextSince and poll with it to sync incrementally.
+     * @param since Change sequence already seen, 0 for the whole catalog
+     * @param limit Maximum number of products, at most 1000
+     * @return ProductChangesDto in change order
+     */
+    @GetMapping("/products/changes")
+    public ResponseEntity<ProductChangesDto> getProductChanges(@RequestParam(defaultValue = "0") long since,
+                                                               @RequestParam(defaultValue = "100") int limit) {
+        if (since < 0 || limit < 1 || limit > 1000) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productService.getProductChanges(since, limit));
+    }
+    
+    /**
+     * Search products by name, description, brand, category and SKU
+     * Every word must match a word of the product or be the beginning of one
+     * @param q Search text
+     * @param limit Maximum number of results, at most 100
+     * @param ifNoneMatch Catalog ETag of a previous response, optional
+     * @return List of ProductDto, best match first; 304 if the catalog is unchanged
+     */
+    @GetMapping("/products/search")
+    public ResponseEntity<List<ProductDto>> searchProducts(@RequestParam String q,
+                                                           @RequestParam(defaultValue = "20") int limit,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (limit < 1 || limit > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        String eTag = catalogVersion.getETag();
+        if (CatalogVersion.matches(ifNoneMatch, eTag)) {
+            return catalogResponse(HttpStatus.NOT_MODIFIED, eTag).build();
+        }
+        return catalogResponse(HttpStatus.OK, eTag).body(productService.searchProducts(q, limit));
+    }
+    
+    /**
+     * Get several products by ID, for ID sets too large for a query string
+     * @param ids Product IDs, at least 1 and at most 10000
+     * @return List of ProductDto in request order, without unknown IDs
+     */
+    @PostMapping("/products/lookup")
+    public ResponseEntity<List<ProductDto>> lookupProducts(@RequestBody(required = false) List<Integer> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_LOOKUP_IDS_BODY) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+    
+    /**
+     * Bulk import products, upserting on SKU
+     * The body is streamed as CSV (text/csv, with a header row) or NDJSON (application/x-ndjson)
+     * @param contentType Content type of the body
+     * @param body Request body
+     * @return ProductImportResultDto with counts and the rejected rows
+     */
+    @PostMapping(value = "/products/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ProductImportResultDto> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                 InputStream body) {
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            Charset charset = mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8;
+            ProductImportResultDto result = mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                    ? productImportService.importNdjson(body, charset)
+                    : productImportService.importCsv(body, charset);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     /**
      * Get product by ID
+     * The ETag carries the product version, to be sent back as If-Match on updates
      * @param id Product ID
      * @return ProductDto
      */
@@ -40,7 +165,7 @@ public class ProductController {
     public ResponseEntity<ProductDto> getProductById(@PathVariable Integer id) {
         ProductDto product = productService.getProductById(id);
         if (product != null) {
-            return ResponseEntity.ok(product);
+            return ResponseEntity.ok().eTag(String.valueOf(product.getVersion())).body(product);
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -63,19 +188,24 @@ public class ProductController {
     
     /**
      * Update product
+     * With an If-Match header the update only succeeds if the product is still at that version
      * @param id Product ID
      * @param productDto Updated product information
-     * @return Updated ProductDto
+     * @param ifMatch ETag returned by a previous GET, optional
+     * @return Updated ProductDto, or 412 if the product changed since that ETag
      */
     @PutMapping("/products/{id}")
-    public ResponseEntity<ProductDto> updateProduct(@PathVariable Integer id, @Valid @RequestBody ProductDto productDto) {
+    public ResponseEntity<ProductDto> updateProduct(@PathVariable Integer id, @Valid @RequestBody ProductDto productDto,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            ProductDto updatedProduct = productService.updateProduct(id, productDto);
+            ProductDto updatedProduct = productService.updateProduct(id, productDto, parseVersion(ifMatch));
             if (updatedProduct != null) {
-                return ResponseEntity.ok(updatedProduct);
+                return ResponseEntity.ok().eTag(String.valueOf(updatedProduct.getVersion())).body(updatedProduct);
             } else {
                 return ResponseEntity.notFound().build();
             }
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -101,25 +231,217 @@ public class ProductController {
         }
     }
     
+    /**
+     * Apply a batch of stock decrements to a product
+     * @param id Product ID
+     * @param batch Quantities to decrement, in arrival order
+     * @return StockDecrementResultDto telling which decrements were applied
+     */
+    @PostMapping("/products/{id}/stock/decrements")
+    public ResponseEntity<StockDecrementResultDto> decrementProductStock(@PathVariable Integer id,
+                                                                         @Valid @RequestBody StockDecrementBatchDto batch) {
+        StockDecrementResultDto result = productService.decrementProductStock(id, batch.getQuantities(), batch.getReferences());
+        if (result != null) {
+            return ResponseEntity.ok(result);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    /**
+     * Give back stock taken by earlier decrements, used by Sales to compensate failed sales
+     * @param id Product ID
+     * @param batch Quantities to return, in arrival order
+     * @return StockDecrementResultDto telling which returns were applied
+     */
+    @PostMapping("/internal/products/{id}/stock/returns")
+    public ResponseEntity<StockDecrementResultDto> returnProductStock(@PathVariable Integer id,
+                                                                      @Valid @RequestBody StockDecrementBatchDto batch) {
+        StockDecrementResultDto result = productService.returnProductStock(id, batch.getQuantities(), batch.getReferences());
+        if (result != null) {
+            return ResponseEntity.ok(result);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    /**
+     * Change the price of every product of a category, brand and/or supplier at once
+     * @param reprice Filter and percentage or amount
+     * @return ProductRepriceResultDto with the matched, updated and skipped counts
+     */
+    @PostMapping("/products/reprice")
+    public ResponseEntity<ProductRepriceResultDto> repriceProducts(@Valid @RequestBody ProductRepriceDto reprice) {
+        try {
+            return ResponseEntity.ok(productService.repriceProducts(reprice));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Apply a batch of stock adjustments, such as cycle counts or goods receipts
+     * Each adjustment gives either an absolute stockQuantity or a delta; adjustments
+     * that would leave stock below the reserved quantity are rejected individually.
+     * @param batch Adjustments, at most 10000, applied in order
+     * @return StockAdjustmentResultDto for each adjustment, in request order
+     */
+    @PostMapping("/stock/adjustments")
+    public ResponseEntity<List<StockAdjustmentResultDto>> adjustStock(@Valid @RequestBody StockAdjustmentBatchDto batch) {
+        try {
+            return ResponseEntity.ok(productService.adjustStock(batch.getAdjustments()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Get the inventory ledger movements of a product, oldest first
+     * @param id Product ID
+     * @param from Start of the range (ISO date-time), defaults to 30 days ago
+     * @param to End of the range (ISO date-time), defaults to now
+     * @param limit Maximum number of movements, at most 1000
+     * @return List of InventoryMovementDto
+     */
+    @GetMapping("/products/{id}/stock/movements")
+    public ResponseEntity<List<InventoryMovementDto>> getStockMovements(@PathVariable Integer id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > 1000) {
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        List<InventoryMovementDto> movements = productService.getStockMovements(id, start, end, limit);
+        if (movements != null) {
+            return ResponseEntity.ok(movements);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Get the stock of a product as derived from the inventory ledger
+     * product.stock_quantity only catches up with it once the compactor folds the movements
+     * @param id Product ID
+     * @return Last snapshot plus the movements after it
+     */
+    @GetMapping("/products/{id}/stock/ledger")
+    public ResponseEntity<Integer> getLedgerStock(@PathVariable Integer id) {
+        Integer stock = productService.getLedgerStock(id);
+        if (stock != null) {
+            return ResponseEntity.ok(stock);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     /**
      * Get products by category
+     * With a price range or a page, products come from the in-memory price index, ordered by price.
      * @param category Product category
-     * @return List of ProductDto
+     * @param minPrice Lowest price, inclusive, optional
+     * @param maxPrice Highest price, inclusive, optional
+     * @param page Page number, starting at 0, optional
+     * @param size Page size, at most 1000
+     * @param ifNoneMatch Catalog ETag of a previous response, optional
+     * @return List of ProductDto, or 304 if the catalog is unchanged
      */
     @GetMapping("/products/category/{category}")
-    public ResponseEntity<List<ProductDto>> getProductsByCategory(@PathVariable String category) {
-        List<ProductDto> products = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductDto>> getProductsByCategory(@PathVariable String category,
+                                                                  @RequestParam(required = false) BigDecimal minPrice,
+                                                                  @RequestParam(required = false) BigDecimal maxPrice,
+                                                                  @RequestParam(required = false) Integer page,
+                                                                  @RequestParam(defaultValue = "50") int size,
+                                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        boolean indexed = minPrice != null || maxPrice != null || page != null;
+        if (indexed && ((page != null && page < 0) || size < 1 || size > 1000)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String eTag = catalogVersion.getETag();
+        if (CatalogVersion.matches(ifNoneMatch, eTag)) {
+            return catalogResponse(HttpStatus.NOT_MODIFIED, eTag).build();
+        }
+        List<ProductDto> products = indexed
+                ? productService.getProductsByCategoryAndPrice(category, minPrice, maxPrice, page != null ? page : 0, size)
+                : productService.getProductsByCategory(category);
+        return catalogResponse(HttpStatus.OK, eTag).body(products);
+    }
+    
+    /**
+     * Get product counts per category, brand and status
+     * Served from in-memory counters
+     * @param ifNoneMatch Catalog ETag of a previous response, optional
+     * @return ProductFacetsDto, or 304 if the catalog is unchanged
+     */
+    @GetMapping("/products/facets")
+    public ResponseEntity<ProductFacetsDto> getFacets(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = catalogVersion.getETag();
+        if (CatalogVersion.matches(ifNoneMatch, eTag)) {
+            return catalogResponse(HttpStatus.NOT_MODIFIED, eTag).build();
+        }
+        return catalogResponse(HttpStatus.OK, eTag).body(productService.getFacets());
     }
     
     /**
-     * Get products with low stock
-     * @return List of ProductDto
+     * Get active products whose stock is at or below their minimum stock level
+     * @param page Page number, starting at 0
+     * @param size Page size, at most 1000
+     * @param ifNoneMatch Catalog ETag of a previous response, optional
+     * @return List of ProductDto ordered by product ID, or 304 if the catalog is unchanged
      */
     @GetMapping("/products/low-stock")
-    public ResponseEntity<List<ProductDto>> getProductsWithLowStock() {
-        List<ProductDto> products = productService.getProductsWithLowStock();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductDto>> getProductsWithLowStock(@RequestParam(defaultValue = "0") int page,
+                                                                    @RequestParam(defaultValue = "100") int size,
+                                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (page < 0 || size < 1 || size > 1000) {
+            return ResponseEntity.badRequest().build();
+        }
+        String eTag = catalogVersion.getETag();
+        if (CatalogVersion.matches(ifNoneMatch, eTag)) {
+            return catalogResponse(HttpStatus.NOT_MODIFIED, eTag).build();
+        }
+        List<ProductDto> products = productService.getProductsWithLowStock(page, size);
+        return catalogResponse(HttpStatus.OK, eTag).body(products);
+    }
+    
+    /**
+     * Get the IDs of products with low stock
+     * Served from memory, cheap enough for replenishment jobs to poll
+     * @return Sorted set of product IDs
+     */
+    @GetMapping("/products/low-stock/ids")
+    public ResponseEntity<SortedSet<Integer>> getLowStockProductIds() {
+        return ResponseEntity.ok(lowStockTracker.getLowStockIds());
+    }
+    
+    /**
+     * Start a catalog read response with its ETag and Cache-Control headers
+     * Caches may keep it for warehouse.catalog.max-age-seconds and must revalidate after that.
+     * @param status 200 or 304
+     * @param eTag Catalog ETag read before the catalog
+     * @return Response builder
+     */
+    private ResponseEntity.BodyBuilder catalogResponse(HttpStatus status, String eTag) {
+        return ResponseEntity.status(status)
+                .eTag(eTag)
+                .cacheControl(CacheControl.maxAge(catalogMaxAgeSeconds, TimeUnit.SECONDS).cachePublic().mustRevalidate());
+    }
+    
+    /**
+     * Extract the product version from an If-Match header
+     * @param ifMatch Header value such as "3" or W/"3"; null or * for an unconditional update
+     * @return Expected version, or null
+     */
+    private Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        return Long.valueOf(tag.replace("\"", ""));
     }
 }
-
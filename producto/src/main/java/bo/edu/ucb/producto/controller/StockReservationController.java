@@ -0,0 +1,97 @@
+package bo.edu.ucb.producto.controller;
+
+import bo.edu.ucb.producto.service.StockReservationService;
+import bo.edu.ucb.producto.warehouse.dto.StockReservationDto;
+import bo.edu.ucb.producto.warehouse.dto.StockReservationRequestDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+
+/**
+ * REST Controller for stock reservations
+ */
+@RestController
+@RequestMapping("/api/warehouse/reservations")
+public class StockReservationController {
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    /**
+     * Reserve stock of a product
+     * @param request Product, quantity and optional TTL
+     * @return Created StockReservationDto; 409 if the available stock is insufficient
+     */
+    @PostMapping
+    public ResponseEntity<StockReservationDto> reserve(@Valid @RequestBody StockReservationRequestDto request) {
+        try {
+            StockReservationDto reservation = stockReservationService.reserve(
+                    request.getProductId(), request.getQuantity(), request.getTtlSeconds());
+            if (reservation != null) {
+                return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Get reservation by ID
+     * @param id Reservation ID
+     * @return StockReservationDto
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<StockReservationDto> getReservationById(@PathVariable Long id) {
+        StockReservationDto reservation = stockReservationService.getReservationById(id);
+        if (reservation != null) {
+            return ResponseEntity.ok(reservation);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Confirm a reservation, taking its units out of stock
+     * @param id Reservation ID
+     * @return Confirmed StockReservationDto; 409 if it was released, expired or already confirmed
+     */
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<StockReservationDto> confirm(@PathVariable Long id) {
+        try {
+            StockReservationDto reservation = stockReservationService.confirm(id);
+            if (reservation != null) {
+                return ResponseEntity.ok(reservation);
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Release a reservation, giving its units back
+     * @param id Reservation ID
+     * @return Released StockReservationDto; 409 if it was already confirmed
+     */
+    @PostMapping("/{id}/release")
+    public ResponseEntity<StockReservationDto> release(@PathVariable Long id) {
+        try {
+            StockReservationDto reservation = stockReservationService.release(id);
+            if (reservation != null) {
+                return ResponseEntity.ok(reservation);
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package bo.edu.ucb.producto.service;
+
+import bo.edu.ucb.producto.warehouse.dto.ProductDto;
+import bo.edu.ucb.producto.warehouse.dto.ProductImportErrorDto;
+import bo.edu.ucb.producto.warehouse.dto.ProductImportResultDto;
+import bo.edu.ucb.producto.warehouse.entity.InventoryMovement;
+import bo.edu.ucb.producto.warehouse.entity.InventoryMovement.MovementReason;
+import bo.edu.ucb.producto.warehouse.entity.Product;
+import bo.edu.ucb.producto.warehouse.event.ProductChangedEvent;
+import bo.edu.ucb.producto.warehouse.inventory.HotInventory;
+import bo.edu.ucb.producto.warehouse.inventory.InventoryLedger;
+import bo.edu.ucb.producto.warehouse.inventory.InventoryLedger.StockLevel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Service for bulk product imports
+ *
+ * The body is read row by row and never held in memory as a whole. Valid rows are
+ * upserted on SKU with JDBC batches and committed every commit-interval rows, so a
+ * failure late in a large file does not roll back what was already loaded. Existing
+ * products are overwritten with the imported values, except stock: it is appended to
+ * the inventory ledger as the difference to the current stock, and a row whose stock
+ * would fall below the reserved quantity is rejected as a whole.
+ */
+@Service
+public class ProductImportService {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO product (name, description, category, price, cost, sku, stock_quantity, min_stock_level, " +
+            "max_stock_level, supplier, brand, weight, dimensions, status, created_at, updated_at, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0) AS new " +
+            "ON DUPLICATE KEY UPDATE name = new.name, description = new.description, " +
+            "category = new.category, price = new.price, cost = new.cost, " +
+            "min_stock_level = new.min_stock_level, " +
+            "max_stock_level = new.max_stock_level, supplier = new.supplier, brand = new.brand, " +
+            "weight = new.weight, dimensions = new.dimensions, status = new.status, " +
+            "updated_at = new.updated_at, version = version + 1";
+
+    private static final Set<String> CSV_COLUMNS = Set.of("name", "description", "category", "price", "cost", "sku",
+            "stockquantity", "minstocklevel", "maxstocklevel", "supplier", "brand", "weight", "dimensions", "status");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HotInventory hotInventory;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${warehouse.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${warehouse.import.commit-interval:10000}")
+    private int commitInterval;
+
+    @Value("${warehouse.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    /**
+     * Import products from CSV with a header row
+     * Column names match the ProductDto fields, in camelCase or snake_case
+     * @param body CSV body
+     * @param charset Body charset
+     * @return Import summary with the rejected rows
+     */
+    public ProductImportResultDto importCsv(InputStream body, Charset charset) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset));
+        return importRows(new CsvRowReader(reader));
+    }
+
+    /**
+     * Import products from newline-delimited JSON, one ProductDto per line
+     * @param body NDJSON body
+     * @param charset Body charset
+     * @return Import summary with the rejected rows
+     */
+    public ProductImportResultDto importNdjson(InputStream body, Charset charset) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset));
+        return importRows(new NdjsonRowReader(reader, objectMapper));
+    }
+
+    private ProductImportResultDto importRows(RowReader reader) throws IOException {
+        ProductImportResultDto result = new ProductImportResultDto();
+        List<ImportRow> chunk = new ArrayList<>(commitInterval);
+        ImportRow row;
+        while ((row = reader.next()) != null) {
+            result.setRowsRead(result.getRowsRead() + 1);
+            String error = row.error != null ? row.error : validate(row.product);
+            if (error != null) {
+                reject(result, row, error);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() >= commitInterval) {
+                writeChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, result);
+        }
+        return result;
+    }
+
+    private String validate(ProductDto product) {
+        if (product.getSku() == null || product.getSku().isBlank()) {
+            return "SKU is required";
+        }
+        for (ConstraintViolation<ProductDto> violation : validator.validate(product)) {
+            return violation.getMessage();
+        }
+        if (product.getStatus() != null) {
+            try {
+                Product.ProductStatus.valueOf(product.getStatus());
+            } catch (IllegalArgumentException e) {
+                return "Invalid status: " + product.getStatus();
+            }
+        }
+        return null;
+    }
+
+    private void writeChunk(List<ImportRow> chunk, ProductImportResultDto result) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Map<String, Integer> ids;
+        Map<ImportRow, String> rejected = new LinkedHashMap<>();
+        try {
+            ids = transaction.execute(status -> upsert(chunk, rejected));
+            result.setRowsImported(result.getRowsImported() + chunk.size() - rejected.size());
+        } catch (DataAccessException e) {
+            // A single bad row fails the whole chunk; retry row by row to find it
+            ids = new HashMap<>();
+            rejected.clear();
+            for (ImportRow row : chunk) {
+                Map<ImportRow, String> rowRejected = new HashMap<>();
+                try {
+                    ids.putAll(transaction.execute(status -> upsert(List.of(row), rowRejected)));
+                    if (rowRejected.isEmpty()) {
+                        result.setRowsImported(result.getRowsImported() + 1);
+                    }
+                    rejected.putAll(rowRejected);
+                } catch (DataAccessException rowError) {
+                    rejected.put(row, NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+        rejected.forEach((row, message) -> reject(result, row, message));
+
+        // Hot products keep their stock in memory, so the imported value is set there
+        for (ImportRow row : chunk) {
+            Integer id = rejected.containsKey(row) ? null : ids.get(row.product.getSku());
+            if (hotInventory.isHot(id)) {
+                hotInventory.setStock(id, row.product.getStockQuantity());
+            }
+        }
+        if (!ids.isEmpty()) {
+            // Imports insert products and may change categories
+            eventPublisher.publishEvent(new ProductChangedEvent(ids.values(), true));
+        }
+    }
+
+    /**
+     * Upsert rows and append their stock changes to the inventory ledger
+     * @param rows Rows to write, in file order
+     * @param rejected Receives the rows left out because their stock does not cover the reserved quantity
+     * @return IDs of the written products by SKU
+     */
+    private Map<String, Integer> upsert(List<ImportRow> rows, Map<ImportRow, String> rejected) {
+        // The stock of existing products is locked before their rows are written; stock is locked first
+        Map<String, Integer> existing = findIds(rows);
+        Map<Integer, StockLevel> levels = new HashMap<>(inventoryLedger.lockAll(
+                existing.values().stream().filter(id -> !hotInventory.isHot(id)).toList()));
+        List<ImportRow> accepted = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            StockLevel level = levels.get(existing.get(row.product.getSku()));
+            if (level != null && row.product.getStockQuantity() < level.reserved()) {
+                rejected.put(row, "Stock quantity cannot be below the reserved quantity " + level.reserved());
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return Map.of();
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, accepted, batchSize, (ps, row) -> {
+            ProductDto product = row.product;
+            ps.setString(1, product.getName());
+            ps.setString(2, product.getDescription());
+            ps.setString(3, product.getCategory());
+            ps.setBigDecimal(4, product.getPrice());
+            ps.setBigDecimal(5, product.getCost());
+            ps.setString(6, product.getSku());
+            ps.setInt(7, product.getStockQuantity());
+            ps.setInt(8, product.getMinStockLevel() != null ? product.getMinStockLevel() : 0);
+            ps.setInt(9, product.getMaxStockLevel() != null ? product.getMaxStockLevel() : 1000);
+            ps.setString(10, product.getSupplier());
+            ps.setString(11, product.getBrand());
+            ps.setBigDecimal(12, product.getWeight());
+            ps.setString(13, product.getDimensions());
+            ps.setString(14, product.getStatus() != null ? product.getStatus() : Product.ProductStatus.active.name());
+            ps.setTimestamp(15, now);
+            ps.setTimestamp(16, now);
+        });
+        Map<String, Integer> ids = findIds(accepted);
+
+        // Inserted products start from an empty snapshot; their imported stock is their first movement.
+        // A SKU inserted concurrently by another import already has one, and is adjusted like any existing product.
+        List<Integer> inserted = ids.entrySet().stream()
+                .filter(entry -> !existing.containsKey(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
+        if (!inserted.isEmpty()) {
+            inventoryLedger.createSnapshots(inserted);
+            levels.putAll(inventoryLedger.lockAll(inserted));
+        }
+
+        // A SKU repeated in the chunk ends with its last row, so deltas chain from row to row.
+        // Hot products are left out: their flush records the change against the last flushed stock.
+        List<InventoryMovement> movements = new ArrayList<>(accepted.size());
+        for (ImportRow row : accepted) {
+            Integer id = ids.get(row.product.getSku());
+            StockLevel level = levels.get(id);
+            if (level == null) {
+                continue;
+            }
+            int stock = row.product.getStockQuantity();
+            if (stock < level.reserved()) {
+                // Only possible for a SKU another import inserted meanwhile; the row by row retry rejects it
+                throw new ConcurrencyFailureException("Product " + row.product.getSku() + " was imported concurrently");
+            }
+            levels.put(id, new StockLevel(stock, level.reserved()));
+            movements.add(new InventoryMovement(id, stock - level.stock(), MovementReason.bulk_import, null));
+        }
+        inventoryLedger.recordAll(movements);
+        return ids;
+    }
+
+    private Map<String, Integer> findIds(List<ImportRow> rows) {
+        Map<String, Integer> ids = new HashMap<>();
+        forEachSkuSlice(rows, skus -> namedParameterJdbcTemplate.query(
+                "SELECT id, sku FROM product WHERE sku IN (:skus)", Map.of("skus", skus), rs -> {
+                    ids.put(rs.getString("sku"), rs.getInt("id"));
+                }));
+        return ids;
+    }
+
+    private void forEachSkuSlice(List<ImportRow> rows, Consumer<List<String>> action) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            action.accept(rows.subList(from, Math.min(rows.size(), from + batchSize)).stream()
+                    .map(row -> row.product.getSku())
+                    .distinct()
+                    .toList());
+        }
+    }
+
+    private void reject(ProductImportResultDto result, ImportRow row, String message) {
+        result.setRowsFailed(result.getRowsFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            String sku = row.product != null ? row.product.getSku() : null;
+            result.getErrors().add(new ProductImportErrorDto(row.number, sku, message));
+        }
+    }
+
+    /**
+     * A parsed row; either product or error is set
+     */
+    private static final class ImportRow {
+        private final long number;
+        private final ProductDto product;
+        private final String error;
+
+        private ImportRow(long number, ProductDto product, String error) {
+            this.number = number;
+            this.product = product;
+            this.error = error;
+        }
+    }
+
+    private interface RowReader {
+        /**
+         * @return Next row, or null at the end of the body
+         */
+        ImportRow next() throws IOException;
+    }
+
+    private static final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long number;
+
+        private NdjsonRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            number++;
+            try {
+                return new ImportRow(number, objectMapper.readValue(line, ProductDto.class), null);
+            } catch (JsonProcessingException e) {
+                return new ImportRow(number, null, e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static final class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private final List<String> columns = new ArrayList<>();
+        private long number;
+
+        private CsvRowReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header == null) {
+                return;
+            }
+            for (String name : header) {
+                String column = name.trim().toLowerCase(Locale.ROOT).replace("_", "");
+                if (!CSV_COLUMNS.contains(column)) {
+                    throw new IllegalArgumentException("Unknown CSV column: " + name);
+                }
+                columns.add(column);
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            List<String> fields;
+            do {
+                fields = readRecord();
+            } while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+            if (fields == null) {
+                return null;
+            }
+            number++;
+            if (fields.size() != columns.size()) {
+                return new ImportRow(number, null, "Expected " + columns.size() + " fields but found " + fields.size());
+            }
+            ProductDto product = new ProductDto();
+            for (int i = 0; i < fields.size(); i++) {
+                String value = fields.get(i).isEmpty() ? null : fields.get(i);
+                try {
+                    setField(product, columns.get(i), value);
+                } catch (NumberFormatException e) {
+                    return new ImportRow(number, product, "Invalid value for " + columns.get(i) + ": " + value);
+                }
+            }
+            return new ImportRow(number, product, null);
+        }
+
+        /**
+         * Read one CSV record; quoted fields may contain commas, doubled quotes and line breaks
+         */
+        private List<String> readRecord() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                for (int i = 0; i < line.length(); i++) {
+                    char c = line.charAt(i);
+                    if (quoted) {
+                        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else if (c == '"') {
+                            quoted = false;
+                        } else {
+                            field.append(c);
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else {
+                        field.append(c);
+                    }
+                }
+                if (!quoted) {
+                    break;
+                }
+                line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                field.append('\n');
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private static void setField(ProductDto product, String column, String value) {
+            switch (column) {
+                case "name" -> product.setName(value);
+                case "description" -> product.setDescription(value);
+                case "category" -> product.setCategory(value);
+                case "price" -> product.setPrice(value != null ? new BigDecimal(value.trim()) : null);
+                case "cost" -> product.setCost(value != null ? new BigDecimal(value.trim()) : null);
+                case "sku" -> product.setSku(value);
+                case "stockquantity" -> product.setStockQuantity(value != null ? Integer.valueOf(value.trim()) : null);
+                case "minstocklevel" -> product.setMinStockLevel(value != null ? Integer.valueOf(value.trim()) : null);
+                case "maxstocklevel" -> product.setMaxStockLevel(value != null ? Integer.valueOf(value.trim()) : null);
+                case "supplier" -> product.setSupplier(value);
+                case "brand" -> product.setBrand(value);
+                case "weight" -> product.setWeight(value != null ? new BigDecimal(value.trim()) : null);
+                case "dimensions" -> product.setDimensions(value);
+                case "status" -> product.setStatus(value);
+                default -> throw new IllegalArgumentException("Unknown CSV column: " + column);
+            }
+        }
+    }
+}
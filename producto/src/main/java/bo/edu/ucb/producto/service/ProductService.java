@@ -1,14 +1,41 @@
 package bo.edu.ucb.producto.service;
 
+import bo.edu.ucb.producto.warehouse.bl.ProductStockBl;
+import bo.edu.ucb.producto.warehouse.dto.InventoryMovementDto;
+import bo.edu.ucb.producto.warehouse.dto.ProductChangesDto;
 import bo.edu.ucb.producto.warehouse.dto.ProductDto;
+import bo.edu.ucb.producto.warehouse.dto.ProductFacetsDto;
+import bo.edu.ucb.producto.warehouse.dto.ProductRepriceDto;
+import bo.edu.ucb.producto.warehouse.dto.ProductRepriceResultDto;
+import bo.edu.ucb.producto.warehouse.dto.StockAdjustmentDto;
+import bo.edu.ucb.producto.warehouse.dto.StockAdjustmentResultDto;
+import bo.edu.ucb.producto.warehouse.dto.StockDecrementResultDto;
+import bo.edu.ucb.producto.warehouse.entity.InventoryMovement;
+import bo.edu.ucb.producto.warehouse.entity.InventoryMovement.MovementReason;
 import bo.edu.ucb.producto.warehouse.entity.Product;
+import bo.edu.ucb.producto.warehouse.event.ProductChangedEvent;
+import bo.edu.ucb.producto.warehouse.inventory.HotInventory;
+import bo.edu.ucb.producto.warehouse.inventory.InventoryLedger;
 import bo.edu.ucb.producto.warehouse.repository.ProductRepository;
+import bo.edu.ucb.producto.warehouse.search.CatalogFacetIndex;
+import bo.edu.ucb.producto.warehouse.search.ProductSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service class for Product business logic
@@ -17,9 +44,30 @@ import java.util.Optional;
 @Transactional
 public class ProductService {
     
+    // Largest value of product.price, DECIMAL(10, 2)
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+    
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private ProductStockBl productStockBl;
+    
+    @Autowired
+    private HotInventory hotInventory;
+    
+    @Autowired
+    private InventoryLedger inventoryLedger;
+    
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    
+    @Autowired
+    private CatalogFacetIndex catalogFacetIndex;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     /**
      * Get all products
      * @return List of ProductDto
@@ -29,6 +77,55 @@ public class ProductService {
         return products.stream().map(this::convertToDto).toList();
     }
     
+    /**
+     * Get several products with a single query
+     * @param ids Product IDs
+     * @return ProductDto list in request order; unknown IDs are left out and duplicates returned once
+     */
+    public List<ProductDto> getProductsByIds(List<Integer> ids) {
+        Set<Integer> uniqueIds = new LinkedHashSet<>(ids);
+        uniqueIds.remove(null);
+        Map<Integer, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(uniqueIds)) {
+            products.put(product.getId(), product);
+        }
+        return uniqueIds.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDto)
+                .toList();
+    }
+    
+    /**
+     * Search products by name, description, brand, category and SKU
+     * @param query Free text; each word also matches as a prefix
+     * @param limit Maximum number of results
+     * @return List of ProductDto, best match first
+     */
+    public List<ProductDto> searchProducts(String query, int limit) {
+        return getProductsByIds(productSearchIndex.search(query, limit));
+    }
+    
+    /**
+     * Get the products changed after a point of the catalog change feed
+     * A product changed several times is listed once, at its latest change. Stamps commit in
+     * sequence order, so a change below the returned sequence never shows up later.
+     * @param since Change sequence already seen; 0 reads the feed from the beginning
+     * @param limit Maximum number of products
+     * @return ProductChangesDto with the products in change order and the sequence to continue from
+     */
+    @Transactional(readOnly = true)
+    public ProductChangesDto getProductChanges(long since, int limit) {
+        List<Object[]> changes = productRepository.findChangedSince(since, PageRequest.of(0, limit + 1));
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+        List<Integer> ids = changes.stream().map(change -> (Integer) change[0]).toList();
+        long nextSince = changes.isEmpty() ? since : (Long) changes.get(changes.size() - 1)[1];
+        return new ProductChangesDto(getProductsByIds(ids), nextSince, hasMore);
+    }
+    
     /**
      * Get product by ID
      * @param id Product ID
@@ -47,6 +144,9 @@ public class ProductService {
     public ProductDto createProduct(ProductDto productDto) {
         Product product = convertToEntity(productDto);
         Product savedProduct = productRepository.save(product);
+        inventoryLedger.createSnapshots(List.of(savedProduct.getId()));
+        inventoryLedger.record(savedProduct.getId(), savedProduct.getStockQuantity(), MovementReason.initial, null);
+        eventPublisher.publishEvent(new ProductChangedEvent(Set.of(savedProduct.getId()), true));
         return convertToDto(savedProduct);
     }
     
@@ -57,12 +157,54 @@ public class ProductService {
      * @return Updated ProductDto
      */
     public ProductDto updateProduct(Integer id, ProductDto productDto) {
+        return updateProduct(id, productDto, null);
+    }
+    
+    /**
+     * Update product only if it is still at the expected version (compare-and-set)
+     * @param id Product ID
+     * @param productDto Updated product information
+     * @param expectedVersion Version the caller read, or null for an unconditional update
+     * @return Updated ProductDto, null if the product does not exist
+     * @throws OptimisticLockingFailureException if the product was modified since the expected version,
+     *         either before it was read or between the read and the write
+     */
+    public ProductDto updateProduct(Integer id, ProductDto productDto, Long expectedVersion) {
+        // Entity saves do not write stock_quantity; the stock is locked and appended to the ledger first,
+        // since stock is always locked before the product row
+        Integer newStock = productDto.getStockQuantity();
+        if (newStock != null && !hotInventory.isHot(id)) {
+            Boolean applied = productStockBl.setStock(id, newStock, MovementReason.adjustment, null);
+            if (applied == null) {
+                return null;
+            }
+            if (!applied) {
+                throw new IllegalArgumentException("Stock quantity cannot be below the reserved quantity");
+            }
+        }
+        // No row lock: @Version makes the write conditional on the version read here
         Optional<Product> productOpt = productRepository.findById(id);
         if (productOpt.isPresent()) {
             Product product = productOpt.get();
+            if (expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+                throw new OptimisticLockingFailureException("Product " + id + " is at version "
+                        + product.getVersion() + ", expected " + expectedVersion);
+            }
+            boolean keysChanged = (productDto.getSku() != null && !productDto.getSku().equals(product.getSku()))
+                    || (productDto.getCategory() != null && !productDto.getCategory().equals(product.getCategory()));
             updateProductFromDto(product, productDto);
-            Product updatedProduct = productRepository.save(product);
-            return convertToDto(updatedProduct);
+            // Flush now so the returned version is the one that was written
+            Product updatedProduct = productRepository.saveAndFlush(product);
+            if (newStock != null && hotInventory.isHot(id)) {
+                // Hot-inventory stock is written behind from the in-memory counter
+                hotInventory.setStock(id, newStock);
+            }
+            eventPublisher.publishEvent(new ProductChangedEvent(Set.of(id), keysChanged));
+            ProductDto dto = convertToDto(updatedProduct);
+            if (newStock != null) {
+                dto.setStockQuantity(newStock);
+            }
+            return dto;
         }
         return null;
     }
@@ -74,14 +216,134 @@ public class ProductService {
      * @return Updated ProductDto
      */
     public ProductDto updateProductStock(Integer id, Integer stockQuantity) {
-        Optional<Product> productOpt = productRepository.findById(id);
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
-            product.setStockQuantity(stockQuantity);
-            Product updatedProduct = productRepository.save(product);
-            return convertToDto(updatedProduct);
+        if (hotInventory.isHot(id)) {
+            if (stockQuantity < 0) {
+                throw new IllegalArgumentException("Stock quantity cannot be negative");
+            }
+            hotInventory.setStock(id, stockQuantity);
+            eventPublisher.publishEvent(new ProductChangedEvent(id));
+            return getProductById(id);
         }
-        return null;
+        Boolean applied = productStockBl.setStock(id, stockQuantity, MovementReason.adjustment, null);
+        if (applied == null) {
+            return null;
+        }
+        if (!applied) {
+            throw new IllegalArgumentException("Stock quantity cannot be below the reserved quantity");
+        }
+        // product.stock_quantity is refreshed once the compactor folds the movement
+        ProductDto dto = getProductById(id);
+        dto.setStockQuantity(stockQuantity);
+        return dto;
+    }
+    
+    /**
+     * Apply a batch of stock decrements to a product in a single transaction
+     * @param id Product ID
+     * @param quantities Quantities to decrement, in arrival order
+     * @param references Business reference of each quantity, or null
+     * @return StockDecrementResultDto if the product exists, null otherwise
+     */
+    public StockDecrementResultDto decrementProductStock(Integer id, List<Integer> quantities, List<String> references) {
+        List<Boolean> fulfilled = productStockBl.decrementStock(id, quantities, references);
+        if (fulfilled == null) {
+            return null;
+        }
+        Integer stockQuantity = productStockBl.getStockQuantity(id);
+        return new StockDecrementResultDto(id, fulfilled, stockQuantity);
+    }
+    
+    /**
+     * Give back a batch of units previously decremented, such as for a compensated sale
+     * @param id Product ID
+     * @param quantities Quantities to return, in arrival order
+     * @param references Business reference of each quantity, or null
+     * @return StockDecrementResultDto if the product exists, null otherwise
+     */
+    public StockDecrementResultDto returnProductStock(Integer id, List<Integer> quantities, List<String> references) {
+        List<Boolean> fulfilled = productStockBl.returnStock(id, quantities, references);
+        if (fulfilled == null) {
+            return null;
+        }
+        Integer stockQuantity = productStockBl.getStockQuantity(id);
+        return new StockDecrementResultDto(id, fulfilled, stockQuantity);
+    }
+    
+    /**
+     * Apply a batch of absolute or delta stock adjustments
+     * Runs its own transaction so hot-inventory products are adjusted only after it commits
+     * @param adjustments Adjustments, applied in order
+     * @return StockAdjustmentResultDto for each adjustment, in request order
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<StockAdjustmentResultDto> adjustStock(List<StockAdjustmentDto> adjustments) {
+        return productStockBl.adjustStock(adjustments);
+    }
+    
+    /**
+     * Change the price of every product matching a filter with one set-based UPDATE
+     * The matching rows are locked first so their IDs are exactly the rows the UPDATE
+     * sees; all of them are published as a single change event, so caches, indexes and
+     * peers are invalidated once for the whole batch.
+     * @param reprice Filter and percentage or amount
+     * @return ProductRepriceResultDto with the matched and updated counts
+     * @throws IllegalArgumentException if no filter, or not exactly one of percentage or amount, is given
+     */
+    public ProductRepriceResultDto repriceProducts(ProductRepriceDto reprice) {
+        String category = blankToNull(reprice.getCategory());
+        String brand = blankToNull(reprice.getBrand());
+        String supplier = blankToNull(reprice.getSupplier());
+        if (category == null && brand == null && supplier == null) {
+            throw new IllegalArgumentException("At least one of category, brand or supplier is required");
+        }
+        if ((reprice.getPercentage() == null) == (reprice.getAmount() == null)) {
+            throw new IllegalArgumentException("Exactly one of percentage or amount is required");
+        }
+
+        BigDecimal factor = BigDecimal.ONE;
+        BigDecimal amount = BigDecimal.ZERO;
+        if (reprice.getPercentage() != null) {
+            factor = BigDecimal.ONE.add(reprice.getPercentage().movePointLeft(2));
+        } else {
+            amount = reprice.getAmount();
+        }
+
+        List<Integer> ids = productRepository.findIdsForReprice(category, brand, supplier);
+        if (ids.isEmpty()) {
+            return new ProductRepriceResultDto(0, 0);
+        }
+        int updated = productRepository.reprice(category, brand, supplier, factor, amount, MAX_PRICE, LocalDateTime.now());
+        if (updated > 0) {
+            eventPublisher.publishEvent(new ProductChangedEvent(ids));
+        }
+        return new ProductRepriceResultDto(ids.size(), updated);
+    }
+
+    /**
+     * Get the stock of a product as derived from the inventory ledger
+     * Hot-inventory products include their in-memory changes up to the last write-behind.
+     * @param id Product ID
+     * @return Last snapshot plus the movements after it, null if the product does not exist
+     */
+    @Transactional(readOnly = true)
+    public Integer getLedgerStock(Integer id) {
+        return inventoryLedger.getStock(id);
+    }
+    
+    /**
+     * Get the inventory ledger movements of a product in a time range, oldest first
+     * @param id Product ID
+     * @param from Start of the range, inclusive
+     * @param to End of the range, inclusive
+     * @param limit Maximum number of movements
+     * @return List of InventoryMovementDto, null if the product does not exist
+     */
+    @Transactional(readOnly = true)
+    public List<InventoryMovementDto> getStockMovements(Integer id, LocalDateTime from, LocalDateTime to, int limit) {
+        if (!productRepository.existsById(id)) {
+            return null;
+        }
+        return productStockBl.getMovements(id, from, to, limit).stream().map(this::convertToDto).toList();
     }
     
     /**
@@ -95,26 +357,60 @@ public class ProductService {
     }
     
     /**
-     * Get products with low stock
-     * @return List of ProductDto
+     * Get one page of the products of a category in a price range, from the in-memory price index
+     * @param category Product category
+     * @param minPrice Lowest price, inclusive, or null
+     * @param maxPrice Highest price, inclusive, or null
+     * @param page Page number, starting at 0
+     * @param size Page size
+     * @return List of ProductDto ordered by price
+     */
+    public List<ProductDto> getProductsByCategoryAndPrice(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                                          int page, int size) {
+        return getProductsByIds(catalogFacetIndex.findByCategoryAndPrice(category, minPrice, maxPrice, page, size));
+    }
+    
+    /**
+     * Get product counts per category, brand and status
+     * @return ProductFacetsDto
      */
-    public List<ProductDto> getProductsWithLowStock() {
-        List<Product> products = productRepository.findByStockQuantityLessThanEqualAndStatus(
-            productRepository.findAll().stream()
-                .mapToInt(p -> p.getMinStockLevel())
-                .min()
-                .orElse(0), 
-            Product.ProductStatus.active
-        );
+    public ProductFacetsDto getFacets() {
+        return catalogFacetIndex.getFacets();
+    }
+    
+    /**
+     * Get active products whose stock is at or below their own minimum stock level
+     * @param page Page number, starting at 0
+     * @param size Page size
+     * @return List of ProductDto ordered by product ID
+     */
+    public List<ProductDto> getProductsWithLowStock(int page, int size) {
+        List<Product> products = productRepository.findLowStock(Product.ProductStatus.active, PageRequest.of(page, size));
         return products.stream().map(this::convertToDto).toList();
     }
     
+    /**
+     * Convert InventoryMovement entity to InventoryMovementDto
+     * @param movement InventoryMovement entity
+     * @return InventoryMovementDto
+     */
+    private InventoryMovementDto convertToDto(InventoryMovement movement) {
+        InventoryMovementDto dto = new InventoryMovementDto();
+        dto.setId(movement.getId());
+        dto.setProductId(movement.getProductId());
+        dto.setDelta(movement.getDelta());
+        dto.setReason(movement.getReason().name());
+        dto.setReference(movement.getReference());
+        dto.setCreatedAt(movement.getCreatedAt());
+        return dto;
+    }
+    
     /**
      * Convert Product entity to ProductDto
      * @param product Product entity
      * @return ProductDto
      */
-    private ProductDto convertToDto(Product product) {
+    public ProductDto convertToDto(Product product) {
         ProductDto dto = new ProductDto();
         dto.setId(product.getId());
         dto.setName(product.getName());
@@ -123,7 +419,10 @@ public class ProductService {
         dto.setPrice(product.getPrice());
         dto.setCost(product.getCost());
         dto.setSku(product.getSku());
-        dto.setStockQuantity(product.getStockQuantity());
+        dto.setStockQuantity(hotInventory.isHot(product.getId())
+                ? hotInventory.getAvailable(product.getId())
+                : product.getStockQuantity());
+        dto.setReservedQuantity(product.getReservedQuantity());
         dto.setMinStockLevel(product.getMinStockLevel());
         dto.setMaxStockLevel(product.getMaxStockLevel());
         dto.setSupplier(product.getSupplier());
@@ -133,6 +432,7 @@ public class ProductService {
         dto.setStatus(product.getStatus() != null ? product.getStatus().name() : null);
         dto.setCreatedAt(product.getCreatedAt());
         dto.setUpdatedAt(product.getUpdatedAt());
+        dto.setVersion(product.getVersion());
         return dto;
     }
     
@@ -165,9 +465,7 @@ public class ProductService {
     }
     
     /**
-     * Update Product entity from ProductDto
-     * @param product Product entity to update
-     * @param dto ProductDto with new values
+     * Copy the non-null fields of a DTO onto an entity; stock is written separately with SQL
      */
     private void updateProductFromDto(Product product, ProductDto dto) {
         if (dto.getName() != null) product.setName(dto.getName());
@@ -176,7 +474,6 @@ public class ProductService {
         if (dto.getPrice() != null) product.setPrice(dto.getPrice());
         if (dto.getCost() != null) product.setCost(dto.getCost());
         if (dto.getSku() != null) product.setSku(dto.getSku());
-        if (dto.getStockQuantity() != null) product.setStockQuantity(dto.getStockQuantity());
         if (dto.getMinStockLevel() != null) product.setMinStockLevel(dto.getMinStockLevel());
         if (dto.getMaxStockLevel() != null) product.setMaxStockLevel(dto.getMaxStockLevel());
         if (dto.getSupplier() != null) product.setSupplier(dto.getSupplier());
@@ -185,5 +482,8 @@ public class ProductService {
         if (dto.getDimensions() != null) product.setDimensions(dto.getDimensions());
         if (dto.getStatus() != null) product.setStatus(Product.ProductStatus.valueOf(dto.getStatus()));
     }
+    
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
 }
-
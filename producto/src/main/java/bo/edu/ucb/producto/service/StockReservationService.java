@@ -0,0 +1,79 @@
+package bo.edu.ucb.producto.service;
+
+import bo.edu.ucb.producto.warehouse.bl.StockReservationBl;
+import bo.edu.ucb.producto.warehouse.dto.StockReservationDto;
+import bo.edu.ucb.producto.warehouse.entity.StockReservation;
+import bo.edu.ucb.producto.warehouse.repository.StockReservationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service class for stock reservations
+ */
+@Service
+public class StockReservationService {
+
+    @Autowired
+    private StockReservationBl stockReservationBl;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    /**
+     * Get reservation by ID
+     * @param id Reservation ID
+     * @return StockReservationDto if found, null otherwise
+     */
+    public StockReservationDto getReservationById(Long id) {
+        return stockReservationRepository.findById(id).map(this::convertToDto).orElse(null);
+    }
+
+    /**
+     * Reserve stock of a product
+     * @param productId Product ID
+     * @param quantity Units to hold
+     * @param ttlSeconds Hold duration, or null for the default
+     * @return StockReservationDto, null if the product does not exist
+     */
+    public StockReservationDto reserve(Integer productId, Integer quantity, Long ttlSeconds) {
+        StockReservation reservation = stockReservationBl.reserve(productId, quantity, ttlSeconds);
+        return reservation != null ? convertToDto(reservation) : null;
+    }
+
+    /**
+     * Confirm a reservation
+     * @param id Reservation ID
+     * @return StockReservationDto, null if the reservation does not exist
+     */
+    public StockReservationDto confirm(Long id) {
+        StockReservation reservation = stockReservationBl.confirm(id);
+        return reservation != null ? convertToDto(reservation) : null;
+    }
+
+    /**
+     * Release a reservation
+     * @param id Reservation ID
+     * @return StockReservationDto, null if the reservation does not exist
+     */
+    public StockReservationDto release(Long id) {
+        StockReservation reservation = stockReservationBl.release(id);
+        return reservation != null ? convertToDto(reservation) : null;
+    }
+
+    /**
+     * Convert StockReservation entity to StockReservationDto
+     * @param reservation StockReservation entity
+     * @return StockReservationDto
+     */
+    private StockReservationDto convertToDto(StockReservation reservation) {
+        StockReservationDto dto = new StockReservationDto();
+        dto.setId(reservation.getId());
+        dto.setProductId(reservation.getProductId());
+        dto.setQuantity(reservation.getQuantity());
+        dto.setStatus(reservation.getStatus().name());
+        dto.setExpiresAt(reservation.getExpiresAt());
+        dto.setCreatedAt(reservation.getCreatedAt());
+        dto.setUpdatedAt(reservation.getUpdatedAt());
+        return dto;
+    }
+}
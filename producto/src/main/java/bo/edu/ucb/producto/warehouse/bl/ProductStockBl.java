@@ -1,24 +1,78 @@
 package bo.edu.ucb.producto.warehouse.bl;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import bo.edu.ucb.producto.warehouse.dto.StockAdjustmentDto;
+import bo.edu.ucb.producto.warehouse.dto.StockAdjustmentResultDto;
+import bo.edu.ucb.producto.warehouse.entity.InventoryMovement;
+import bo.edu.ucb.producto.warehouse.entity.InventoryMovement.MovementReason;
 import bo.edu.ucb.producto.warehouse.entity.Product;
+import bo.edu.ucb.producto.warehouse.event.ProductChangedEvent;
+import bo.edu.ucb.producto.warehouse.inventory.HotInventory;
+import bo.edu.ucb.producto.warehouse.inventory.InventoryLedger;
+import bo.edu.ucb.producto.warehouse.inventory.InventoryLedger.StockLevel;
+import bo.edu.ucb.producto.warehouse.repository.InventoryMovementRepository;
 import bo.edu.ucb.producto.warehouse.repository.ProductRepository;
 
 @Service
 public class ProductStockBl {
     
+    private static final String APPLIED = "applied";
+    private static final String REJECTED = "rejected";
+    private static final String NOT_FOUND = "not_found";
+    
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private HotInventory hotInventory;
+    
+    @Autowired
+    private InventoryLedger inventoryLedger;
+    
+    @Autowired
+    private InventoryMovementRepository inventoryMovementRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     public Product getProductById(Integer id) {
         Product product = productRepository.findById(id).orElse(null);
         return product;
     }
     
+    /**
+     * Gets the available stock of a product from the inventory ledger
+     * Hot-inventory products are answered from memory without touching the database
+     * @param id The product ID
+     * @return The available stock, or null if the product does not exist
+     */
+    public Integer getStockQuantity(Integer id) {
+        if (hotInventory.isHot(id)) {
+            return hotInventory.getAvailable(id);
+        }
+        return inventoryLedger.getStock(id);
+    }
+    
     /**
      * Updates the stock information of a product
      * @param product The product with updated stock information
@@ -35,18 +89,202 @@ public class ProductStockBl {
             throw new IllegalArgumentException("Product ID cannot be null");
         }
         
-        // Verify the product exists in the database
-        if (!productRepository.existsById(product.getId())) {
-            throw new IllegalArgumentException("Product with ID " + product.getId() + " not found");
-        }
-        
         // Validate stock quantity is not negative
         if (product.getStockQuantity() < 0) {
             throw new IllegalArgumentException("Stock quantity cannot be negative");
         }
         
-        // Save and return the updated product
-        return productRepository.save(product);
+        // Hot-inventory stock is kept in memory and written behind to the database
+        if (hotInventory.isHot(product.getId())) {
+            hotInventory.setStock(product.getId(), product.getStockQuantity());
+            eventPublisher.publishEvent(new ProductChangedEvent(product.getId()));
+            return product;
+        }
+        
+        Boolean applied = setStock(product.getId(), product.getStockQuantity(), MovementReason.adjustment, null);
+        if (applied == null) {
+            throw new IllegalArgumentException("Product with ID " + product.getId() + " not found");
+        }
+        if (!applied) {
+            throw new IllegalArgumentException("Stock quantity cannot be below the reserved quantity");
+        }
+        return product;
+    }
+    
+    /**
+     * Sets an absolute stock value for a product by appending the difference to the inventory ledger
+     * Entity saves never write stock_quantity; every stock change is a movement like this.
+     * @param productId The product ID
+     * @param stockQuantity The new stock
+     * @param reason Reason recorded with the movement
+     * @param reference Business reference recorded with the movement, or null
+     * @return true if applied, false if the new stock does not cover the reserved quantity, null if the product does not exist
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public Boolean setStock(Integer productId, int stockQuantity, MovementReason reason, String reference) {
+        StockLevel level = inventoryLedger.lock(productId);
+        if (level == null) {
+            return null;
+        }
+        // reserved_quantity is never negative, so covering it also keeps stock non-negative
+        if (stockQuantity < level.reserved()) {
+            return false;
+        }
+        inventoryLedger.record(productId, stockQuantity - level.stock(), reason, reference);
+        return true;
+    }
+    
+    /**
+     * Applies a batch of stock decrements to a product under a single stock lock
+     * Decrements are served first come, first served: each one is applied only if
+     * the remaining unreserved stock covers it, and is appended to the inventory ledger.
+     * Negative quantities give units back and are always applied; only {@link #returnStock} passes them.
+     * @param productId The product ID
+     * @param quantities Quantities to decrement, in arrival order
+     * @param references Business reference of each quantity for the inventory ledger, or null
+     * @return For each quantity, whether it was applied; null if the product does not exist
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public List<Boolean> decrementStock(Integer productId, List<Integer> quantities, List<String> references) {
+        if (hotInventory.isHot(productId)) {
+            return hotInventory.decrement(productId, quantities);
+        }
+        
+        StockLevel level = inventoryLedger.lock(productId);
+        if (level == null) {
+            return null;
+        }
+        
+        // Units held by reservations are not available to decrements
+        int available = level.available();
+        List<Boolean> fulfilled = new ArrayList<>(quantities.size());
+        List<InventoryMovement> movements = new ArrayList<>(quantities.size());
+        for (int i = 0; i < quantities.size(); i++) {
+            int quantity = quantities.get(i);
+            if (quantity <= available) {
+                available -= quantity;
+                fulfilled.add(true);
+                String reference = references != null && i < references.size() ? references.get(i) : null;
+                movements.add(new InventoryMovement(productId, -quantity,
+                        quantity >= 0 ? MovementReason.sale : MovementReason.sale_return, reference));
+            } else {
+                fulfilled.add(false);
+            }
+        }
+        // The product row is not written; the compactor folds the movements and publishes the change
+        inventoryLedger.recordAll(movements);
+        return fulfilled;
+    }
+    
+    /**
+     * Gives back units previously taken with {@link #decrementStock}
+     * @param productId The product ID
+     * @param quantities Positive quantities to return, in arrival order
+     * @param references Business reference of each quantity for the inventory ledger, or null
+     * @return For each quantity, whether it was applied; null if the product does not exist
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public List<Boolean> returnStock(Integer productId, List<Integer> quantities, List<String> references) {
+        List<Integer> negated = new ArrayList<>(quantities.size());
+        for (Integer quantity : quantities) {
+            negated.add(-quantity);
+        }
+        return decrementStock(productId, negated, references);
+    }
+    
+    /**
+     * Applies a batch of stock adjustments in one transaction
+     * The stock of the products is locked in ID order first; each adjustment is then
+     * applied only while the resulting stock still covers the reserved quantity, so
+     * stock can never go negative, and the applied ones are appended to the inventory
+     * ledger with one JDBC batch. Hot-inventory products are adjusted in memory once
+     * the transaction has committed.
+     * @param adjustments Absolute or delta adjustments, applied in order
+     * @return The result of each adjustment, in request order
+     * @throws IllegalArgumentException if an adjustment does not give exactly one of stockQuantity or delta
+     */
+    public List<StockAdjustmentResultDto> adjustStock(List<StockAdjustmentDto> adjustments) {
+        for (StockAdjustmentDto adjustment : adjustments) {
+            if ((adjustment.getStockQuantity() == null) == (adjustment.getDelta() == null)) {
+                throw new IllegalArgumentException("Adjustment for product " + adjustment.getProductId()
+                        + " must give exactly one of stockQuantity or delta");
+            }
+        }
+        
+        StockAdjustmentResultDto[] results = new StockAdjustmentResultDto[adjustments.size()];
+        List<Integer> cold = new ArrayList<>();
+        List<Integer> hot = new ArrayList<>();
+        for (int i = 0; i < adjustments.size(); i++) {
+            (hotInventory.isHot(adjustments.get(i).getProductId()) ? hot : cold).add(i);
+        }
+        
+        if (!cold.isEmpty()) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    applyAdjustments(adjustments, cold, results));
+        }
+        
+        Set<Integer> changedHot = new HashSet<>();
+        for (Integer i : hot) {
+            StockAdjustmentDto adjustment = adjustments.get(i);
+            Integer productId = adjustment.getProductId();
+            boolean applied = true;
+            if (adjustment.getStockQuantity() != null) {
+                hotInventory.setStock(productId, adjustment.getStockQuantity());
+            } else {
+                applied = hotInventory.decrement(productId, List.of(-adjustment.getDelta())).get(0);
+            }
+            if (applied) {
+                changedHot.add(productId);
+            }
+            results[i] = new StockAdjustmentResultDto(productId, applied ? APPLIED : REJECTED,
+                    hotInventory.getAvailable(productId));
+        }
+        if (!changedHot.isEmpty()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(changedHot));
+        }
+        return Arrays.asList(results);
+    }
+    
+    private void applyAdjustments(List<StockAdjustmentDto> adjustments, List<Integer> indexes,
+                                  StockAdjustmentResultDto[] results) {
+        Map<Integer, StockLevel> levels = new HashMap<>(inventoryLedger.lockAll(
+                indexes.stream().map(i -> adjustments.get(i).getProductId()).toList()));
+        
+        // Applied in request order, so chained adjustments see each other's result
+        List<InventoryMovement> movements = new ArrayList<>();
+        for (Integer i : indexes) {
+            StockAdjustmentDto adjustment = adjustments.get(i);
+            Integer productId = adjustment.getProductId();
+            StockLevel level = levels.get(productId);
+            if (level == null) {
+                results[i] = new StockAdjustmentResultDto(productId, NOT_FOUND, null);
+                continue;
+            }
+            int updated = adjustment.getStockQuantity() != null
+                    ? adjustment.getStockQuantity() : level.stock() + adjustment.getDelta();
+            if (updated >= level.reserved()) {
+                levels.put(productId, new StockLevel(updated, level.reserved()));
+                movements.add(new InventoryMovement(productId, updated - level.stock(), MovementReason.adjustment,
+                        adjustment.getReference()));
+                results[i] = new StockAdjustmentResultDto(productId, APPLIED, updated);
+            } else {
+                results[i] = new StockAdjustmentResultDto(productId, REJECTED, level.stock());
+            }
+        }
+        inventoryLedger.recordAll(movements);
+    }
+    
+    /**
+     * Gets the stock movements of a product in a time range, oldest first
+     * @param productId The product ID
+     * @param from Start of the range, inclusive
+     * @param to End of the range, inclusive
+     * @param limit Maximum number of movements to return
+     * @return The movements in the range
+     */
+    public List<InventoryMovement> getMovements(Integer productId, LocalDateTime from, LocalDateTime to, int limit) {
+        return inventoryMovementRepository.findByProductIdAndCreatedAtBetweenOrderByIdAsc(
+                productId, from, to, PageRequest.of(0, limit));
     }
     
 }
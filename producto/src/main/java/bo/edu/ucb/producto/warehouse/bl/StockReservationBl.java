@@ -0,0 +1,288 @@
+package bo.edu.ucb.producto.warehouse.bl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import bo.edu.ucb.producto.warehouse.entity.InventoryMovement.MovementReason;
+import bo.edu.ucb.producto.warehouse.entity.StockReservation;
+import bo.edu.ucb.producto.warehouse.entity.StockReservation.ReservationStatus;
+import bo.edu.ucb.producto.warehouse.event.ProductChangedEvent;
+import bo.edu.ucb.producto.warehouse.inventory.HashedTimerWheel;
+import bo.edu.ucb.producto.warehouse.inventory.HotInventory;
+import bo.edu.ucb.producto.warehouse.inventory.InventoryLedger;
+import bo.edu.ucb.producto.warehouse.inventory.InventoryLedger.StockLevel;
+import bo.edu.ucb.producto.warehouse.repository.StockReservationRepository;
+
+/**
+ * Stock reservations: reserve, then confirm or release
+ *
+ * A reservation moves units from available to reserved_quantity under the stock lock
+ * of the inventory ledger, so no lock is held between reserve and confirm. Confirming
+ * appends the units to the ledger as taken out of stock; releasing, or letting the
+ * hold expire, gives them back. Holds
+ * are persisted and their expiry timers are rebuilt from the table on startup.
+ * For hot-inventory products the units are taken from the in-memory counter instead.
+ */
+@Service
+public class StockReservationBl {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservationBl.class);
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private HotInventory hotInventory;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${warehouse.reservation.default-ttl-seconds:900}")
+    private long defaultTtlSeconds;
+
+    @Value("${warehouse.reservation.max-ttl-seconds:86400}")
+    private long maxTtlSeconds;
+
+    @Value("${warehouse.reservation.timer-tick-ms:100}")
+    private long timerTickMillis;
+
+    @Value("${warehouse.reservation.timer-wheel-size:512}")
+    private int timerWheelSize;
+
+    private final Map<Long, HashedTimerWheel.Timeout> expiryTimers = new ConcurrentHashMap<>();
+    private ExecutorService expiryExecutor;
+    private HashedTimerWheel timerWheel;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        expiryExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timerWheel = new HashedTimerWheel(timerTickMillis, TimeUnit.MILLISECONDS, timerWheelSize,
+                expiryExecutor, "reservation-timer");
+
+        // Holds that expired while the service was down are released on the first tick
+        List<StockReservation> active = stockReservationRepository.findByStatus(ReservationStatus.active);
+        active.forEach(this::scheduleExpiry);
+        if (!active.isEmpty()) {
+            log.info("Recovered {} active stock reservation(s)", active.size());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        timerWheel.close();
+        expiryExecutor.shutdown();
+    }
+
+    /**
+     * Reserve stock of a product
+     * @param productId The product ID
+     * @param quantity Units to hold, greater than 0
+     * @param ttlSeconds Hold duration, or null for the configured default
+     * @return The active reservation, or null if the product does not exist
+     * @throws IllegalArgumentException if quantity or ttlSeconds are invalid
+     * @throws IllegalStateException if the available stock does not cover the quantity
+     */
+    public StockReservation reserve(Integer productId, int quantity, Long ttlSeconds) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0");
+        }
+        long ttl = ttlSeconds != null ? ttlSeconds : defaultTtlSeconds;
+        if (ttl <= 0 || ttl > maxTtlSeconds) {
+            throw new IllegalArgumentException("TTL must be between 1 and " + maxTtlSeconds + " seconds");
+        }
+
+        boolean inMemory = hotInventory.isHot(productId);
+        if (inMemory && !hotInventory.decrement(productId, List.of(quantity)).get(0)) {
+            throw new IllegalStateException("Insufficient stock for product " + productId + ". Requested: " + quantity);
+        }
+
+        StockReservation reservation;
+        try {
+            reservation = transactionTemplate.execute(status -> {
+                if (!inMemory) {
+                    StockLevel level = inventoryLedger.lock(productId);
+                    if (level == null) {
+                        return null;
+                    }
+                    if (level.available() < quantity) {
+                        throw new IllegalStateException("Insufficient stock for product " + productId + ". Requested: " + quantity);
+                    }
+                    jdbcTemplate.update("UPDATE product SET reserved_quantity = reserved_quantity + ? WHERE id = ?",
+                            quantity, productId);
+                }
+                StockReservation created = new StockReservation();
+                created.setProductId(productId);
+                created.setQuantity(quantity);
+                created.setInMemory(inMemory);
+                created.setExpiresAt(LocalDateTime.now().plusSeconds(ttl));
+                created = stockReservationRepository.save(created);
+                eventPublisher.publishEvent(new ProductChangedEvent(productId));
+                return created;
+            });
+        } catch (RuntimeException e) {
+            if (inMemory) {
+                hotInventory.decrement(productId, List.of(-quantity));
+            }
+            throw e;
+        }
+
+        if (reservation != null) {
+            scheduleExpiry(reservation);
+        }
+        return reservation;
+    }
+
+    /**
+     * Confirm a reservation, taking its units out of stock
+     * @param reservationId The reservation ID
+     * @return The confirmed reservation, or null if it does not exist
+     * @throws IllegalStateException if the reservation is no longer active
+     */
+    public StockReservation confirm(Long reservationId) {
+        StockReservation reservation = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            int updated = jdbcTemplate.update(
+                    "UPDATE stock_reservation SET status = ?, updated_at = ? " +
+                    "WHERE id = ? AND status = ? AND expires_at > ?",
+                    ReservationStatus.confirmed.name(), Timestamp.valueOf(now), reservationId,
+                    ReservationStatus.active.name(), Timestamp.valueOf(now));
+            StockReservation current = stockReservationRepository.findById(reservationId).orElse(null);
+            if (current == null) {
+                return null;
+            }
+            if (updated == 0) {
+                throw new IllegalStateException("Reservation " + reservationId + " is " + describe(current, now));
+            }
+            if (!current.getInMemory()) {
+                inventoryLedger.lock(current.getProductId());
+                jdbcTemplate.update("UPDATE product SET reserved_quantity = reserved_quantity - ? WHERE id = ?",
+                        current.getQuantity(), current.getProductId());
+                inventoryLedger.record(current.getProductId(), -current.getQuantity(), MovementReason.reservation,
+                        "reservation:" + reservationId);
+            }
+            eventPublisher.publishEvent(new ProductChangedEvent(current.getProductId()));
+            return current;
+        });
+        cancelExpiry(reservationId);
+        return reservation;
+    }
+
+    /**
+     * Release a reservation, giving its units back; releasing twice is a no-op
+     * @param reservationId The reservation ID
+     * @return The released reservation, or null if it does not exist
+     * @throws IllegalStateException if the reservation was already confirmed
+     */
+    public StockReservation release(Long reservationId) {
+        return finish(reservationId, ReservationStatus.released);
+    }
+
+    private void expire(Long reservationId) {
+        try {
+            finish(reservationId, ReservationStatus.expired);
+        } catch (RuntimeException e) {
+            log.warn("Could not expire reservation {}", reservationId, e);
+        }
+    }
+
+    private StockReservation finish(Long reservationId, ReservationStatus target) {
+        boolean[] finished = new boolean[1];
+        StockReservation reservation = transactionTemplate.execute(status -> {
+            int updated = jdbcTemplate.update(
+                    "UPDATE stock_reservation SET status = ?, updated_at = ? WHERE id = ? AND status = ?",
+                    target.name(), Timestamp.valueOf(LocalDateTime.now()), reservationId, ReservationStatus.active.name());
+            StockReservation current = stockReservationRepository.findById(reservationId).orElse(null);
+            if (current == null || updated == 0) {
+                if (current != null && current.getStatus() == ReservationStatus.confirmed) {
+                    throw new IllegalStateException("Reservation " + reservationId + " is already confirmed");
+                }
+                return current;
+            }
+            if (!current.getInMemory()) {
+                jdbcTemplate.update("UPDATE product SET reserved_quantity = reserved_quantity - ? WHERE id = ?",
+                        current.getQuantity(), current.getProductId());
+                eventPublisher.publishEvent(new ProductChangedEvent(current.getProductId()));
+            }
+            finished[0] = true;
+            return current;
+        });
+        cancelExpiry(reservationId);
+
+        // Units held in memory are given back only once the status change is committed
+        if (finished[0] && reservation.getInMemory()) {
+            returnInMemoryUnits(reservation);
+        }
+        return reservation;
+    }
+
+    private void returnInMemoryUnits(StockReservation reservation) {
+        if (hotInventory.isHot(reservation.getProductId())) {
+            hotInventory.decrement(reservation.getProductId(), List.of(-reservation.getQuantity()));
+        } else {
+            // The product is no longer hot; its written-back stock excludes the held units
+            transactionTemplate.executeWithoutResult(status -> {
+                inventoryLedger.lock(reservation.getProductId());
+                inventoryLedger.record(reservation.getProductId(), reservation.getQuantity(), MovementReason.reservation,
+                        "reservation:" + reservation.getId());
+            });
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(reservation.getProductId()));
+    }
+
+    private void scheduleExpiry(StockReservation reservation) {
+        long delayMillis = Duration.between(LocalDateTime.now(), reservation.getExpiresAt()).toMillis();
+        Long id = reservation.getId();
+        expiryTimers.put(id, timerWheel.schedule(() -> {
+            expiryTimers.remove(id);
+            expire(id);
+        }, delayMillis, TimeUnit.MILLISECONDS));
+    }
+
+    private void cancelExpiry(Long reservationId) {
+        HashedTimerWheel.Timeout timeout = expiryTimers.remove(reservationId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private String describe(StockReservation reservation, LocalDateTime now) {
+        if (reservation.getStatus() == ReservationStatus.active && !reservation.getExpiresAt().isAfter(now)) {
+            return "expired";
+        }
+        return reservation.getStatus().name();
+    }
+}
@@ -0,0 +1,15 @@
+package bo.edu.ucb.producto.warehouse.cache;
+
+import java.util.Set;
+
+/**
+ * Tells the other producto instances which products changed, so they evict their cached copies
+ */
+public interface CacheInvalidationBroadcaster {
+
+    /**
+     * @param productIds IDs of the products that changed on this instance
+     * @param keysChanged Whether a product was created or its SKU or category changed
+     */
+    void broadcast(Set<Integer> productIds, boolean keysChanged);
+}
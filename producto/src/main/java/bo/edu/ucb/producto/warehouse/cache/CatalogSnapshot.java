@@ -0,0 +1,206 @@
+package bo.edu.ucb.producto.warehouse.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable, pre-serialized view of the product catalog
+ *
+ * Every product is kept as the JSON bytes of its ProductDto, indexed by ID and
+ * category. A change never modifies a snapshot: {@link #with} returns a new one and the
+ * old one stays valid for the readers still holding it. Products are split into shards
+ * by ID and categories into per-category ID arrays, so a change copies only the shards and
+ * categories it touches, not the whole catalog. List responses are assembled from the
+ * product bytes on first use and memoized.
+ */
+public final class CatalogSnapshot {
+
+    private static final int SHARDS = 4096;
+
+    private final String eTag;
+    private final Map<Integer, Entry>[] shards;
+    private final Map<String, int[]> categories;
+    private final Map<String, byte[]> categoryJson = new ConcurrentHashMap<>();
+    private volatile byte[] allJson;
+
+    private CatalogSnapshot(String eTag, Map<Integer, Entry>[] shards, Map<String, int[]> categories) {
+        this.eTag = eTag;
+        this.shards = shards;
+        this.categories = categories;
+    }
+
+    /**
+     * @param eTag Catalog ETag read before the products were loaded
+     * @param products Products by ID
+     * @return Snapshot of the given products
+     */
+    public static CatalogSnapshot of(String eTag, Map<Integer, Entry> products) {
+        Map<Integer, Entry>[] shards = emptyShards();
+        Map<String, List<Integer>> byCategory = new HashMap<>();
+        products.forEach((id, entry) -> {
+            int shard = shard(id);
+            if (shards[shard].isEmpty()) {
+                shards[shard] = new HashMap<>();
+            }
+            shards[shard].put(id, entry);
+            if (entry.category() != null) {
+                byCategory.computeIfAbsent(categoryKey(entry.category()), c -> new ArrayList<>()).add(id);
+            }
+        });
+        Map<String, int[]> categories = new HashMap<>();
+        byCategory.forEach((category, list) -> categories.put(category,
+                list.stream().mapToInt(Integer::intValue).sorted().toArray()));
+        return new CatalogSnapshot(eTag, shards, categories);
+    }
+
+    /**
+     * @param eTag Catalog ETag read before the changed products were loaded
+     * @param changed Products to add or replace
+     * @param removed IDs of products that no longer exist
+     * @return New snapshot with the changes applied; this one is left untouched
+     */
+    public CatalogSnapshot with(String eTag, Map<Integer, Entry> changed, Collection<Integer> removed) {
+        Map<Integer, Entry>[] shardsCopy = shards.clone();
+        boolean[] copied = new boolean[SHARDS];
+        Map<String, Set<Integer>> leaving = new HashMap<>();
+        Map<String, Set<Integer>> joining = new HashMap<>();
+
+        Set<Integer> touched = new HashSet<>(removed);
+        touched.addAll(changed.keySet());
+        for (Integer id : touched) {
+            Entry before = getProduct(id);
+            Entry after = changed.get(id);
+            String beforeKey = before != null && before.category() != null ? categoryKey(before.category()) : null;
+            String afterKey = after != null && after.category() != null ? categoryKey(after.category()) : null;
+            if (!Objects.equals(beforeKey, afterKey)) {
+                if (beforeKey != null) {
+                    leaving.computeIfAbsent(beforeKey, k -> new HashSet<>()).add(id);
+                }
+                if (afterKey != null) {
+                    joining.computeIfAbsent(afterKey, k -> new HashSet<>()).add(id);
+                }
+            }
+
+            int shard = shard(id);
+            if (!copied[shard]) {
+                shardsCopy[shard] = new HashMap<>(shards[shard]);
+                copied[shard] = true;
+            }
+            if (after != null) {
+                shardsCopy[shard].put(id, after);
+            } else {
+                shardsCopy[shard].remove(id);
+            }
+        }
+
+        Map<String, int[]> categoriesCopy = categories;
+        if (!leaving.isEmpty() || !joining.isEmpty()) {
+            categoriesCopy = new HashMap<>(categories);
+            Set<String> keys = new HashSet<>(leaving.keySet());
+            keys.addAll(joining.keySet());
+            for (String key : keys) {
+                Set<Integer> out = leaving.getOrDefault(key, Set.of());
+                IntStream kept = Arrays.stream(categories.getOrDefault(key, new int[0])).filter(id -> !out.contains(id));
+                int[] ids = IntStream.concat(kept, joining.getOrDefault(key, Set.of()).stream().mapToInt(Integer::intValue))
+                        .sorted().toArray();
+                if (ids.length == 0) {
+                    categoriesCopy.remove(key);
+                } else {
+                    categoriesCopy.put(key, ids);
+                }
+            }
+        }
+        return new CatalogSnapshot(eTag, shardsCopy, categoriesCopy);
+    }
+
+    /**
+     * @return Catalog ETag of the list responses of this snapshot
+     */
+    public String getETag() {
+        return eTag;
+    }
+
+    public Entry getProduct(Integer id) {
+        return shards[shard(id)].get(id);
+    }
+
+    /**
+     * @return JSON array of every product, ordered by ID
+     */
+    public byte[] getAll() {
+        byte[] json = allJson;
+        if (json == null) {
+            int[] ids = Arrays.stream(shards).flatMap(shard -> shard.keySet().stream())
+                    .mapToInt(Integer::intValue).sorted().toArray();
+            json = toJsonArray(ids);
+            allJson = json;
+        }
+        return json;
+    }
+
+    /**
+     * @param category Category, compared ignoring case like the database collation
+     * @return JSON array of the products of the category, ordered by ID
+     */
+    public byte[] getCategory(String category) {
+        String key = categoryKey(category);
+        return categoryJson.computeIfAbsent(key, k -> toJsonArray(categories.getOrDefault(k, new int[0])));
+    }
+
+    /**
+     * @param requested Product IDs
+     * @return JSON array of the products in request order, without duplicates or unknown IDs
+     */
+    public byte[] getByIds(List<Integer> requested) {
+        return toJsonArray(new LinkedHashSet<>(requested).stream()
+                .filter(id -> getProduct(id) != null)
+                .mapToInt(Integer::intValue)
+                .toArray());
+    }
+
+    private byte[] toJsonArray(int[] productIds) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        for (int i = 0; i < productIds.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(getProduct(productIds[i]).json());
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    private static int shard(int id) {
+        return id & (SHARDS - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Integer, Entry>[] emptyShards() {
+        Map<Integer, Entry>[] shards = new Map[SHARDS];
+        Arrays.fill(shards, Map.of());
+        return shards;
+    }
+
+    private static String categoryKey(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * One product: its JSON bytes, its version ETag and its category
+     */
+    public record Entry(byte[] json, String eTag, String category) {
+    }
+}
@@ -0,0 +1,128 @@
+package bo.edu.ucb.producto.warehouse.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Serves catalog reads straight from the {@link CatalogSnapshot}
+ *
+ * GET /products (optionally with ids), /products/{id} and /products/category/{category}
+ * (without price range or paging) are answered with the pre-serialized bytes before the request reaches Spring MVC.
+ * Anything the snapshot cannot answer (unknown IDs, invalid parameters, the snapshot
+ * still loading) is passed on to the controller unchanged.
+ */
+public class CatalogSnapshotFilter extends OncePerRequestFilter {
+
+    private static final String PRODUCTS_PATH = "/api/warehouse/products";
+    private static final String CATEGORY_PREFIX = PRODUCTS_PATH + "/category/";
+    private static final Pattern PRODUCT_ID_PATH = Pattern.compile(Pattern.quote(PRODUCTS_PATH) + "/\\d{1,9}");
+    private static final int MAX_LOOKUP_IDS_QUERY = 1000;
+
+    private final CatalogSnapshotHolder holder;
+    private final String cacheControl;
+
+    public CatalogSnapshotFilter(CatalogSnapshotHolder holder, String cacheControl) {
+        this.holder = holder;
+        this.cacheControl = cacheControl;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CatalogSnapshot snapshot = holder.getSnapshot();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (snapshot == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (path.equals(PRODUCTS_PATH)) {
+            String[] idParams = request.getParameterValues("ids");
+            List<Integer> ids = idParams != null ? parseIds(idParams) : null;
+            if (idParams != null && (ids == null || ids.size() > MAX_LOOKUP_IDS_QUERY)) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            if (!notModified(request, response, snapshot.getETag(), true)) {
+                write(response, snapshot.getETag(), true, ids == null ? snapshot.getAll() : snapshot.getByIds(ids));
+            }
+        } else if (path.startsWith(CATEGORY_PREFIX) && path.indexOf('/', CATEGORY_PREFIX.length()) < 0
+                && request.getQueryString() == null) {
+            String category = UriUtils.decode(path.substring(CATEGORY_PREFIX.length()), StandardCharsets.UTF_8);
+            if (!notModified(request, response, snapshot.getETag(), true)) {
+                write(response, snapshot.getETag(), true, snapshot.getCategory(category));
+            }
+        } else if (PRODUCT_ID_PATH.matcher(path).matches()) {
+            CatalogSnapshot.Entry product = snapshot.getProduct(Integer.valueOf(path.substring(PRODUCTS_PATH.length() + 1)));
+            if (product == null) {
+                filterChain.doFilter(request, response);
+            } else if (!notModified(request, response, product.eTag(), false)) {
+                write(response, product.eTag(), false, product.json());
+            }
+        } else {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private boolean notModified(HttpServletRequest request, HttpServletResponse response, String eTag, boolean catalog) {
+        if (!CatalogVersion.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+            return false;
+        }
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        writeHeaders(response, eTag, catalog);
+        return true;
+    }
+
+    private void write(HttpServletResponse response, String eTag, boolean catalog, byte[] body) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        writeHeaders(response, eTag, catalog);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private void writeHeaders(HttpServletResponse response, String eTag, boolean catalog) {
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        if (catalog) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+    }
+
+    /**
+     * @return IDs from comma-separated values, or null if one is not a number
+     */
+    private List<Integer> parseIds(String[] values) {
+        List<Integer> ids = new ArrayList<>();
+        for (String value : values) {
+            for (String id : value.split(",")) {
+                if (id.isBlank()) {
+                    continue;
+                }
+                try {
+                    ids.add(Integer.valueOf(id.trim()));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return ids;
+    }
+}
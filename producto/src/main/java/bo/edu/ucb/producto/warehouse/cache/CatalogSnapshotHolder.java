@@ -0,0 +1,163 @@
+package bo.edu.ucb.producto.warehouse.cache;
+
+import bo.edu.ucb.producto.service.ProductService;
+import bo.edu.ucb.producto.warehouse.dto.ProductDto;
+import bo.edu.ucb.producto.warehouse.entity.Product;
+import bo.edu.ucb.producto.warehouse.event.CatalogChangeListener;
+import bo.edu.ucb.producto.warehouse.event.CatalogChangeLoader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the current {@link CatalogSnapshot} and publishes a new one after every change
+ *
+ * The full catalog is serialized once the application is ready. After that, the rows
+ * {@link CatalogChangeLoader} reads for every change are gathered and a single background
+ * thread serializes only those products and swaps in a new snapshot, so readers never
+ * block and never see a half-applied change. A failed update is queued again after a
+ * growing delay and then reads its products from the table. Hot-inventory stock is as
+ * of its last write-back to the table.
+ */
+@Component
+@ConditionalOnProperty(name = "warehouse.catalog-snapshot.enabled", havingValue = "true")
+public class CatalogSnapshotHolder implements CatalogChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotHolder.class);
+    private static final long MIN_RETRY_DELAY_MS = 100;
+    private static final long MAX_RETRY_DELAY_MS = 30000;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Products to apply; a null row is read from the table when applied
+    private final Map<Integer, Product> pending = new HashMap<>();
+    private boolean scheduled;
+    private long retryDelayMillis;
+    private volatile CatalogSnapshot snapshot;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @return Current snapshot, or null while the first one is being built
+     */
+    public CatalogSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        executor.execute(() -> {
+            long start = System.currentTimeMillis();
+            String eTag = catalogVersion.getETag();
+            Map<Integer, CatalogSnapshot.Entry> entries = new HashMap<>();
+            for (ProductDto product : productService.getAllProducts()) {
+                entries.put(product.getId(), toEntry(product));
+            }
+            snapshot = CatalogSnapshot.of(eTag, entries);
+            log.info("Catalog snapshot: {} product(s) in {} ms", entries.size(), System.currentTimeMillis() - start);
+        });
+    }
+
+    /**
+     * Schedule the given products to be applied to a new snapshot
+     * Products that no longer exist are read again when applied, which removes them.
+     */
+    @Override
+    public synchronized void onProductsLoaded(Collection<Integer> productIds, List<Product> products) {
+        if (snapshot == null) {
+            // The first snapshot has not been built yet and will read these products itself
+            return;
+        }
+        productIds.forEach(id -> pending.put(id, null));
+        products.forEach(product -> pending.put(product.getId(), product));
+        if (!scheduled) {
+            scheduled = true;
+            executor.execute(this::applyPending);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private void applyPending() {
+        Map<Integer, Product> batch;
+        synchronized (this) {
+            batch = new HashMap<>(pending);
+            pending.clear();
+            scheduled = false;
+        }
+        CatalogSnapshot current = snapshot;
+        List<Integer> ids = new ArrayList<>(batch.keySet());
+        try {
+            String eTag = catalogVersion.getETag();
+            Map<Integer, CatalogSnapshot.Entry> changed = new HashMap<>();
+            List<Integer> unread = new ArrayList<>();
+            batch.forEach((id, product) -> {
+                if (product != null) {
+                    changed.put(id, toEntry(productService.convertToDto(product)));
+                } else {
+                    unread.add(id);
+                }
+            });
+            for (ProductDto product : productService.getProductsByIds(unread)) {
+                changed.put(product.getId(), toEntry(product));
+            }
+            List<Integer> removed = ids.stream().filter(id -> !changed.containsKey(id)).toList();
+            snapshot = current.with(eTag, changed, removed);
+            synchronized (this) {
+                retryDelayMillis = 0;
+            }
+        } catch (RuntimeException e) {
+            retryLater(ids, e);
+        }
+    }
+
+    private synchronized void retryLater(List<Integer> ids, RuntimeException cause) {
+        retryDelayMillis = Math.min(MAX_RETRY_DELAY_MS, Math.max(MIN_RETRY_DELAY_MS, retryDelayMillis * 2));
+        log.warn("Could not refresh catalog snapshot for {} product(s), retrying in {} ms: {}",
+                ids.size(), retryDelayMillis, cause.getMessage());
+        // Read again when retried; a newer row queued meanwhile is kept
+        ids.forEach(id -> pending.putIfAbsent(id, null));
+        if (!scheduled) {
+            scheduled = true;
+            executor.schedule(this::applyPending, retryDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private CatalogSnapshot.Entry toEntry(ProductDto product) {
+        try {
+            return new CatalogSnapshot.Entry(objectMapper.writeValueAsBytes(product),
+                    "\"" + product.getVersion() + "\"", product.getCategory());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize product " + product.getId(), e);
+        }
+    }
+}
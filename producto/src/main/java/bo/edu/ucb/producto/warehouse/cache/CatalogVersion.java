@@ -0,0 +1,53 @@
+package bo.edu.ucb.producto.warehouse.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counter of the product catalog, used as the ETag of catalog reads
+ *
+ * Bumped after every committed product change, local or from another instance, and
+ * on every hot-inventory stock change. The ETag also carries the start time of this
+ * instance, so a tag handed out before a restart never matches after it.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Read the ETag before reading the catalog, so a concurrent change can only make
+     * the tag older than the body, never newer
+     * @return Strong ETag of the current catalog version
+     */
+    public String getETag() {
+        return "\"" + epoch + "-" + version.get() + "\"";
+    }
+
+    /**
+     * @param ifNoneMatch Value of an If-None-Match header, may be null
+     * @param eTag ETag obtained from {@link #getETag()}
+     * @return true if the header matches the ETag, using weak comparison as RFC 9110 requires
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
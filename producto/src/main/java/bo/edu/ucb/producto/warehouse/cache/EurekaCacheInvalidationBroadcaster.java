@@ -0,0 +1,116 @@
+package bo.edu.ucb.producto.warehouse.cache;
+
+import bo.edu.ucb.producto.config.InternalTokenFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Broadcasts invalidations to the other producto instances registered in Eureka
+ *
+ * Changed IDs are gathered and sent periodically as one request per peer to the
+ * internal evict endpoint. Delivery is best effort; a peer that misses a message
+ * serves its cached copy until the entry is evicted or updated there.
+ */
+@Component
+@ConditionalOnProperty(name = "warehouse.cache.broadcast.mode", havingValue = "eureka", matchIfMissing = true)
+public class EurekaCacheInvalidationBroadcaster implements CacheInvalidationBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(EurekaCacheInvalidationBroadcaster.class);
+
+    @Autowired
+    private DiscoveryClient discoveryClient;
+
+    @Autowired
+    private ObjectProvider<Registration> registration;
+
+    @Value("${spring.application.name}")
+    private String serviceId;
+
+    @Value("${warehouse.internal.token:}")
+    private String token;
+
+    private final RestClient restClient;
+    private Set<Integer> pending = new HashSet<>();
+    private boolean pendingKeysChanged;
+
+    public EurekaCacheInvalidationBroadcaster(@Value("${warehouse.cache.broadcast.timeout-ms:1000}") int timeoutMillis) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMillis);
+        requestFactory.setReadTimeout(timeoutMillis);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public synchronized void broadcast(Set<Integer> productIds, boolean keysChanged) {
+        pending.addAll(productIds);
+        pendingKeysChanged |= keysChanged;
+    }
+
+    /**
+     * Send the IDs gathered since the last run to every peer
+     */
+    @Scheduled(fixedDelayString = "${warehouse.cache.broadcast.interval-ms:50}")
+    public void send() {
+        Set<Integer> productIds;
+        boolean keysChanged;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            productIds = pending;
+            keysChanged = pendingKeysChanged;
+            pending = new HashSet<>();
+            pendingKeysChanged = false;
+        }
+
+        // Peers reject every call while the internal endpoints are disabled
+        if (token.isBlank()) {
+            return;
+        }
+
+        for (ServiceInstance peer : peers()) {
+            try {
+                restClient.post()
+                        .uri(peer.getUri().resolve("/api/warehouse/internal/cache/evict?keysChanged=" + keysChanged))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(InternalTokenFilter.TOKEN_HEADER, token)
+                        .body(productIds)
+                        .retrieve()
+                        .toBodilessEntity();
+            } catch (Exception e) {
+                log.warn("Cache invalidation to {} failed: {}", peer.getUri(), e.getMessage());
+            }
+        }
+    }
+
+    private List<ServiceInstance> peers() {
+        Registration self = registration.getIfAvailable();
+        return discoveryClient.getInstances(serviceId).stream()
+                .filter(instance -> self == null || !isSelf(self, instance))
+                .toList();
+    }
+
+    private boolean isSelf(Registration self, ServiceInstance instance) {
+        if (self.getInstanceId() != null && instance.getInstanceId() != null) {
+            return self.getInstanceId().equals(instance.getInstanceId());
+        }
+        return Objects.equals(self.getHost(), instance.getHost()) && self.getPort() == instance.getPort();
+    }
+}
@@ -0,0 +1,18 @@
+package bo.edu.ucb.producto.warehouse.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Broadcaster for a single instance, or for local runs without Eureka
+ */
+@Component
+@ConditionalOnProperty(name = "warehouse.cache.broadcast.mode", havingValue = "none")
+public class NoOpCacheInvalidationBroadcaster implements CacheInvalidationBroadcaster {
+
+    @Override
+    public void broadcast(Set<Integer> productIds, boolean keysChanged) {
+    }
+}
@@ -0,0 +1,88 @@
+package bo.edu.ucb.producto.warehouse.cache;
+
+import bo.edu.ucb.producto.warehouse.dto.CacheRegionStatisticsDto;
+import bo.edu.ucb.producto.warehouse.entity.Product;
+import bo.edu.ucb.producto.warehouse.event.ProductChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the Hibernate second-level cache of products coherent
+ *
+ * Writes through JPA update the local cache themselves, but stock written with plain
+ * JDBC (hot-inventory flush, bulk import) and writes made by other instances do not.
+ * Every committed product change is therefore evicted locally and broadcast to the
+ * other instances, and the catalog version is bumped once the entries are gone.
+ * Cached query results (products by SKU and by category) only hold IDs, so they are
+ * dropped only when a change can alter them: a new product, or a new SKU or category.
+ * Runs before other listeners so they reload fresh rows.
+ */
+@Component
+public class ProductCacheInvalidator {
+
+    // Beyond this many products, such as after a bulk reprice, the whole region is dropped at once
+    private static final int REGION_EVICTION_THRESHOLD = 1000;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheInvalidationBroadcaster broadcaster;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.getProductIds(), event.isKeysChanged());
+        broadcaster.broadcast(event.getProductIds(), event.isKeysChanged());
+    }
+
+    /**
+     * Evict products from the local cache and bump the catalog version
+     * @param productIds Product IDs
+     * @param keysChanged Whether cached query results must be dropped as well
+     */
+    public void evict(Collection<Integer> productIds, boolean keysChanged) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        if (productIds.size() > REGION_EVICTION_THRESHOLD) {
+            sessionFactory.getCache().evictEntityData(Product.class);
+        } else {
+            for (Integer productId : productIds) {
+                sessionFactory.getCache().evictEntityData(Product.class, productId);
+            }
+        }
+        if (keysChanged) {
+            sessionFactory.getCache().evictDefaultQueryRegion();
+        }
+        catalogVersion.bump();
+    }
+
+    /**
+     * @return Hit, miss and put counts of every second-level cache region
+     */
+    public List<CacheRegionStatisticsDto> getStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheRegionStatisticsDto> regions = new ArrayList<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                regions.add(new CacheRegionStatisticsDto(regionName, region.getHitCount(), region.getMissCount(),
+                        region.getPutCount(), Math.max(-1, region.getElementCountInMemory())));
+            }
+        }
+        return regions;
+    }
+}
@@ -0,0 +1,123 @@
+package bo.edu.ucb.producto.warehouse.cache;
+
+import bo.edu.ucb.producto.warehouse.entity.Product;
+import bo.edu.ucb.producto.warehouse.inventory.HotInventory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Periodically exports the active products to a compact binary snapshot file
+ *
+ * Sales instances memory-map the file on startup to warm their product cache without
+ * calling this service. The file is big-endian: a 32-byte header (magic "PSNP",
+ * format version, generation time in epoch milliseconds, record count, record size,
+ * 8 reserved bytes) followed by one 20-byte record per product in ID order (id,
+ * price in cents as a long, stock quantity, status ordinal, 3 padding bytes).
+ * A new file is written only when the catalog version has changed, and it replaces
+ * the previous one with an atomic rename, so readers never see a partial file.
+ */
+@Component
+public class ProductSnapshotExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSnapshotExporter.class);
+
+    public static final int MAGIC = 0x50534E50;
+    public static final int FORMAT_VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+    public static final int RECORD_SIZE = 20;
+
+    private static final int LOAD_BATCH_SIZE = 10000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private HotInventory hotInventory;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${warehouse.product-snapshot.path:}")
+    private String path;
+
+    private String exportedETag;
+
+    @Scheduled(fixedDelayString = "${warehouse.product-snapshot.interval-ms:30000}", initialDelay = 0)
+    public void export() {
+        if (path.isBlank()) {
+            return;
+        }
+        String eTag = catalogVersion.getETag();
+        if (eTag.equals(exportedETag)) {
+            return;
+        }
+        try {
+            int count = write(Path.of(path));
+            exportedETag = eTag;
+            log.info("Product snapshot: exported {} product(s) to {}", count, path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Product snapshot: could not export to {}", path, e);
+        }
+    }
+
+    private int write(Path target) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            int lastId = 0;
+            int loaded;
+            do {
+                List<Object[]> batch = jdbcTemplate.query(
+                        "SELECT id, price, stock_quantity FROM product WHERE status = ? AND id > ? ORDER BY id LIMIT " + LOAD_BATCH_SIZE,
+                        (rs, rowNum) -> new Object[] { rs.getInt(1), rs.getBigDecimal(2), rs.getInt(3) },
+                        Product.ProductStatus.active.name(), lastId);
+                ByteBuffer records = ByteBuffer.allocate(batch.size() * RECORD_SIZE);
+                for (Object[] row : batch) {
+                    int id = (Integer) row[0];
+                    int stock = hotInventory.isHot(id) ? hotInventory.getAvailable(id) : (Integer) row[2];
+                    records.putInt(id);
+                    records.putLong(((BigDecimal) row[1]).movePointRight(2).longValueExact());
+                    records.putInt(stock);
+                    records.put((byte) Product.ProductStatus.active.ordinal());
+                    records.put(new byte[3]);
+                    lastId = id;
+                }
+                records.flip();
+                while (records.hasRemaining()) {
+                    channel.write(records);
+                }
+                loaded = batch.size();
+                count += loaded;
+            } while (loaded == LOAD_BATCH_SIZE);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(System.currentTimeMillis())
+                    .putInt(count).putInt(RECORD_SIZE).putLong(0).flip();
+            channel.write(header, 0);
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return count;
+    }
+}
@@ -0,0 +1,69 @@
+package bo.edu.ucb.producto.warehouse.dto;
+
+/**
+ * DTO with the statistics of a second-level cache region
+ * elementCountInMemory is -1 when the cache provider does not report it
+ */
+public class CacheRegionStatisticsDto {
+
+    private String region;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long putCount;
+
+    private long elementCountInMemory;
+
+    // Default constructor
+    public CacheRegionStatisticsDto() {}
+
+    public CacheRegionStatisticsDto(String region, long hitCount, long missCount, long putCount, long elementCountInMemory) {
+        this.region = region;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.elementCountInMemory = elementCountInMemory;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public void setPutCount(long putCount) {
+        this.putCount = putCount;
+    }
+
+    public long getElementCountInMemory() {
+        return elementCountInMemory;
+    }
+
+    public void setElementCountInMemory(long elementCountInMemory) {
+        this.elementCountInMemory = elementCountInMemory;
+    }
+}
@@ -0,0 +1,74 @@
+package bo.edu.ucb.producto.warehouse.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO class for InventoryMovement
+ */
+public class InventoryMovementDto {
+
+    private Long id;
+
+    private Integer productId;
+
+    private Integer delta;
+
+    private String reason;
+
+    private String reference;
+
+    private LocalDateTime createdAt;
+
+    // Default constructor
+    public InventoryMovementDto() {}
+
+    // Getters and Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,50 @@
+package bo.edu.ucb.producto.warehouse.dto;
+
+import java.util.List;
+
+/**
+ * DTO with one page of the catalog change feed
+ * products holds the current state of every product changed after the requested
+ * sequence, oldest change first; pass nextSince as since to read the next page.
+ */
+public class ProductChangesDto {
+
+    private List<ProductDto> products;
+
+    private long nextSince;
+
+    private boolean hasMore;
+
+    // Default constructor
+    public ProductChangesDto() {}
+
+    public ProductChangesDto(List<ProductDto> products, long nextSince, boolean hasMore) {
+        this.products = products;
+        this.nextSince = nextSince;
+        this.hasMore = hasMore;
+    }
+
+    public List<ProductDto> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductDto> products) {
+        this.products = products;
+    }
+
+    public long getNextSince() {
+        return nextSince;
+    }
+
+    public void setNextSince(long nextSince) {
+        this.nextSince = nextSince;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
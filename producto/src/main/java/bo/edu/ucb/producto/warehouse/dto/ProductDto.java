@@ -30,10 +30,16 @@ public class ProductDto {
     
     private String sku;
     
+    // stockQuantity - reservedQuantity is the available stock of every product. Hot-inventory
+    // products report their in-memory stock, which already excludes the units held by their
+    // reservations, so for them reservedQuantity only counts reservations made before they were hot.
     @NotNull(message = "Stock quantity is required")
     @Min(value = 0, message = "Stock quantity must be greater than or equal to 0")
     private Integer stockQuantity;
     
+    // Read-only: units held by active reservations kept in the database
+    private Integer reservedQuantity;
+    
     private Integer minStockLevel;
     
     private Integer maxStockLevel;
@@ -52,6 +58,8 @@ public class ProductDto {
     
     private LocalDateTime updatedAt;
     
+    private Long version;
+    
     // Default constructor
     public ProductDto() {}
     
@@ -128,6 +136,14 @@ public class ProductDto {
         this.stockQuantity = stockQuantity;
     }
     
+    public Integer getReservedQuantity() {
+        return reservedQuantity;
+    }
+    
+    public void setReservedQuantity(Integer reservedQuantity) {
+        this.reservedQuantity = reservedQuantity;
+    }
+    
     public Integer getMinStockLevel() {
         return minStockLevel;
     }
@@ -200,6 +216,14 @@ public class ProductDto {
         this.updatedAt = updatedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     @Override
     public String toString() {
         return "ProductDto{" +
@@ -220,6 +244,7 @@ public class ProductDto {
                 ", status='" + status + '\'' +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
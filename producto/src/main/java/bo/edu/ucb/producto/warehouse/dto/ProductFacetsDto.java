@@ -0,0 +1,59 @@
+package bo.edu.ucb.producto.warehouse.dto;
+
+import java.util.Map;
+
+/**
+ * DTO with product counts per category, brand and status
+ */
+public class ProductFacetsDto {
+
+    private long total;
+
+    private Map<String, Long> categories;
+
+    private Map<String, Long> brands;
+
+    private Map<String, Long> statuses;
+
+    // Default constructor
+    public ProductFacetsDto() {}
+
+    public ProductFacetsDto(long total, Map<String, Long> categories, Map<String, Long> brands, Map<String, Long> statuses) {
+        this.total = total;
+        this.categories = categories;
+        this.brands = brands;
+        this.statuses = statuses;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<String, Long> categories) {
+        this.categories = categories;
+    }
+
+    public Map<String, Long> getBrands() {
+        return brands;
+    }
+
+    public void setBrands(Map<String, Long> brands) {
+        this.brands = brands;
+    }
+
+    public Map<String, Long> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(Map<String, Long> statuses) {
+        this.statuses = statuses;
+    }
+}
@@ -0,0 +1,46 @@
+package bo.edu.ucb.producto.warehouse.dto;
+
+/**
+ * DTO describing a row of a product import that was rejected
+ */
+public class ProductImportErrorDto {
+
+    private long row;
+
+    private String sku;
+
+    private String message;
+
+    // Default constructor
+    public ProductImportErrorDto() {}
+
+    public ProductImportErrorDto(long row, String sku, String message) {
+        this.row = row;
+        this.sku = sku;
+        this.message = message;
+    }
+
+    public long getRow() {
+        return row;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
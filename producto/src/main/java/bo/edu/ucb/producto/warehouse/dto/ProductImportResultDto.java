@@ -0,0 +1,54 @@
+package bo.edu.ucb.producto.warehouse.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO with the outcome of a product import
+ * Only the first rejected rows are listed in errors; rowsFailed counts all of them
+ */
+public class ProductImportResultDto {
+
+    private long rowsRead;
+
+    private long rowsImported;
+
+    private long rowsFailed;
+
+    private List<ProductImportErrorDto> errors = new ArrayList<>();
+
+    // Default constructor
+    public ProductImportResultDto() {}
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public void setRowsImported(long rowsImported) {
+        this.rowsImported = rowsImported;
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed;
+    }
+
+    public void setRowsFailed(long rowsFailed) {
+        this.rowsFailed = rowsFailed;
+    }
+
+    public List<ProductImportErrorDto> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ProductImportErrorDto> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,71 @@
+package bo.edu.ucb.producto.warehouse.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+
+/**
+ * DTO for a bulk price change
+ * The products are selected by category, brand and supplier (at least one, combined
+ * with AND), and exactly one of percentage (e.g. 10 or -5.5) or amount (added to
+ * the price, may be negative) must be given.
+ */
+public class ProductRepriceDto {
+
+    @Size(max = 100, message = "Category must not exceed 100 characters")
+    private String category;
+
+    @Size(max = 100, message = "Brand must not exceed 100 characters")
+    private String brand;
+
+    @Size(max = 255, message = "Supplier must not exceed 255 characters")
+    private String supplier;
+
+    @DecimalMin(value = "-100", inclusive = false, message = "Percentage must be greater than -100")
+    private BigDecimal percentage;
+
+    private BigDecimal amount;
+
+    // Default constructor
+    public ProductRepriceDto() {}
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public String getSupplier() {
+        return supplier;
+    }
+
+    public void setSupplier(String supplier) {
+        this.supplier = supplier;
+    }
+
+    public BigDecimal getPercentage() {
+        return percentage;
+    }
+
+    public void setPercentage(BigDecimal percentage) {
+        this.percentage = percentage;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,48 @@
+package bo.edu.ucb.producto.warehouse.dto;
+
+/**
+ * DTO with the outcome of a bulk price change
+ * matched counts the products selected by the filters; skipped counts those left
+ * unchanged because their new price would be negative or out of range.
+ */
+public class ProductRepriceResultDto {
+
+    private int matched;
+
+    private int updated;
+
+    private int skipped;
+
+    // Default constructor
+    public ProductRepriceResultDto() {}
+
+    public ProductRepriceResultDto(int matched, int updated) {
+        this.matched = matched;
+        this.updated = updated;
+        this.skipped = matched - updated;
+    }
+
+    public int getMatched() {
+        return matched;
+    }
+
+    public void setMatched(int matched) {
+        this.matched = matched;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+}
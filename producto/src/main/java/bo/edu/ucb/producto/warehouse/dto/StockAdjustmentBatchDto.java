@@ -0,0 +1,29 @@
+package bo.edu.ucb.producto.warehouse.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * DTO for a batch of stock adjustments
+ * Adjustments are applied in order, so several adjustments to the same product chain.
+ */
+public class StockAdjustmentBatchDto {
+
+    @NotEmpty(message = "At least one adjustment is required")
+    @Size(max = 10000, message = "At most 10000 adjustments per batch")
+    private List<@Valid @NotNull StockAdjustmentDto> adjustments;
+
+    // Default constructor
+    public StockAdjustmentBatchDto() {}
+
+    public List<StockAdjustmentDto> getAdjustments() {
+        return adjustments;
+    }
+
+    public void setAdjustments(List<StockAdjustmentDto> adjustments) {
+        this.adjustments = adjustments;
+    }
+}
@@ -0,0 +1,59 @@
+package bo.edu.ucb.producto.warehouse.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO for one stock adjustment
+ * Exactly one of stockQuantity (absolute count, e.g. a cycle count) or delta
+ * (relative change, e.g. a goods receipt) must be given.
+ */
+public class StockAdjustmentDto {
+
+    @NotNull(message = "Product ID is required")
+    private Integer productId;
+
+    @Min(value = 0, message = "Stock quantity must be greater than or equal to 0")
+    private Integer stockQuantity;
+
+    private Integer delta;
+
+    @Size(max = 100, message = "Reference must not exceed 100 characters")
+    private String reference;
+
+    // Default constructor
+    public StockAdjustmentDto() {}
+
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+}
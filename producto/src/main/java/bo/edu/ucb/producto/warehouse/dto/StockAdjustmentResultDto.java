@@ -0,0 +1,49 @@
+package bo.edu.ucb.producto.warehouse.dto;
+
+/**
+ * DTO with the outcome of one stock adjustment
+ * status is applied, rejected (the result would fall below the reserved quantity
+ * or below zero) or not_found; stockQuantity is the stock after the adjustment,
+ * or the unchanged stock when it was rejected.
+ */
+public class StockAdjustmentResultDto {
+
+    private Integer productId;
+
+    private String status;
+
+    private Integer stockQuantity;
+
+    // Default constructor
+    public StockAdjustmentResultDto() {}
+
+    public StockAdjustmentResultDto(Integer productId, String status, Integer stockQuantity) {
+        this.productId = productId;
+        this.status = status;
+        this.stockQuantity = stockQuantity;
+    }
+
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+}
@@ -0,0 +1,50 @@
+package bo.edu.ucb.producto.warehouse.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * DTO for a batch of stock decrements on a single product
+ * Quantities are applied in order and must be positive; returns use the same shape
+ * on the internal stock returns endpoint.
+ * references is optional; when present, references.get(i) (such as a sale number)
+ * is recorded in the inventory ledger with quantities.get(i).
+ */
+public class StockDecrementBatchDto {
+
+    @NotEmpty(message = "At least one quantity is required")
+    private List<@NotNull @Positive(message = "Quantities must be positive") Integer> quantities;
+
+    private List<@Size(max = 100) String> references;
+
+    // Default constructor
+    public StockDecrementBatchDto() {}
+
+    public StockDecrementBatchDto(List<Integer> quantities) {
+        this.quantities = quantities;
+    }
+
+    public StockDecrementBatchDto(List<Integer> quantities, List<String> references) {
+        this.quantities = quantities;
+        this.references = references;
+    }
+
+    public List<Integer> getQuantities() {
+        return quantities;
+    }
+
+    public void setQuantities(List<Integer> quantities) {
+        this.quantities = quantities;
+    }
+
+    public List<String> getReferences() {
+        return references;
+    }
+
+    public void setReferences(List<String> references) {
+        this.references = references;
+    }
+}
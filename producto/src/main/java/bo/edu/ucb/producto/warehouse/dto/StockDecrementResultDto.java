@@ -0,0 +1,49 @@
+package bo.edu.ucb.producto.warehouse.dto;
+
+import java.util.List;
+
+/**
+ * DTO with the outcome of a stock decrement batch
+ * fulfilled.get(i) tells whether quantities.get(i) of the request was applied
+ */
+public class StockDecrementResultDto {
+
+    private Integer productId;
+
+    private List<Boolean> fulfilled;
+
+    private Integer stockQuantity;
+
+    // Default constructor
+    public StockDecrementResultDto() {}
+
+    public StockDecrementResultDto(Integer productId, List<Boolean> fulfilled, Integer stockQuantity) {
+        this.productId = productId;
+        this.fulfilled = fulfilled;
+        this.stockQuantity = stockQuantity;
+    }
+
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+
+    public List<Boolean> getFulfilled() {
+        return fulfilled;
+    }
+
+    public void setFulfilled(List<Boolean> fulfilled) {
+        this.fulfilled = fulfilled;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+}
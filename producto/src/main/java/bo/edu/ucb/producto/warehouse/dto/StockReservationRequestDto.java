@@ -0,0 +1,48 @@
+package bo.edu.ucb.producto.warehouse.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * DTO to request a stock reservation
+ * ttlSeconds is optional; the configured default applies when it is missing
+ */
+public class StockReservationRequestDto {
+
+    @NotNull(message = "Product ID is required")
+    private Integer productId;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be greater than 0")
+    private Integer quantity;
+
+    @Min(value = 1, message = "TTL must be greater than 0")
+    private Long ttlSeconds;
+
+    // Default constructor
+    public StockReservationRequestDto() {}
+
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(Long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+}
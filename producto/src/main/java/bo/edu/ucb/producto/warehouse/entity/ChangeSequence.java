@@ -0,0 +1,39 @@
+package bo.edu.ucb.producto.warehouse.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Last value handed out by a named change sequence
+ */
+@Entity
+@Table(name = "change_sequence")
+public class ChangeSequence {
+
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;
+
+    @Column(name = "current_seq", nullable = false)
+    private Long currentSeq;
+
+    // Default constructor
+    public ChangeSequence() {}
+
+    // Getters and Setters
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getCurrentSeq() {
+        return currentSeq;
+    }
+
+    public void setCurrentSeq(Long currentSeq) {
+        this.currentSeq = currentSeq;
+    }
+}
@@ -0,0 +1,123 @@
+package bo.edu.ucb.producto.warehouse.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of a change to the stock of a product
+ */
+@Entity
+@Immutable
+@Table(name = "inventory_movement", indexes = {
+    @Index(name = "idx_inventory_movement_product_created", columnList = "product_id, created_at"),
+    @Index(name = "idx_inventory_movement_product_id", columnList = "product_id, id")
+})
+public class InventoryMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    // Signed change of stock
+    @Column(name = "delta", nullable = false)
+    private Integer delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reason", nullable = false, length = 20)
+    private MovementReason reason;
+
+    // Business reference such as a sale number
+    @Column(name = "reference", length = 100)
+    private String reference;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Enum for movement reason
+    public enum MovementReason {
+        initial,
+        adjustment,
+        sale,
+        sale_return,
+        reservation,
+        bulk_import,
+        hot_flush
+    }
+
+    // Default constructor
+    public InventoryMovement() {}
+
+    public InventoryMovement(Integer productId, Integer delta, MovementReason reason, String reference) {
+        this.productId = productId;
+        this.delta = delta;
+        this.reason = reason;
+        this.reference = reference;
+    }
+
+    // Getters and Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+
+    public Integer getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+
+    public MovementReason getReason() {
+        return reason;
+    }
+
+    public void setReason(MovementReason reason) {
+        this.reason = reason;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "InventoryMovement{" +
+                "id=" + id +
+                ", productId=" + productId +
+                ", delta=" + delta +
+                ", reason=" + reason +
+                ", reference='" + reference + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -1,11 +1,22 @@
 package bo.edu.ucb.producto.warehouse.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "product")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
+// Only changed columns are written, so an entity save touches no more than it has to
+@DynamicUpdate
+@Table(name = "product", indexes = {
+    @Index(name = "idx_product_change_seq", columnList = "change_seq"),
+    @Index(name = "idx_product_status_low_stock", columnList = "status, low_stock")
+})
 public class Product {
     
     @Id
@@ -30,12 +41,26 @@ public class Product {
     @Column(name = "sku", length = 50, unique = true)
     private String sku;
     
-    @Column(name = "stock_quantity", nullable = false, columnDefinition = "INT DEFAULT 0")
+    // Set on insert; afterwards a copy of the inventory ledger stock, refreshed by its compactor
+    @Column(name = "stock_quantity", nullable = false, updatable = false, columnDefinition = "INT DEFAULT 0")
     private Integer stockQuantity = 0;
     
+    // Units held by active reservations; only changed with SQL updates under the ledger stock lock
+    @Column(name = "reserved_quantity", nullable = false, insertable = false, updatable = false, columnDefinition = "INT DEFAULT 0")
+    private Integer reservedQuantity = 0;
+    
+    // Position in the catalog change feed; stamped by the transaction of every change
+    @Column(name = "change_seq", nullable = false, insertable = false, updatable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long changeSeq = 0L;
+    
     @Column(name = "min_stock_level", columnDefinition = "INT DEFAULT 0")
     private Integer minStockLevel = 0;
     
+    // Computed by MySQL from the stock copy and the minimum; null when there is no minimum
+    @Column(name = "low_stock", insertable = false, updatable = false,
+            columnDefinition = "BOOLEAN AS (stock_quantity <= min_stock_level) STORED")
+    private Boolean lowStock;
+    
     @Column(name = "max_stock_level", columnDefinition = "INT DEFAULT 1000")
     private Integer maxStockLevel = 1000;
     
@@ -61,6 +86,10 @@ public class Product {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+    
     // Enum for product status
     public enum ProductStatus {
         active,
@@ -142,6 +171,22 @@ public class Product {
         this.stockQuantity = stockQuantity;
     }
     
+    public Integer getReservedQuantity() {
+        return reservedQuantity;
+    }
+    
+    public void setReservedQuantity(Integer reservedQuantity) {
+        this.reservedQuantity = reservedQuantity;
+    }
+    
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+    
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+    
     public Integer getMinStockLevel() {
         return minStockLevel;
     }
@@ -150,6 +195,10 @@ public class Product {
         this.minStockLevel = minStockLevel;
     }
     
+    public Boolean getLowStock() {
+        return lowStock;
+    }
+    
     public Integer getMaxStockLevel() {
         return maxStockLevel;
     }
@@ -214,6 +263,14 @@ public class Product {
         this.updatedAt = updatedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     // Lifecycle methods for automatic timestamp management
     @PrePersist
     protected void onCreate() {
@@ -237,6 +294,7 @@ public class Product {
                 ", cost=" + cost +
                 ", sku='" + sku + '\'' +
                 ", stockQuantity=" + stockQuantity +
+                ", reservedQuantity=" + reservedQuantity +
                 ", minStockLevel=" + minStockLevel +
                 ", maxStockLevel=" + maxStockLevel +
                 ", supplier='" + supplier + '\'' +
@@ -246,6 +304,7 @@ public class Product {
                 ", status=" + status +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,19 @@
+package bo.edu.ucb.producto.warehouse.event;
+
+import bo.edu.ucb.producto.warehouse.entity.Product;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * In-memory view of the catalog fed by {@link CatalogChangeLoader}
+ */
+public interface CatalogChangeListener {
+
+    /**
+     * Apply products read from the table
+     * @param productIds IDs that were read; those without a product no longer exist
+     * @param products Current rows of the products that still exist
+     */
+    void onProductsLoaded(Collection<Integer> productIds, List<Product> products);
+}
@@ -0,0 +1,87 @@
+package bo.edu.ucb.producto.warehouse.event;
+
+import bo.edu.ucb.producto.warehouse.entity.Product;
+import bo.edu.ucb.producto.warehouse.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads changed products once and passes the rows to every {@link CatalogChangeListener}
+ *
+ * On startup the whole table is read in ID order one batch at a time; after that only
+ * the products of each committed write are read. It runs after the second-level cache
+ * eviction, so the rows are the committed ones.
+ */
+@Component
+public class CatalogChangeLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogChangeLoader.class);
+
+    private static final int LOAD_BATCH_SIZE = 10000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private List<CatalogChangeListener> listeners;
+
+    /**
+     * Pass every product to the listeners
+     */
+    @PostConstruct
+    public void load() {
+        long start = System.currentTimeMillis();
+        int lastId = 0;
+        int total = 0;
+        List<Product> batch;
+        do {
+            batch = productRepository.findNextById(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+                List<Integer> ids = batch.stream().map(Product::getId).toList();
+                for (CatalogChangeListener listener : listeners) {
+                    listener.onProductsLoaded(ids, batch);
+                }
+            }
+            total += batch.size();
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        log.info("Catalog loaded: {} product(s) in {} ms", total, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Refresh the listeners for the products of a committed write
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        refresh(event.getProductIds());
+    }
+
+    /**
+     * Re-read products from the table and pass them to the listeners
+     * @param productIds Product IDs; those no longer in the table are reported as removed
+     */
+    public void refresh(Collection<Integer> productIds) {
+        List<Integer> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += LOAD_BATCH_SIZE) {
+            List<Integer> slice = ids.subList(from, Math.min(ids.size(), from + LOAD_BATCH_SIZE));
+            List<Product> products = productRepository.findAllById(slice);
+            // One failing listener does not keep the change from the others
+            for (CatalogChangeListener listener : listeners) {
+                try {
+                    listener.onProductsLoaded(slice, products);
+                } catch (RuntimeException e) {
+                    log.error("{} could not apply products {}", listener.getClass().getSimpleName(), slice, e);
+                }
+            }
+        }
+    }
+}
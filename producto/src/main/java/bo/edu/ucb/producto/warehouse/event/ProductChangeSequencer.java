@@ -0,0 +1,116 @@
+package bo.edu.ucb.producto.warehouse.event;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stamps changed products with the next values of the catalog change sequence
+ *
+ * The stamp is written in the transaction that changed the products, just before it
+ * commits: the change_sequence row is incremented there and stays locked until the
+ * commit, so stamps commit in sequence order and a consumer that has seen a value has
+ * already seen every lower one. The lock is taken after the transaction's own writes,
+ * so it only spans the stamp and the commit. A stamp that fails rolls back the change
+ * with it. Products that were never stamped are stamped on startup, so the feed read
+ * from 0 covers the whole catalog.
+ */
+@Component
+public class ProductChangeSequencer {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeSequencer.class);
+
+    private static final String SEQUENCE_NAME = "product";
+    private static final int STARTUP_BATCH_SIZE = 10000;
+    private static final int STAMP_BATCH_SIZE = 1000;
+
+    // updated_at is set to itself so ON UPDATE CURRENT_TIMESTAMP does not move it
+    private static final String STAMP_SQL =
+            "UPDATE product SET change_seq = :first + FIELD(id, :ids) - 1, updated_at = updated_at WHERE id IN (:ids)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate.update(
+                "INSERT INTO change_sequence (name, current_seq) " +
+                "SELECT ?, COALESCE(MAX(change_seq), 0) FROM product " +
+                "WHERE NOT EXISTS (SELECT 1 FROM change_sequence WHERE name = ?)",
+                SEQUENCE_NAME, SEQUENCE_NAME);
+
+        int stamped = 0;
+        List<Integer> unstamped;
+        do {
+            unstamped = jdbcTemplate.queryForList(
+                    "SELECT id FROM product WHERE change_seq = 0 ORDER BY id LIMIT " + STARTUP_BATCH_SIZE, Integer.class);
+            List<Integer> batch = unstamped;
+            transactionTemplate.executeWithoutResult(status -> stamp(batch));
+            stamped += unstamped.size();
+        } while (unstamped.size() == STARTUP_BATCH_SIZE);
+        if (stamped > 0) {
+            log.info("Change feed: stamped {} product(s) that had no change sequence", stamped);
+        }
+    }
+
+    /**
+     * Stamp the products of a write as part of its transaction
+     * Changes published outside a transaction are stamped in one of their own.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Write pending entity changes first, so their product rows are locked before the sequence row
+            entityManager.flush();
+            stamp(event.getProductIds());
+        });
+    }
+
+    private void stamp(Collection<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        // Ascending IDs, so concurrent stampers lock product rows in the same order
+        List<Integer> ids = productIds.stream().sorted().toList();
+        long first = allocate(ids.size());
+        for (int from = 0; from < ids.size(); from += STAMP_BATCH_SIZE) {
+            List<Integer> slice = ids.subList(from, Math.min(ids.size(), from + STAMP_BATCH_SIZE));
+            namedParameterJdbcTemplate.update(STAMP_SQL, new MapSqlParameterSource()
+                    .addValue("first", first + from)
+                    .addValue("ids", slice));
+        }
+    }
+
+    // Hands out count consecutive values, keeping the sequence row locked until the transaction ends; returns the first one
+    private long allocate(int count) {
+        jdbcTemplate.update("UPDATE change_sequence SET current_seq = LAST_INSERT_ID(current_seq + ?) WHERE name = ?",
+                count, SEQUENCE_NAME);
+        return jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class) - count + 1;
+    }
+}
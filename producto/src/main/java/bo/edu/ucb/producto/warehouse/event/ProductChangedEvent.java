@@ -0,0 +1,44 @@
+package bo.edu.ucb.producto.warehouse.event;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published inside the transaction of every product write
+ * Listeners that keep derived state in memory use it to refresh only the products that changed
+ */
+public class ProductChangedEvent {
+
+    private final Set<Integer> productIds;
+    // True when a product was created or its SKU or category changed, which changes cached query results
+    private final boolean keysChanged;
+
+    public ProductChangedEvent(Collection<Integer> productIds) {
+        this(productIds, false);
+    }
+
+    public ProductChangedEvent(Integer productId) {
+        this(Set.of(productId), false);
+    }
+
+    public ProductChangedEvent(Collection<Integer> productIds, boolean keysChanged) {
+        this.productIds = Set.copyOf(productIds);
+        this.keysChanged = keysChanged;
+    }
+
+    public Set<Integer> getProductIds() {
+        return productIds;
+    }
+
+    public boolean isKeysChanged() {
+        return keysChanged;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductChangedEvent{" +
+                "productIds=" + productIds +
+                ", keysChanged=" + keysChanged +
+                '}';
+    }
+}
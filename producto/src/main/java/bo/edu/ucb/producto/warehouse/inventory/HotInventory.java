@@ -0,0 +1,306 @@
+package bo.edu.ucb.producto.warehouse.inventory;
+
+import bo.edu.ucb.producto.warehouse.cache.CatalogVersion;
+import bo.edu.ucb.producto.warehouse.entity.InventoryMovement;
+import bo.edu.ucb.producto.warehouse.entity.InventoryMovement.MovementReason;
+import bo.edu.ucb.producto.warehouse.entity.Product;
+import bo.edu.ucb.producto.warehouse.event.CatalogChangeListener;
+import bo.edu.ucb.producto.warehouse.event.ProductChangedEvent;
+import bo.edu.ucb.producto.warehouse.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opt-in hot-inventory mode for flagged SKUs
+ *
+ * The available stock of each flagged product lives in a {@link StripedStockCounter}
+ * and is the authoritative value while the service runs. Every change is appended to
+ * the {@link StockJournal} before it is acknowledged, and the net change of each
+ * product is written behind to the {@link InventoryLedger} periodically as one
+ * movement. On startup the journal is replayed, so changes that were not yet
+ * flushed survive a crash. The counters and the journal are local to this process, so
+ * the mode is only valid when a single instance of the service runs.
+ *
+ * In-memory changes are not product writes, so they publish no product change event,
+ * except when a product's stock crosses its minimum stock level; that one is published
+ * so the low-stock views do not wait for the next flush.
+ */
+@Component
+public class HotInventory implements CatalogChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(HotInventory.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${warehouse.hot-inventory.enabled:false}")
+    private boolean enabled;
+
+    @Value("${warehouse.hot-inventory.skus:}")
+    private List<String> skus;
+
+    @Value("${warehouse.hot-inventory.journal-path:./data/stock-journal.log}")
+    private String journalPath;
+
+    @Value("${warehouse.hot-inventory.journal-fsync:true}")
+    private boolean journalFsync;
+
+    @Value("${warehouse.hot-inventory.compact-threshold-bytes:16777216}")
+    private long compactThresholdBytes;
+
+    private final Map<Integer, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> lastFlushed = new HashMap<>();
+    // Minimum stock level of hot products that have one, and whether their stock was last seen at or below it
+    private final Map<Integer, Integer> minStockLevels = new ConcurrentHashMap<>();
+    private final Map<Integer, Boolean> lowStock = new ConcurrentHashMap<>();
+    private StockJournal journal;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        journal = new StockJournal(Path.of(journalPath), journalFsync, compactThresholdBytes);
+        Map<Integer, Long> recovered = journal.getJournaledStock();
+        int stripes = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2));
+
+        for (String sku : skus) {
+            if (sku.isBlank()) {
+                continue;
+            }
+            Optional<Product> product = productRepository.findBySku(sku.trim());
+            if (product.isEmpty()) {
+                log.warn("Hot inventory: SKU {} not found, ignoring", sku);
+                continue;
+            }
+            Integer id = product.get().getId();
+            long ledgerStock = inventoryLedger.getStock(id);
+            lastFlushed.put(id, ledgerStock);
+            Long stock = recovered.remove(id);
+            if (stock == null) {
+                stock = ledgerStock;
+                journal.appendCheckpoint(id, stock);
+            }
+            counters.put(id, new StripedStockCounter(stripes, stock));
+            if (product.get().getMinStockLevel() != null) {
+                minStockLevels.put(id, product.get().getMinStockLevel());
+            }
+            lowStock.put(id, isLowStock(id));
+        }
+
+        // Products that are no longer flagged get their last journaled stock written back once
+        for (Map.Entry<Integer, Long> entry : recovered.entrySet()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                InventoryLedger.StockLevel level = inventoryLedger.lock(entry.getKey());
+                if (level != null) {
+                    inventoryLedger.record(entry.getKey(), (int) (entry.getValue() - level.stock()), MovementReason.hot_flush, null);
+                }
+            });
+            journal.forget(entry.getKey());
+        }
+
+        flush();
+        log.info("Hot inventory enabled for {} product(s)", counters.size());
+    }
+
+    /**
+     * @param productId Product ID
+     * @return true if the stock of the product is kept in memory
+     */
+    public boolean isHot(Integer productId) {
+        return productId != null && counters.containsKey(productId);
+    }
+
+    /**
+     * @return IDs of the products whose stock is kept in memory
+     */
+    public Set<Integer> getHotProductIds() {
+        return Set.copyOf(counters.keySet());
+    }
+
+    /**
+     * @param productId Product ID of a hot product
+     * @return Available stock
+     */
+    public Integer getAvailable(Integer productId) {
+        return (int) counters.get(productId).available();
+    }
+
+    /**
+     * Apply a batch of decrements to a hot product, first come, first served
+     * Negative quantities give units back and are always applied.
+     * @param productId Product ID of a hot product
+     * @param quantities Quantities to decrement, in arrival order
+     * @return For each quantity, whether it was applied
+     */
+    public List<Boolean> decrement(Integer productId, List<Integer> quantities) {
+        StripedStockCounter counter = counters.get(productId);
+        List<Boolean> fulfilled = new ArrayList<>(quantities.size());
+        long applied = 0;
+        for (Integer quantity : quantities) {
+            if (quantity <= 0) {
+                counter.add(-quantity);
+                applied -= quantity;
+                fulfilled.add(true);
+            } else if (counter.tryDecrement(quantity)) {
+                applied -= quantity;
+                fulfilled.add(true);
+            } else {
+                fulfilled.add(false);
+            }
+        }
+
+        if (applied != 0) {
+            try {
+                journal.appendDelta(productId, applied);
+            } catch (IOException e) {
+                undo(counter, applied);
+                throw new UncheckedIOException("Could not journal stock change for product " + productId, e);
+            }
+            // Not written to the table yet; catalog reads still see the new stock
+            catalogVersion.bump();
+            publishIfLowStockChanged(productId);
+        }
+        return fulfilled;
+    }
+
+    /**
+     * Replace the available stock of a hot product
+     * @param productId Product ID of a hot product
+     * @param stockQuantity New available stock
+     */
+    public void setStock(Integer productId, Integer stockQuantity) {
+        StripedStockCounter counter = counters.get(productId);
+        long delta = stockQuantity - counter.reset(stockQuantity);
+        if (delta != 0) {
+            try {
+                journal.appendDelta(productId, delta);
+            } catch (IOException e) {
+                undo(counter, delta);
+                throw new UncheckedIOException("Could not journal stock change for product " + productId, e);
+            }
+            catalogVersion.bump();
+            publishIfLowStockChanged(productId);
+        }
+    }
+
+    /**
+     * Pick up minimum stock level changes of hot products
+     * The product change that carried them was already published, so nothing is published here.
+     */
+    @Override
+    public void onProductsLoaded(Collection<Integer> productIds, List<Product> products) {
+        for (Product product : products) {
+            Integer id = product.getId();
+            if (!isHot(id)) {
+                continue;
+            }
+            if (product.getMinStockLevel() != null) {
+                minStockLevels.put(id, product.getMinStockLevel());
+            } else {
+                minStockLevels.remove(id);
+            }
+            lowStock.compute(id, (key, wasLow) -> isLowStock(key));
+        }
+    }
+
+    /**
+     * Append the net change of hot products since the last flush to the inventory ledger
+     */
+    @Scheduled(fixedDelayString = "${warehouse.hot-inventory.flush-interval-ms:1000}")
+    public synchronized void flush() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        Map<Integer, Long> stock = journal.checkpoint();
+        Map<Integer, Long> changed = new HashMap<>();
+        List<InventoryMovement> movements = new ArrayList<>();
+        for (Map.Entry<Integer, Long> entry : stock.entrySet()) {
+            Long previous = lastFlushed.get(entry.getKey());
+            if (!entry.getValue().equals(previous)) {
+                changed.put(entry.getKey(), entry.getValue());
+                int delta = (int) (entry.getValue() - (previous != null ? previous : 0));
+                movements.add(new InventoryMovement(entry.getKey(), delta, MovementReason.hot_flush, null));
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        // The compactor folds the movements into product.stock_quantity and publishes the change
+        transactionTemplate.executeWithoutResult(status -> {
+            inventoryLedger.lockAll(changed.keySet());
+            inventoryLedger.recordAll(movements);
+        });
+        lastFlushed.putAll(changed);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        flush();
+        journal.close();
+    }
+
+    private boolean isLowStock(Integer productId) {
+        Integer minStockLevel = minStockLevels.get(productId);
+        return minStockLevel != null && counters.get(productId).available() <= minStockLevel;
+    }
+
+    private void publishIfLowStockChanged(Integer productId) {
+        // Evaluated under the map's per-key lock, so the last change to a product always leaves its current state
+        boolean[] crossed = new boolean[1];
+        lowStock.compute(productId, (key, wasLow) -> {
+            boolean low = isLowStock(key);
+            crossed[0] = wasLow == null || wasLow != low;
+            return low;
+        });
+        if (crossed[0]) {
+            eventPublisher.publishEvent(new ProductChangedEvent(productId));
+        }
+    }
+
+    private void undo(StripedStockCounter counter, long delta) {
+        if (delta > 0) {
+            counter.tryDecrement(delta);
+        } else {
+            counter.add(-delta);
+        }
+    }
+}
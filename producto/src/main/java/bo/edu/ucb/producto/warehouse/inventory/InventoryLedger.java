@@ -0,0 +1,326 @@
+package bo.edu.ucb.producto.warehouse.inventory;
+
+import bo.edu.ucb.producto.warehouse.entity.InventoryMovement;
+import bo.edu.ucb.producto.warehouse.entity.InventoryMovement.MovementReason;
+import bo.edu.ucb.producto.warehouse.event.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only ledger of stock movements, the stock of record
+ *
+ * The stock of a product is its inventory_snapshot plus the movements appended after
+ * it; product.stock_quantity is only a copy refreshed by the compactor for listings
+ * and low-stock queries. Stock changes append movements instead of updating the
+ * product row. Writers serialize per product on the snapshot row ({@link #lock}),
+ * which is also what makes the fold exact: a movement is only ever appended while
+ * its snapshot row is locked, so the compactor never skips one that commits late.
+ *
+ * Lock order is snapshot row, then product row.
+ */
+@Component
+public class InventoryLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryLedger.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO inventory_movement (product_id, delta, reason, reference, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    // Products that predate the ledger start from their current stock and the movements already recorded
+    private static final String SEED_SQL =
+            "INSERT IGNORE INTO inventory_snapshot (product_id, stock_quantity, last_movement_id, taken_at) " +
+            "SELECT p.id, p.stock_quantity, " +
+            "COALESCE((SELECT MAX(m.id) FROM inventory_movement m WHERE m.product_id = p.id), 0), :now " +
+            "FROM product p WHERE p.id IN (:ids)";
+
+    private static final String LOCK_SQL =
+            "SELECT product_id, stock_quantity, last_movement_id FROM inventory_snapshot " +
+            "WHERE product_id IN (:ids) ORDER BY product_id FOR UPDATE";
+
+    // Locking reads see the latest committed movements whatever the transaction read before
+    private static final String TAIL_SQL =
+            "SELECT m.product_id, SUM(m.delta) AS delta, MAX(m.id) AS last_id FROM inventory_movement m " +
+            "JOIN inventory_snapshot s ON s.product_id = m.product_id AND m.id > s.last_movement_id " +
+            "WHERE m.product_id IN (:ids) GROUP BY m.product_id FOR SHARE";
+
+    private static final String STOCK_SQL =
+            "SELECT COALESCE(s.stock_quantity, p.stock_quantity) + COALESCE((SELECT SUM(m.delta) FROM inventory_movement m " +
+            "WHERE m.product_id = p.id AND m.id > s.last_movement_id), 0) " +
+            "FROM product p LEFT JOIN inventory_snapshot s ON s.product_id = p.id WHERE p.id = ?";
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int PURGE_BATCH_SIZE = 10000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${warehouse.ledger.retention-days:0}")
+    private int retentionDays;
+
+    // Products this instance appended movements for since their last fold
+    private final Set<Integer> unfolded = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Give products inserted in the current transaction an empty snapshot
+     * Their stock is then the movements appended for them, starting with the initial one.
+     * @param productIds IDs of the new products; ones that already have a snapshot are left as they are
+     */
+    public void createSnapshots(List<Integer> productIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT IGNORE INTO inventory_snapshot (product_id, stock_quantity, last_movement_id, taken_at) VALUES (?, 0, 0, ?)",
+                productIds, BATCH_SIZE, (ps, productId) -> {
+                    ps.setInt(1, productId);
+                    ps.setTimestamp(2, now);
+                });
+    }
+
+    /**
+     * Lock the stock of a product until the end of the current transaction
+     * @param productId Product ID
+     * @return Current stock and reserved quantity, or null if the product does not exist
+     */
+    public StockLevel lock(Integer productId) {
+        return lockAll(List.of(productId)).get(productId);
+    }
+
+    /**
+     * Lock the stock of several products, in ID order, until the end of the current transaction
+     * @param productIds Product IDs
+     * @return Current stock and reserved quantity of each product that exists
+     */
+    public Map<Integer, StockLevel> lockAll(Collection<Integer> productIds) {
+        List<Integer> ids = productIds.stream().distinct().sorted().toList();
+        Map<Integer, Snapshot> snapshots = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Integer> slice = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+            Map<Integer, Snapshot> locked = lockSnapshots(slice);
+            if (locked.size() < slice.size()) {
+                namedParameterJdbcTemplate.update(SEED_SQL,
+                        Map.of("ids", slice, "now", Timestamp.valueOf(LocalDateTime.now())));
+                locked = lockSnapshots(slice);
+            }
+            snapshots.putAll(locked);
+        }
+        if (snapshots.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Integer, Integer> reserved = new HashMap<>();
+        Map<Integer, Integer> tails = new HashMap<>();
+        List<Integer> present = snapshots.keySet().stream().sorted().toList();
+        for (int from = 0; from < present.size(); from += BATCH_SIZE) {
+            Map<String, Object> params = Map.of("ids", present.subList(from, Math.min(present.size(), from + BATCH_SIZE)));
+            namedParameterJdbcTemplate.query(
+                    "SELECT id, reserved_quantity FROM product WHERE id IN (:ids) ORDER BY id FOR SHARE", params, rs -> {
+                        reserved.put(rs.getInt("id"), rs.getInt("reserved_quantity"));
+                    });
+            namedParameterJdbcTemplate.query(TAIL_SQL, params, rs -> {
+                tails.put(rs.getInt("product_id"), rs.getInt("delta"));
+            });
+        }
+
+        Map<Integer, StockLevel> levels = new HashMap<>();
+        for (Map.Entry<Integer, Snapshot> entry : snapshots.entrySet()) {
+            int stock = entry.getValue().stock() + tails.getOrDefault(entry.getKey(), 0);
+            levels.put(entry.getKey(), new StockLevel(stock, reserved.getOrDefault(entry.getKey(), 0)));
+        }
+        return levels;
+    }
+
+    /**
+     * Read the current stock of a product without locking it
+     * @param productId Product ID
+     * @return Snapshot plus later movements, or null if the product does not exist
+     */
+    public Integer getStock(Integer productId) {
+        List<Integer> stock = jdbcTemplate.queryForList(STOCK_SQL, Integer.class, productId);
+        return stock.isEmpty() ? null : stock.get(0);
+    }
+
+    /**
+     * Append a movement; joins the current transaction
+     * The stock of the product must be locked with {@link #lock}, unless it was created in the same transaction.
+     * @param productId Product ID
+     * @param delta Signed change of stock; zero is ignored
+     * @param reason Reason of the change
+     * @param reference Business reference, or null
+     */
+    public void record(Integer productId, int delta, MovementReason reason, String reference) {
+        if (delta == 0) {
+            return;
+        }
+        jdbcTemplate.update(INSERT_SQL, productId, delta, reason.name(), reference, Timestamp.valueOf(LocalDateTime.now()));
+        markUnfolded(List.of(productId));
+    }
+
+    /**
+     * Append several movements with one JDBC batch; joins the current transaction
+     * The stock of the products must be locked with {@link #lockAll}, unless they were created in the same transaction.
+     * @param movements Movements to append; zero deltas are ignored
+     */
+    public void recordAll(List<InventoryMovement> movements) {
+        List<InventoryMovement> nonZero = movements.stream().filter(m -> m.getDelta() != 0).toList();
+        if (nonZero.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, nonZero, BATCH_SIZE, (ps, movement) -> {
+            ps.setInt(1, movement.getProductId());
+            ps.setInt(2, movement.getDelta());
+            ps.setString(3, movement.getReason().name());
+            ps.setString(4, movement.getReference());
+            ps.setTimestamp(5, now);
+        });
+        markUnfolded(nonZero.stream().map(InventoryMovement::getProductId).toList());
+    }
+
+    /**
+     * Fold the movements appended by this instance into the snapshots and refresh product.stock_quantity
+     */
+    @Scheduled(fixedDelayString = "${warehouse.ledger.compact-interval-ms:1000}")
+    public void compact() {
+        if (unfolded.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(unfolded);
+        unfolded.removeAll(ids);
+        ids.sort(null);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Integer> slice = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+            try {
+                transaction.executeWithoutResult(status -> fold(slice));
+            } catch (RuntimeException e) {
+                unfolded.addAll(slice);
+                log.warn("Could not fold inventory movements of {} product(s)", slice.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Queue for folding the products with movements after their snapshot, including the ones
+     * appended by instances that stopped before folding them
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${warehouse.ledger.sweep-interval-ms:3600000}")
+    public void sweep() {
+        unfolded.addAll(jdbcTemplate.queryForList(
+                "SELECT s.product_id FROM inventory_snapshot s WHERE EXISTS (SELECT 1 FROM inventory_movement m " +
+                "WHERE m.product_id = s.product_id AND m.id > s.last_movement_id)", Integer.class));
+    }
+
+    /**
+     * Delete folded movements older than the retention, oldest first and in batches
+     */
+    @Scheduled(fixedDelayString = "${warehouse.ledger.purge-interval-ms:3600000}",
+               initialDelayString = "${warehouse.ledger.purge-interval-ms:3600000}")
+    public void purge() {
+        if (retentionDays <= 0) {
+            return;
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(
+                    "DELETE FROM inventory_movement WHERE created_at < ? AND id <= " +
+                    "(SELECT s.last_movement_id FROM inventory_snapshot s WHERE s.product_id = inventory_movement.product_id) " +
+                    "ORDER BY id LIMIT " + PURGE_BATCH_SIZE, cutoff);
+        } while (deleted == PURGE_BATCH_SIZE);
+    }
+
+    private void fold(List<Integer> ids) {
+        Map<Integer, Snapshot> snapshots = lockSnapshots(ids);
+        Map<String, Object> params = Map.of("ids", ids);
+        Map<Integer, long[]> tails = new HashMap<>();
+        namedParameterJdbcTemplate.query(TAIL_SQL, params, rs -> {
+            tails.put(rs.getInt("product_id"), new long[] { rs.getLong("delta"), rs.getLong("last_id") });
+        });
+        if (tails.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> snapshotRows = new ArrayList<>(tails.size());
+        List<Object[]> productRows = new ArrayList<>(tails.size());
+        for (Map.Entry<Integer, long[]> tail : tails.entrySet()) {
+            int stock = snapshots.get(tail.getKey()).stock() + (int) tail.getValue()[0];
+            snapshotRows.add(new Object[] { stock, tail.getValue()[1], now, tail.getKey() });
+            productRows.add(new Object[] { stock, tail.getKey() });
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE inventory_snapshot SET stock_quantity = ?, last_movement_id = ?, taken_at = ? WHERE product_id = ?",
+                snapshotRows);
+        // The copy read by listings; no version bump, stock is not part of the entity's optimistic lock
+        jdbcTemplate.batchUpdate("UPDATE product SET stock_quantity = ? WHERE id = ?", productRows);
+        eventPublisher.publishEvent(new ProductChangedEvent(tails.keySet()));
+    }
+
+    private Map<Integer, Snapshot> lockSnapshots(List<Integer> ids) {
+        Map<Integer, Snapshot> snapshots = new HashMap<>();
+        namedParameterJdbcTemplate.query(LOCK_SQL, Map.of("ids", ids), rs -> {
+            snapshots.put(rs.getInt("product_id"), new Snapshot(rs.getInt("stock_quantity"), rs.getLong("last_movement_id")));
+        });
+        return snapshots;
+    }
+
+    private void markUnfolded(List<Integer> productIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    unfolded.addAll(productIds);
+                }
+            });
+        } else {
+            unfolded.addAll(productIds);
+        }
+    }
+
+    /**
+     * Stock of a product and the units of it held by reservations
+     * @param stock Snapshot plus later movements
+     * @param reserved Units held by active reservations
+     */
+    public record StockLevel(int stock, int reserved) {
+
+        /**
+         * @return Units not held by reservations
+         */
+        public int available() {
+            return stock - reserved;
+        }
+    }
+
+    private record Snapshot(int stock, long lastMovementId) {
+    }
+}
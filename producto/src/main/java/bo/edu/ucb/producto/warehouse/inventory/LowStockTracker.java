@@ -0,0 +1,104 @@
+package bo.edu.ucb.producto.warehouse.inventory;
+
+import bo.edu.ucb.producto.warehouse.entity.Product;
+import bo.edu.ucb.producto.warehouse.event.CatalogChangeListener;
+import bo.edu.ucb.producto.warehouse.event.CatalogChangeLoader;
+import bo.edu.ucb.producto.warehouse.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of active products whose stock is at or below their minimum stock level
+ *
+ * The set is loaded on first use and then kept up to date with the rows that
+ * {@link CatalogChangeLoader} reads for every committed product change, so polling it does
+ * not touch the database. A periodic resync repairs any drift caused by writes made outside
+ * this service; it holds the same lock as the change updates so an older resync result
+ * never overwrites a newer change.
+ */
+@Component
+public class LowStockTracker implements CatalogChangeListener {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private HotInventory hotInventory;
+
+    private final Set<Integer> lowStockIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    /**
+     * @return IDs of the products with low stock, in ascending order
+     */
+    public SortedSet<Integer> getLowStockIds() {
+        if (!loaded) {
+            resync();
+        }
+        return new TreeSet<>(lowStockIds);
+    }
+
+    /**
+     * Re-evaluate the given products; products that no longer exist are removed
+     */
+    @Override
+    public synchronized void onProductsLoaded(Collection<Integer> productIds, List<Product> products) {
+        if (!loaded) {
+            return;
+        }
+        Set<Integer> missing = new HashSet<>(productIds);
+        for (Product product : products) {
+            missing.remove(product.getId());
+            if (isLowStock(product)) {
+                lowStockIds.add(product.getId());
+            } else {
+                lowStockIds.remove(product.getId());
+            }
+        }
+        lowStockIds.removeAll(missing);
+    }
+
+    /**
+     * Rebuild the set from the database
+     */
+    @Scheduled(fixedDelayString = "${warehouse.low-stock.resync-interval-ms:300000}",
+               initialDelayString = "${warehouse.low-stock.resync-interval-ms:300000}")
+    public synchronized void resync() {
+        List<Integer> ids = productRepository.findLowStockIds(Product.ProductStatus.active);
+        Set<Integer> current = new HashSet<>(ids);
+
+        // Hot products are judged on their in-memory stock, which the table may not reflect yet
+        Set<Integer> hotIds = hotInventory.getHotProductIds();
+        current.removeAll(hotIds);
+        for (Product product : productRepository.findAllById(hotIds)) {
+            if (isLowStock(product)) {
+                current.add(product.getId());
+            }
+        }
+
+        lowStockIds.retainAll(current);
+        lowStockIds.addAll(current);
+        loaded = true;
+    }
+
+    private boolean isLowStock(Product product) {
+        // Products without a minimum stock level are not tracked, as in findLowStockIds
+        if (product == null || product.getStatus() != Product.ProductStatus.active
+                || product.getMinStockLevel() == null) {
+            return false;
+        }
+        int stock = hotInventory.isHot(product.getId())
+                ? hotInventory.getAvailable(product.getId())
+                : product.getStockQuantity();
+        return stock <= product.getMinStockLevel();
+    }
+}
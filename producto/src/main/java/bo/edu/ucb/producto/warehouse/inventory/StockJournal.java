@@ -0,0 +1,274 @@
+package bo.edu.ucb.producto.warehouse.inventory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Append-only local log of stock changes for hot-inventory products
+ *
+ * Every change is appended as a DELTA record before it is acknowledged. CHECKPOINT
+ * records store the absolute stock of a product at that point of the log, so the
+ * stock of a product after a crash is its last checkpoint plus the deltas that
+ * follow it. A torn record at the end of the file is discarded on replay.
+ *
+ * Deltas are group-committed: callers queue them and wait, and a single writer thread
+ * appends everything queued so far with one fsync before releasing those callers.
+ */
+public class StockJournal implements Closeable {
+
+    private static final byte DELTA = 1;
+    private static final byte CHECKPOINT = 2;
+    private static final int RECORD_SIZE = 1 + Integer.BYTES + Long.BYTES;
+    private static final int MAX_BATCH = 4096;
+    private static final PendingDelta STOP = new PendingDelta(0, 0, null);
+
+    private final Path path;
+    private final boolean fsync;
+    private final long compactThresholdBytes;
+    private final Map<Integer, Long> journaled = new HashMap<>();
+    // Products with deltas after their last checkpoint
+    private final Set<Integer> dirty = new HashSet<>();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final ByteBuffer batch = ByteBuffer.allocate(RECORD_SIZE * MAX_BATCH);
+    private final BlockingQueue<PendingDelta> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private boolean closed;
+    private FileChannel channel;
+
+    public StockJournal(Path path, boolean fsync, long compactThresholdBytes) throws IOException {
+        this.path = path;
+        this.fsync = fsync;
+        this.compactThresholdBytes = compactThresholdBytes;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        replay();
+        this.writer = new Thread(this::writeQueued, "stock-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * @return Stock of every product in the log as of its last record
+     */
+    public synchronized Map<Integer, Long> getJournaledStock() {
+        return new HashMap<>(journaled);
+    }
+
+    /**
+     * Record an absolute stock value for a product
+     */
+    public synchronized void appendCheckpoint(int productId, long stock) throws IOException {
+        write(CHECKPOINT, productId, stock);
+        sync();
+        journaled.put(productId, stock);
+        dirty.remove(productId);
+    }
+
+    /**
+     * Record a stock change for a product that already has a checkpoint
+     * Returns once the change is in the log, synced together with the changes queued alongside it.
+     */
+    public void appendDelta(int productId, long delta) throws IOException {
+        PendingDelta pending = new PendingDelta(productId, delta, new CompletableFuture<>());
+        synchronized (queue) {
+            if (closed) {
+                throw new IOException("Stock journal is closed");
+            }
+            queue.add(pending);
+        }
+        try {
+            // Not interruptible: once queued the delta may be written, so the caller must learn the outcome
+            pending.done().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    /**
+     * Stop tracking a product; it is left out of the next compaction
+     */
+    public synchronized void forget(int productId) {
+        journaled.remove(productId);
+        dirty.remove(productId);
+    }
+
+    /**
+     * Checkpoint the products changed since their last checkpoint and compact the log
+     * when it grew past the threshold
+     * @return Stock of every product as of the checkpoint
+     */
+    public synchronized Map<Integer, Long> checkpoint() throws IOException {
+        if (channel.size() >= compactThresholdBytes) {
+            compact();
+        } else if (!dirty.isEmpty()) {
+            for (Integer productId : dirty) {
+                write(CHECKPOINT, productId, journaled.get(productId));
+            }
+            sync();
+        }
+        dirty.clear();
+        return new HashMap<>(journaled);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (queue) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(STOP);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            channel.force(true);
+            channel.close();
+        }
+    }
+
+    private void replay() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 4096);
+        long validLength = 0;
+        channel.position(0);
+        replay:
+        while (channel.read(buffer) > 0) {
+            buffer.flip();
+            while (buffer.remaining() >= RECORD_SIZE) {
+                byte type = buffer.get();
+                int productId = buffer.getInt();
+                long value = buffer.getLong();
+                if (type == CHECKPOINT) {
+                    journaled.put(productId, value);
+                    dirty.remove(productId);
+                } else if (type == DELTA) {
+                    if (journaled.computeIfPresent(productId, (id, stock) -> stock + value) != null) {
+                        dirty.add(productId);
+                    }
+                } else {
+                    break replay;
+                }
+                validLength += RECORD_SIZE;
+            }
+            buffer.compact();
+        }
+        channel.truncate(validLength);
+        channel.position(validLength);
+    }
+
+    private void compact() throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * Math.max(1, journaled.size()));
+            for (Map.Entry<Integer, Long> entry : journaled.entrySet()) {
+                buffer.put(CHECKPOINT).putInt(entry.getKey()).putLong(entry.getValue());
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+
+    private void writeQueued() {
+        List<PendingDelta> pending = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                pending.add(queue.take());
+            } catch (InterruptedException e) {
+                // Only close() stops the writer; a caller may be waiting on every queued delta
+                continue;
+            }
+            queue.drainTo(pending, MAX_BATCH - 1);
+            stopping = pending.remove(STOP);
+            if (!pending.isEmpty()) {
+                writeBatch(pending);
+            }
+            pending.clear();
+        }
+    }
+
+    private void writeBatch(List<PendingDelta> pending) {
+        List<PendingDelta> written = new ArrayList<>(pending.size());
+        Exception failure = null;
+        synchronized (this) {
+            batch.clear();
+            for (PendingDelta delta : pending) {
+                if (journaled.containsKey(delta.productId())) {
+                    batch.put(DELTA).putInt(delta.productId()).putLong(delta.delta());
+                    written.add(delta);
+                } else {
+                    delta.done().completeExceptionally(new IllegalStateException(
+                            "Product " + delta.productId() + " has no checkpoint in the stock journal"));
+                }
+            }
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                sync();
+                for (PendingDelta delta : written) {
+                    journaled.merge(delta.productId(), delta.delta(), Long::sum);
+                    dirty.add(delta.productId());
+                }
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+            }
+        }
+        for (PendingDelta delta : written) {
+            if (failure == null) {
+                delta.done().complete(null);
+            } else {
+                delta.done().completeExceptionally(failure);
+            }
+        }
+    }
+
+    private void write(byte type, int productId, long value) throws IOException {
+        record.clear();
+        record.put(type).putInt(productId).putLong(value).flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+    }
+
+    private void sync() throws IOException {
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    private record PendingDelta(int productId, long delta, CompletableFuture<Void> done) {}
+}
@@ -0,0 +1,104 @@
+package bo.edu.ucb.producto.warehouse.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free available-stock counter split across several stripes
+ *
+ * The stock is spread over independent cells so concurrent decrements on the same
+ * product usually CAS different cache lines. A decrement never takes a stripe below
+ * zero, so the sum of the stripes can never become negative.
+ */
+public class StripedStockCounter {
+
+    // Spread stripes one cache line (8 longs) apart to avoid false sharing
+    private static final int PADDING = 8;
+
+    private final int stripes;
+    private final AtomicLongArray cells;
+
+    public StripedStockCounter(int stripes, long initialStock) {
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+        long share = initialStock / stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.set(i * PADDING, share);
+        }
+        cells.addAndGet(0, initialStock - share * stripes);
+    }
+
+    /**
+     * @return Stock currently available across all stripes
+     */
+    public long available() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * Take a quantity from stock if enough is available
+     * @param quantity Quantity to take, greater than zero
+     * @return true if the quantity was taken
+     */
+    public boolean tryDecrement(long quantity) {
+        int home = ThreadLocalRandom.current().nextInt(stripes);
+
+        // Fast path: a single stripe covers the whole quantity
+        for (int i = 0; i < stripes; i++) {
+            int index = ((home + i) % stripes) * PADDING;
+            long current;
+            while ((current = cells.get(index)) >= quantity) {
+                if (cells.compareAndSet(index, current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+
+        // Slow path: gather the quantity from several stripes, giving it back if they fall short
+        long taken = 0;
+        for (int i = 0; i < stripes && taken < quantity; i++) {
+            int index = ((home + i) % stripes) * PADDING;
+            long current;
+            while ((current = cells.get(index)) > 0) {
+                long take = Math.min(current, quantity - taken);
+                if (cells.compareAndSet(index, current, current - take)) {
+                    taken += take;
+                    break;
+                }
+            }
+        }
+        if (taken == quantity) {
+            return true;
+        }
+        if (taken > 0) {
+            cells.addAndGet(home * PADDING, taken);
+        }
+        return false;
+    }
+
+    /**
+     * Return a quantity to stock
+     * @param quantity Quantity to add, greater than zero
+     */
+    public void add(long quantity) {
+        cells.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * PADDING, quantity);
+    }
+
+    /**
+     * Replace the available stock with an absolute value
+     * @param stock New available stock
+     * @return Stock that was drained from the stripes
+     */
+    public long reset(long stock) {
+        long drained = 0;
+        for (int i = 0; i < stripes; i++) {
+            drained += cells.getAndSet(i * PADDING, 0);
+        }
+        cells.addAndGet(0, stock);
+        return drained;
+    }
+}
@@ -0,0 +1,17 @@
+package bo.edu.ucb.producto.warehouse.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import bo.edu.ucb.producto.warehouse.entity.InventoryMovement;
+
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+
+    // Find movements of a product in a time range, oldest first
+    List<InventoryMovement> findByProductIdAndCreatedAtBetweenOrderByIdAsc(Integer productId, LocalDateTime from,
+                                                                         LocalDateTime to, Pageable pageable);
+
+}
@@ -1,9 +1,22 @@
 package bo.edu.ucb.producto.warehouse.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 
 import bo.edu.ucb.producto.warehouse.entity.Product;
 
@@ -13,12 +26,45 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     Optional<Product> findByName(String name);
     
     // Find product by sku
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Product> findBySku(String sku);
     
     // Find products by category
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Product> findByCategory(String category);
     
-    // Find products with low stock
-    List<Product> findByStockQuantityLessThanEqualAndStatus(Integer stockQuantity, Product.ProductStatus status);
+    // Find products at or below their own minimum stock level, through the (status, low_stock) index
+    @Query("SELECT p FROM Product p WHERE p.status = :status AND p.lowStock = true ORDER BY p.id")
+    List<Product> findLowStock(@Param("status") Product.ProductStatus status, Pageable pageable);
+    
+    // Find ids of products at or below their own minimum stock level, through the (status, low_stock) index
+    @Query("SELECT p.id FROM Product p WHERE p.status = :status AND p.lowStock = true")
+    List<Integer> findLowStockIds(@Param("status") Product.ProductStatus status);
+    
+    // Find ids and change sequences of products changed after a point of the change feed
+    @Query("SELECT p.id, p.changeSeq FROM Product p WHERE p.changeSeq > :since ORDER BY p.changeSeq")
+    List<Object[]> findChangedSince(@Param("since") Long since, Pageable pageable);
     
+    // Find the next products in id order, without filling the second-level cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    @Query("SELECT p FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Product> findNextById(@Param("afterId") Integer afterId, Pageable pageable);
+    
+    // Find ids of products matching a reprice filter, locking their rows in id order until the end of the transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id FROM Product p WHERE (:category IS NULL OR p.category = :category) " +
+           "AND (:brand IS NULL OR p.brand = :brand) AND (:supplier IS NULL OR p.supplier = :supplier) ORDER BY p.id")
+    List<Integer> findIdsForReprice(@Param("category") String category, @Param("brand") String brand,
+                                    @Param("supplier") String supplier);
+
+    // Set price = price * factor + amount on every product matching a reprice filter whose new price stays in range
+    @Modifying
+    @Query("UPDATE Product p SET p.price = ROUND(p.price * :factor + :amount, 2), p.version = p.version + 1, " +
+           "p.updatedAt = :updatedAt WHERE (:category IS NULL OR p.category = :category) " +
+           "AND (:brand IS NULL OR p.brand = :brand) AND (:supplier IS NULL OR p.supplier = :supplier) " +
+           "AND ROUND(p.price * :factor + :amount, 2) BETWEEN 0 AND :maxPrice")
+    int reprice(@Param("category") String category, @Param("brand") String brand, @Param("supplier") String supplier,
+                @Param("factor") BigDecimal factor, @Param("amount") BigDecimal amount,
+                @Param("maxPrice") BigDecimal maxPrice, @Param("updatedAt") LocalDateTime updatedAt);
+
 }
@@ -0,0 +1,14 @@
+package bo.edu.ucb.producto.warehouse.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import bo.edu.ucb.producto.warehouse.entity.StockReservation;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // Find reservations by status
+    List<StockReservation> findByStatus(StockReservation.ReservationStatus status);
+
+}
@@ -0,0 +1,161 @@
+package bo.edu.ucb.producto.warehouse.search;
+
+import bo.edu.ucb.producto.warehouse.dto.ProductFacetsDto;
+import bo.edu.ucb.producto.warehouse.entity.Product;
+import bo.edu.ucb.producto.warehouse.event.CatalogChangeListener;
+import bo.edu.ucb.producto.warehouse.event.CatalogChangeLoader;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet counters and per-category price index of the catalog
+ *
+ * Product counts per category, brand and status are kept as counters, and the
+ * products of each category are kept in a set sorted by price, so facet and
+ * price-range queries never scan the table. Categories are compared ignoring case,
+ * like the database collation, and counted under their lower-case name. Both are fed
+ * by {@link CatalogChangeLoader}: every changed product has its old entry removed and
+ * its new one added.
+ */
+@Component
+public class CatalogFacetIndex implements CatalogChangeListener {
+
+    private static final Comparator<FacetEntry> BY_PRICE =
+            Comparator.comparing(FacetEntry::price).thenComparingInt(FacetEntry::id);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, FacetEntry> entries = new HashMap<>();
+    private final Map<String, Long> categoryCounts = new HashMap<>();
+    private final Map<String, Long> brandCounts = new HashMap<>();
+    private final Map<String, Long> statusCounts = new HashMap<>();
+    private final Map<String, NavigableSet<FacetEntry>> pricesByCategory = new HashMap<>();
+
+    /**
+     * Replace the entries of the given products; products that no longer exist are removed
+     */
+    @Override
+    public void onProductsLoaded(Collection<Integer> productIds, List<Product> products) {
+        List<FacetEntry> batch = products.stream().map(this::toEntry).toList();
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(this::remove);
+            batch.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Product counts per category, brand and status, each sorted by name
+     */
+    public ProductFacetsDto getFacets() {
+        lock.readLock().lock();
+        try {
+            return new ProductFacetsDto(entries.size(), new TreeMap<>(categoryCounts), new TreeMap<>(brandCounts),
+                    new TreeMap<>(statusCounts));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get one page of the products of a category in a price range
+     * @param category Category, compared ignoring case like the database collation
+     * @param minPrice Lowest price, inclusive, or null
+     * @param maxPrice Highest price, inclusive, or null
+     * @param page Page number, starting at 0
+     * @param size Page size
+     * @return Product IDs ordered by price, then ID
+     */
+    public List<Integer> findByCategoryAndPrice(String category, BigDecimal minPrice, BigDecimal maxPrice, int page, int size) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<FacetEntry> prices = pricesByCategory.get(categoryKey(category));
+            if (prices == null) {
+                return List.of();
+            }
+            NavigableSet<FacetEntry> range = prices;
+            if (minPrice != null) {
+                range = range.tailSet(new FacetEntry(Integer.MIN_VALUE, null, null, null, minPrice), true);
+            }
+            if (maxPrice != null) {
+                range = range.headSet(new FacetEntry(Integer.MAX_VALUE, null, null, null, maxPrice), true);
+            }
+            List<Integer> ids = new ArrayList<>(size);
+            long skip = (long) page * size;
+            for (FacetEntry entry : range) {
+                if (skip > 0) {
+                    skip--;
+                } else if (ids.size() < size) {
+                    ids.add(entry.id());
+                } else {
+                    break;
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private FacetEntry toEntry(Product product) {
+        return new FacetEntry(product.getId(), product.getCategory(), product.getBrand(),
+                product.getStatus() != null ? product.getStatus().name() : null, product.getPrice());
+    }
+
+    // Callers hold the write lock
+    private void add(FacetEntry entry) {
+        entries.put(entry.id(), entry);
+        adjust(categoryCounts, categoryKey(entry.category()), 1);
+        adjust(brandCounts, entry.brand(), 1);
+        adjust(statusCounts, entry.status(), 1);
+        if (entry.category() != null && entry.price() != null) {
+            pricesByCategory.computeIfAbsent(categoryKey(entry.category()), c -> new TreeSet<>(BY_PRICE)).add(entry);
+        }
+    }
+
+    // Callers hold the write lock
+    private void remove(Integer productId) {
+        FacetEntry entry = entries.remove(productId);
+        if (entry == null) {
+            return;
+        }
+        adjust(categoryCounts, categoryKey(entry.category()), -1);
+        adjust(brandCounts, entry.brand(), -1);
+        adjust(statusCounts, entry.status(), -1);
+        if (entry.category() != null && entry.price() != null) {
+            String key = categoryKey(entry.category());
+            NavigableSet<FacetEntry> prices = pricesByCategory.get(key);
+            prices.remove(entry);
+            if (prices.isEmpty()) {
+                pricesByCategory.remove(key);
+            }
+        }
+    }
+
+    private static void adjust(Map<String, Long> counts, String value, long delta) {
+        if (value != null) {
+            counts.merge(value, delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+    }
+
+    private static String categoryKey(String category) {
+        return category != null ? category.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private record FacetEntry(int id, String category, String brand, String status, BigDecimal price) {
+    }
+}
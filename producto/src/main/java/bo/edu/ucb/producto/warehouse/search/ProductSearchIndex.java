@@ -0,0 +1,389 @@
+package bo.edu.ucb.producto.warehouse.search;
+
+import bo.edu.ucb.producto.warehouse.entity.Product;
+import bo.edu.ucb.producto.warehouse.event.CatalogChangeListener;
+import bo.edu.ucb.producto.warehouse.event.CatalogChangeLoader;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the searchable text of products
+ *
+ * Name, description, brand, category and SKU are normalized (lower case, accents
+ * removed) and split into terms. Each term maps to a posting list of product IDs
+ * with a per-field weight, kept in primitive arrays sorted by ID. Every query term
+ * matches the terms it is a prefix of; products must match all query terms and are
+ * ranked by field weight and term rarity. Only active products are indexed. The rows
+ * come from {@link CatalogChangeLoader} on startup and after every committed product
+ * change; a row read before a newer one was applied is ignored, by comparing versions.
+ */
+@Component
+public class ProductSearchIndex implements CatalogChangeListener {
+
+    private static final int SKU_WEIGHT = 8;
+    private static final int NAME_WEIGHT = 4;
+    private static final int BRAND_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 512;
+    private static final float PREFIX_FACTOR = 0.5f;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Integer> termIds = new TreeMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<PostingList> postings = new ArrayList<>();
+    private final Deque<Integer> freeTermIds = new ArrayDeque<>();
+    private final Map<Integer, int[]> documentTerms = new HashMap<>();
+    // Version of the last row applied for every product, including those left out as inactive
+    private final Map<Integer, Long> versions = new HashMap<>();
+
+    /**
+     * Replace the entries of the given products; products that no longer exist are removed
+     * Rows are read without the lock, so a row older than the one already applied is skipped.
+     */
+    @Override
+    public void onProductsLoaded(Collection<Integer> productIds, List<Product> products) {
+        List<SearchDocument> documents = products.stream().map(this::toDocument).toList();
+        lock.writeLock().lock();
+        try {
+            Set<Integer> missing = new HashSet<>(productIds);
+            for (SearchDocument document : documents) {
+                missing.remove(document.id);
+                apply(document);
+            }
+            for (Integer productId : missing) {
+                remove(productId);
+                versions.remove(productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Search products
+     * @param query Free text; every term must match a term of the product or be a prefix of one
+     * @param limit Maximum number of results
+     * @return Product IDs, best match first
+     */
+    public List<Integer> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Matches result = null;
+            for (String term : queryTerms) {
+                Matches matches = match(term);
+                result = result == null ? matches : result.intersect(matches);
+                if (result.size == 0) {
+                    return List.of();
+                }
+            }
+            return result.top(limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of indexed products
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private SearchDocument toDocument(Product product) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        addField(weights, product.getSku(), SKU_WEIGHT);
+        addField(weights, product.getName(), NAME_WEIGHT);
+        addField(weights, product.getBrand(), BRAND_WEIGHT);
+        addField(weights, product.getCategory(), CATEGORY_WEIGHT);
+        addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+        long version = product.getVersion() != null ? product.getVersion() : 0;
+        return new SearchDocument(product.getId(), version, product.getStatus() == Product.ProductStatus.active, weights);
+    }
+
+    private void addField(Map<String, Integer> weights, String text, int weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, (a, b) -> Math.min(Byte.MAX_VALUE, a + b));
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty() && token.length() <= MAX_TERM_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Callers hold the write lock
+    private void apply(SearchDocument document) {
+        Long applied = versions.get(document.id);
+        if (applied != null && applied > document.version) {
+            return;
+        }
+        versions.put(document.id, document.version);
+        remove(document.id);
+        if (document.active) {
+            add(document);
+        }
+    }
+
+    // Callers hold the write lock
+    private void add(SearchDocument document) {
+        int[] ids = new int[document.weights.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : document.weights.entrySet()) {
+            int termId = termId(entry.getKey());
+            postings.get(termId).put(document.id, entry.getValue().byteValue());
+            ids[i++] = termId;
+        }
+        documentTerms.put(document.id, ids);
+    }
+
+    // Callers hold the write lock
+    private void remove(Integer productId) {
+        int[] ids = documentTerms.remove(productId);
+        if (ids == null) {
+            return;
+        }
+        for (int termId : ids) {
+            PostingList postingList = postings.get(termId);
+            postingList.remove(productId);
+            if (postingList.size == 0) {
+                termIds.remove(terms.get(termId));
+                terms.set(termId, null);
+                postings.set(termId, null);
+                freeTermIds.push(termId);
+            }
+        }
+    }
+
+    private int termId(String term) {
+        Integer termId = termIds.get(term);
+        if (termId != null) {
+            return termId;
+        }
+        termId = freeTermIds.poll();
+        if (termId == null) {
+            termId = terms.size();
+            terms.add(term);
+            postings.add(new PostingList());
+        } else {
+            terms.set(termId, term);
+            postings.set(termId, new PostingList());
+        }
+        termIds.put(term, termId);
+        return termId;
+    }
+
+    // Callers hold the read lock
+    private Matches match(String queryTerm) {
+        List<PostingList> lists = new ArrayList<>();
+        List<Float> factors = new ArrayList<>();
+        int total = 0;
+        if (queryTerm.length() < MIN_PREFIX_LENGTH) {
+            Integer termId = termIds.get(queryTerm);
+            if (termId != null) {
+                lists.add(postings.get(termId));
+                factors.add(1f);
+                total = postings.get(termId).size;
+            }
+        } else {
+            Integer exactId = termIds.get(queryTerm);
+            if (exactId != null) {
+                lists.add(postings.get(exactId));
+                factors.add(1f);
+                total += postings.get(exactId).size;
+            }
+            // When a prefix has too many expansions to merge, keep those that match the most products
+            int room = MAX_PREFIX_EXPANSIONS - lists.size();
+            PriorityQueue<PostingList> widest = new PriorityQueue<>(Comparator.comparingInt(postingList -> postingList.size));
+            for (Integer termId : termIds.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).values()) {
+                widest.add(postings.get(termId));
+                if (widest.size() > room) {
+                    widest.poll();
+                }
+            }
+            for (PostingList postingList : widest) {
+                lists.add(postingList);
+                factors.add(PREFIX_FACTOR);
+                total += postingList.size;
+            }
+        }
+
+        // Rarer terms count for more
+        int documents = documentTerms.size();
+        if (lists.size() == 1) {
+            PostingList postingList = lists.get(0);
+            float idf = (float) Math.log(1 + (double) documents / postingList.size) * factors.get(0);
+            Matches matches = new Matches(postingList.size);
+            for (int i = 0; i < postingList.size; i++) {
+                matches.append(postingList.docs[i], postingList.weights[i] * idf);
+            }
+            return matches;
+        }
+
+        // Union of several posting lists: sort (id, score) pairs packed into longs, then sum per id
+        long[] packed = new long[total];
+        int n = 0;
+        for (int l = 0; l < lists.size(); l++) {
+            PostingList postingList = lists.get(l);
+            float idf = (float) Math.log(1 + (double) documents / postingList.size) * factors.get(l);
+            for (int i = 0; i < postingList.size; i++) {
+                packed[n++] = ((long) postingList.docs[i] << 32)
+                        | (Float.floatToRawIntBits(postingList.weights[i] * idf) & 0xffffffffL);
+            }
+        }
+        Arrays.sort(packed, 0, n);
+        Matches matches = new Matches(n);
+        for (int i = 0; i < n; i++) {
+            int doc = (int) (packed[i] >>> 32);
+            float score = Float.intBitsToFloat((int) packed[i]);
+            if (matches.size > 0 && matches.docs[matches.size - 1] == doc) {
+                matches.scores[matches.size - 1] += score;
+            } else {
+                matches.append(doc, score);
+            }
+        }
+        return matches;
+    }
+
+    private record SearchDocument(int id, long version, boolean active, Map<String, Integer> weights) {
+    }
+
+    /**
+     * Product IDs of one term, ascending, with the summed field weight of the term in each product
+     */
+    private static final class PostingList {
+        private int[] docs = new int[4];
+        private byte[] weights = new byte[4];
+        private int size;
+
+        private void put(int doc, byte weight) {
+            int pos = size > 0 && docs[size - 1] < doc ? -(size + 1) : Arrays.binarySearch(docs, 0, size, doc);
+            if (pos >= 0) {
+                weights[pos] = weight;
+                return;
+            }
+            pos = -(pos + 1);
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(docs, pos, docs, pos + 1, size - pos);
+            System.arraycopy(weights, pos, weights, pos + 1, size - pos);
+            docs[pos] = doc;
+            weights[pos] = weight;
+            size++;
+        }
+
+        private void remove(int doc) {
+            int pos = Arrays.binarySearch(docs, 0, size, doc);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(docs, pos + 1, docs, pos, size - pos - 1);
+            System.arraycopy(weights, pos + 1, weights, pos, size - pos - 1);
+            size--;
+            if (size > 16 && size < docs.length / 4) {
+                docs = Arrays.copyOf(docs, docs.length / 2);
+                weights = Arrays.copyOf(weights, weights.length / 2);
+            }
+        }
+    }
+
+    /**
+     * Matching product IDs, ascending, with their accumulated scores
+     */
+    private static final class Matches {
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        private Matches(int capacity) {
+            docs = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        private void append(int doc, float score) {
+            docs[size] = doc;
+            scores[size] = score;
+            size++;
+        }
+
+        private Matches intersect(Matches other) {
+            Matches result = new Matches(Math.min(size, other.size));
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (docs[i] < other.docs[j]) {
+                    i++;
+                } else if (docs[i] > other.docs[j]) {
+                    j++;
+                } else {
+                    result.append(docs[i], scores[i] + other.scores[j]);
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+
+        private List<Integer> top(int limit) {
+            // Min-heap of the best positions so far: lowest score, then highest ID, on top
+            PriorityQueue<Integer> best = new PriorityQueue<>(Math.min(limit, size) + 1, (a, b) ->
+                    scores[a] != scores[b] ? Float.compare(scores[a], scores[b]) : Integer.compare(docs[b], docs[a]));
+            for (int i = 0; i < size; i++) {
+                best.add(i);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            Integer[] ordered = new Integer[best.size()];
+            for (int i = ordered.length - 1; i >= 0; i--) {
+                ordered[i] = docs[best.poll()];
+            }
+            return Arrays.asList(ordered);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package bo.edu.ucb.producto.service;
+
+import bo.edu.ucb.producto.warehouse.dto.ProductDto;
+import bo.edu.ucb.producto.warehouse.dto.ProductImportErrorDto;
+import bo.edu.ucb.producto.warehouse.dto.ProductImportResultDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Parsing of import bodies; every parsed row is rejected by the validator, so nothing is written
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTests {
+
+	private static final String PARSED = "parsed";
+
+	@Mock
+	private Validator validator;
+
+	@Spy
+	private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	@InjectMocks
+	private ProductImportService productImportService;
+
+	@BeforeEach
+	void configure() {
+		ReflectionTestUtils.setField(productImportService, "commitInterval", 10000);
+		ReflectionTestUtils.setField(productImportService, "maxReportedErrors", 1000);
+	}
+
+	@Test
+	void csvQuotedFieldsMayHoldCommasQuotesAndLineBreaks() throws IOException {
+		List<ProductDto> parsed = captureParsedRows();
+
+		ProductImportResultDto result = importCsv(
+				"sku,Name,stock_quantity,price,description\n" +
+				"A-1,\"Mug, large\",5,9.90,\"Says \"\"hi\"\"\n" +
+				"on two lines\"\n" +
+				"\n" +
+				"A-2,Plate,,1,\n");
+
+		assertEquals(2, result.getRowsRead());
+		assertEquals(2, parsed.size());
+		ProductDto mug = parsed.get(0);
+		assertEquals("A-1", mug.getSku());
+		assertEquals("Mug, large", mug.getName());
+		assertEquals(5, mug.getStockQuantity());
+		assertEquals(new BigDecimal("9.90"), mug.getPrice());
+		assertEquals("Says \"hi\"\non two lines", mug.getDescription());
+		ProductDto plate = parsed.get(1);
+		assertNull(plate.getStockQuantity());
+		assertNull(plate.getDescription());
+		assertEquals(List.of(1L, 2L), result.getErrors().stream().map(ProductImportErrorDto::getRow).toList());
+	}
+
+	@Test
+	void csvRowErrorsAreReportedWithTheirRowNumber() throws IOException {
+		ProductImportResultDto result = importCsv(
+				"sku,name,price\n" +
+				"A-1,Mug\n" +
+				"A-2,Plate,cheap\n" +
+				",Cup,1\n");
+
+		assertEquals(3, result.getRowsRead());
+		assertEquals(3, result.getRowsFailed());
+		List<ProductImportErrorDto> errors = result.getErrors();
+		assertEquals(1, errors.get(0).getRow());
+		assertEquals("Expected 3 fields but found 2", errors.get(0).getMessage());
+		assertEquals(2, errors.get(1).getRow());
+		assertEquals("A-2", errors.get(1).getSku());
+		assertEquals("Invalid value for price: cheap", errors.get(1).getMessage());
+		assertEquals(3, errors.get(2).getRow());
+		assertEquals("SKU is required", errors.get(2).getMessage());
+		verifyNoInteractions(validator);
+	}
+
+	@Test
+	void unknownCsvColumnFailsTheWholeImport() {
+		assertThrows(IllegalArgumentException.class, () -> importCsv("sku,colour\nA-1,red\n"));
+	}
+
+	@Test
+	void ndjsonLinesAreParsedAndMalformedOnesRejected() throws IOException {
+		List<ProductDto> parsed = captureParsedRows();
+
+		ProductImportResultDto result = importNdjson(
+				"{\"sku\":\"A-1\",\"name\":\"Mug\",\"stockQuantity\":5}\n" +
+				"\n" +
+				"{\"sku\":\"A-2\",\n" +
+				"{\"sku\":\"A-3\",\"name\":\"Cup\"}\n");
+
+		assertEquals(3, result.getRowsRead());
+		assertEquals(List.of("A-1", "A-3"), parsed.stream().map(ProductDto::getSku).toList());
+		assertEquals(5, parsed.get(0).getStockQuantity());
+		ProductImportErrorDto malformed = result.getErrors().get(1);
+		assertEquals(2, malformed.getRow());
+		assertNull(malformed.getSku());
+	}
+
+	// Every row that reaches validation is collected and rejected
+	@SuppressWarnings("unchecked")
+	private List<ProductDto> captureParsedRows() {
+		List<ProductDto> parsed = new ArrayList<>();
+		ConstraintViolation<ProductDto> violation = mock(ConstraintViolation.class);
+		when(violation.getMessage()).thenReturn(PARSED);
+		when(validator.validate(any(ProductDto.class))).thenAnswer(invocation -> {
+			parsed.add(invocation.getArgument(0));
+			return Set.of(violation);
+		});
+		return parsed;
+	}
+
+	private ProductImportResultDto importCsv(String body) throws IOException {
+		return productImportService.importCsv(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+				StandardCharsets.UTF_8);
+	}
+
+	private ProductImportResultDto importNdjson(String body) throws IOException {
+		return productImportService.importNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+				StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,94 @@
+package bo.edu.ucb.producto.warehouse.event;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangeSequencerTests {
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private EntityManager entityManager;
+
+	@InjectMocks
+	private ProductChangeSequencer productChangeSequencer;
+
+	@BeforeEach
+	void start() {
+		// No product is missing its stamp
+		productChangeSequencer.start();
+	}
+
+	@Test
+	void changedProductsAreStampedWithConsecutiveValuesInOneStatement() {
+		when(jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class)).thenReturn(12L);
+
+		productChangeSequencer.onProductChanged(new ProductChangedEvent(Set.of(3, 1, 2)));
+
+		InOrder inOrder = inOrder(entityManager, jdbcTemplate, namedParameterJdbcTemplate);
+		inOrder.verify(entityManager).flush();
+		inOrder.verify(jdbcTemplate).update(anyString(), eq(3), eq("product"));
+		ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+		inOrder.verify(namedParameterJdbcTemplate).update(anyString(), params.capture());
+		assertEquals(10L, params.getValue().getValue("first"));
+		assertEquals(List.of(1, 2, 3), params.getValue().getValue("ids"));
+	}
+
+	@Test
+	void largeChangesAllocateOnceAndStampInSlices() {
+		List<Integer> ids = IntStream.rangeClosed(1, 2500).boxed().toList();
+		when(jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class)).thenReturn(2500L);
+
+		productChangeSequencer.onProductChanged(new ProductChangedEvent(ids));
+
+		verify(jdbcTemplate, times(1)).update(anyString(), eq(2500), eq("product"));
+		ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+		verify(namedParameterJdbcTemplate, times(3)).update(anyString(), params.capture());
+		List<MapSqlParameterSource> slices = params.getAllValues();
+		assertEquals(1L, slices.get(0).getValue("first"));
+		assertEquals(1001L, slices.get(1).getValue("first"));
+		assertEquals(2001L, slices.get(2).getValue("first"));
+		assertEquals(ids.subList(2000, 2500), slices.get(2).getValue("ids"));
+	}
+
+	@Test
+	void emptyChangeTakesNoSequenceValue() {
+		productChangeSequencer.onProductChanged(new ProductChangedEvent(Set.of()));
+
+		verify(jdbcTemplate, never()).queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+		verify(namedParameterJdbcTemplate, never()).update(anyString(), any(MapSqlParameterSource.class));
+	}
+}
@@ -0,0 +1,94 @@
+package bo.edu.ucb.producto.warehouse.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimerWheelTests {
+
+	private static final long TICK_MILLIS = 10;
+
+	@Test
+	void taskRunsAfterItsDelay() throws InterruptedException {
+		try (HashedTimerWheel wheel = new HashedTimerWheel(TICK_MILLIS, TimeUnit.MILLISECONDS, 8, Runnable::run, "test-wheel")) {
+			CountDownLatch ran = new CountDownLatch(1);
+			AtomicLong ranAfter = new AtomicLong();
+			long start = System.nanoTime();
+			wheel.schedule(() -> {
+				ranAfter.set(System.nanoTime() - start);
+				ran.countDown();
+			}, 50, TimeUnit.MILLISECONDS);
+
+			assertTrue(ran.await(1, TimeUnit.SECONDS));
+			long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(ranAfter.get());
+			assertTrue(elapsedMillis >= 50 - TICK_MILLIS, elapsedMillis + " ms");
+		}
+	}
+
+	@Test
+	void delayLongerThanOneRotationIsNotRunEarly() throws InterruptedException {
+		// 4 buckets of 10 ms: a 100 ms delay needs more than two rotations
+		try (HashedTimerWheel wheel = new HashedTimerWheel(TICK_MILLIS, TimeUnit.MILLISECONDS, 4, Runnable::run, "test-wheel")) {
+			CountDownLatch ran = new CountDownLatch(1);
+			AtomicLong ranAfter = new AtomicLong();
+			long start = System.nanoTime();
+			wheel.schedule(() -> {
+				ranAfter.set(System.nanoTime() - start);
+				ran.countDown();
+			}, 100, TimeUnit.MILLISECONDS);
+
+			assertTrue(ran.await(1, TimeUnit.SECONDS));
+			long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(ranAfter.get());
+			assertTrue(elapsedMillis >= 100 - TICK_MILLIS, elapsedMillis + " ms");
+		}
+	}
+
+	@Test
+	void zeroDelayRunsOnTheNextTick() throws InterruptedException {
+		try (HashedTimerWheel wheel = new HashedTimerWheel(TICK_MILLIS, TimeUnit.MILLISECONDS, 8, Runnable::run, "test-wheel")) {
+			CountDownLatch ran = new CountDownLatch(2);
+			wheel.schedule(ran::countDown, 0, TimeUnit.MILLISECONDS);
+			wheel.schedule(ran::countDown, -5, TimeUnit.MILLISECONDS);
+
+			assertTrue(ran.await(200, TimeUnit.MILLISECONDS));
+		}
+	}
+
+	@Test
+	void cancelledTaskNeverRuns() throws InterruptedException {
+		try (HashedTimerWheel wheel = new HashedTimerWheel(TICK_MILLIS, TimeUnit.MILLISECONDS, 8, Runnable::run, "test-wheel")) {
+			AtomicInteger cancelledRuns = new AtomicInteger();
+			CountDownLatch later = new CountDownLatch(1);
+			HashedTimerWheel.Timeout timeout = wheel.schedule(cancelledRuns::incrementAndGet, 30, TimeUnit.MILLISECONDS);
+			wheel.schedule(later::countDown, 60, TimeUnit.MILLISECONDS);
+			timeout.cancel();
+
+			assertTrue(later.await(1, TimeUnit.SECONDS));
+			assertEquals(0, cancelledRuns.get());
+		}
+	}
+
+	@Test
+	void rejectedTaskDoesNotStopTheWheel() throws InterruptedException {
+		AtomicInteger executed = new AtomicInteger();
+		CountDownLatch ran = new CountDownLatch(1);
+		try (HashedTimerWheel wheel = new HashedTimerWheel(TICK_MILLIS, TimeUnit.MILLISECONDS, 8, task -> {
+			if (executed.getAndIncrement() == 0) {
+				throw new IllegalStateException("Executor is full");
+			}
+			task.run();
+		}, "test-wheel")) {
+			wheel.schedule(() -> { }, 10, TimeUnit.MILLISECONDS);
+			wheel.schedule(ran::countDown, 40, TimeUnit.MILLISECONDS);
+
+			assertTrue(ran.await(1, TimeUnit.SECONDS));
+			assertEquals(2, executed.get());
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package bo.edu.ucb.producto.warehouse.inventory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StockJournalTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void replayAppliesDeltasAfterTheLastCheckpoint() throws IOException {
+		Path path = dir.resolve("stock.log");
+		try (StockJournal journal = new StockJournal(path, true, Long.MAX_VALUE)) {
+			journal.appendCheckpoint(1, 100);
+			journal.appendDelta(1, -3);
+			journal.appendDelta(1, -2);
+			journal.appendCheckpoint(2, 50);
+			journal.appendDelta(2, 10);
+		}
+
+		try (StockJournal journal = new StockJournal(path, true, Long.MAX_VALUE)) {
+			assertEquals(Map.of(1, 95L, 2, 60L), journal.getJournaledStock());
+		}
+	}
+
+	@Test
+	void tornRecordAtTheEndIsDiscarded() throws IOException {
+		Path path = dir.resolve("stock.log");
+		try (StockJournal journal = new StockJournal(path, true, Long.MAX_VALUE)) {
+			journal.appendCheckpoint(1, 100);
+			journal.appendDelta(1, -1);
+		}
+		long validLength = Files.size(path);
+		// A crash in the middle of a record leaves only its first bytes
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 1, 0, 0 }));
+		}
+
+		try (StockJournal journal = new StockJournal(path, true, Long.MAX_VALUE)) {
+			assertEquals(Map.of(1, 99L), journal.getJournaledStock());
+			assertEquals(validLength, Files.size(path));
+			journal.appendDelta(1, -1);
+		}
+		try (StockJournal journal = new StockJournal(path, true, Long.MAX_VALUE)) {
+			assertEquals(Map.of(1, 98L), journal.getJournaledStock());
+		}
+	}
+
+	@Test
+	void compactionKeepsOnlyTheCurrentStock() throws IOException {
+		Path path = dir.resolve("stock.log");
+		try (StockJournal journal = new StockJournal(path, true, 1)) {
+			journal.appendCheckpoint(1, 10);
+			for (int i = 0; i < 5; i++) {
+				journal.appendDelta(1, -1);
+			}
+			assertEquals(Map.of(1, 5L), journal.checkpoint());
+			// One checkpoint record: type, product id and value
+			assertEquals(1 + Integer.BYTES + Long.BYTES, Files.size(path));
+			journal.appendDelta(1, 2);
+		}
+
+		try (StockJournal journal = new StockJournal(path, true, 1)) {
+			assertEquals(Map.of(1, 7L), journal.getJournaledStock());
+		}
+	}
+
+	@Test
+	void deltaWithoutCheckpointIsRejected() throws IOException {
+		try (StockJournal journal = new StockJournal(dir.resolve("stock.log"), true, Long.MAX_VALUE)) {
+			assertThrows(IllegalStateException.class, () -> journal.appendDelta(1, -1));
+			assertTrue(journal.getJournaledStock().isEmpty());
+		}
+	}
+
+	@Test
+	void concurrentDeltasAreAllJournaled() throws Exception {
+		Path path = dir.resolve("stock.log");
+		int threads = 8;
+		int perThread = 200;
+		try (StockJournal journal = new StockJournal(path, true, Long.MAX_VALUE)) {
+			journal.appendCheckpoint(1, 0);
+			List<Thread> writers = new ArrayList<>();
+			List<Throwable> failures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				Thread writer = new Thread(() -> {
+					try {
+						for (int i = 0; i < perThread; i++) {
+							journal.appendDelta(1, 1);
+						}
+					} catch (Throwable e) {
+						synchronized (failures) {
+							failures.add(e);
+						}
+					}
+				});
+				writers.add(writer);
+				writer.start();
+			}
+			for (Thread writer : writers) {
+				writer.join();
+			}
+			assertTrue(failures.isEmpty(), failures.toString());
+			assertEquals(Map.of(1, (long) threads * perThread), journal.getJournaledStock());
+		}
+
+		try (StockJournal journal = new StockJournal(path, true, Long.MAX_VALUE)) {
+			assertEquals(Map.of(1, (long) threads * perThread), journal.getJournaledStock());
+		}
+	}
+
+	@Test
+	void appendAfterCloseFails() throws IOException {
+		StockJournal journal = new StockJournal(dir.resolve("stock.log"), true, Long.MAX_VALUE);
+		journal.appendCheckpoint(1, 10);
+		journal.close();
+
+		assertThrows(IOException.class, () -> journal.appendDelta(1, -1));
+	}
+}
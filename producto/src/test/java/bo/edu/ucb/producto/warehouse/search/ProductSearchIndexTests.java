@@ -0,0 +1,97 @@
+package bo.edu.ucb.producto.warehouse.search;
+
+import bo.edu.ucb.producto.warehouse.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductSearchIndexTests {
+
+	private final ProductSearchIndex index = new ProductSearchIndex();
+
+	@Test
+	void termsAreNormalizedAndMatchedByPrefix() {
+		load(product(1, "Café Molido Orgánico", "Andes", 0L));
+
+		assertEquals(List.of(1), index.search("cafe", 10));
+		assertEquals(List.of(1), index.search("MOLI", 10));
+		assertEquals(List.of(1), index.search("organico andes", 10));
+		assertEquals(List.of(), index.search("te", 10));
+	}
+
+	@Test
+	void everyQueryTermMustMatch() {
+		load(product(1, "Red Apple", "Farm", 0L), product(2, "Green Apple", "Farm", 0L));
+
+		assertEquals(List.of(1), index.search("apple red", 10));
+		assertEquals(List.of(), index.search("apple blue", 10));
+	}
+
+	@Test
+	void exactMatchesAndStrongerFieldsRankFirst() {
+		Product byName = product(1, "Lamp", "Acme", 0L);
+		Product byDescription = product(2, "Desk", "Acme", 0L);
+		byDescription.setDescription("Comes with a lamp");
+		Product byPrefix = product(3, "Lampshade", "Acme", 0L);
+		load(byName, byDescription, byPrefix);
+
+		assertEquals(List.of(1, 3, 2), index.search("lamp", 10));
+		assertEquals(List.of(1, 3), index.search("lamp", 2));
+	}
+
+	@Test
+	void skuIsSearchable() {
+		Product product = product(1, "Widget", "Acme", 0L);
+		product.setSku("WID-0042");
+		load(product);
+
+		assertEquals(List.of(1), index.search("wid 0042", 10));
+	}
+
+	@Test
+	void inactiveAndRemovedProductsAreLeftOut() {
+		Product inactive = product(2, "Blue Mug", "Acme", 0L);
+		inactive.setStatus(Product.ProductStatus.inactive);
+		load(product(1, "Blue Cup", "Acme", 0L), inactive);
+		assertEquals(List.of(1), index.search("blue", 10));
+
+		index.onProductsLoaded(List.of(1), List.of());
+		assertEquals(List.of(), index.search("blue", 10));
+		assertEquals(0, index.size());
+	}
+
+	@Test
+	void changedProductReplacesItsTerms() {
+		load(product(1, "Old Name", "Acme", 0L));
+		load(product(1, "New Name", "Acme", 1L));
+
+		assertEquals(List.of(), index.search("old", 10));
+		assertEquals(List.of(1), index.search("new", 10));
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void olderRowDoesNotOverwriteANewerOne() {
+		load(product(1, "New Name", "Acme", 2L));
+		load(product(1, "Old Name", "Acme", 1L));
+
+		assertEquals(List.of(1), index.search("new", 10));
+		assertEquals(List.of(), index.search("old", 10));
+	}
+
+	private void load(Product... products) {
+		index.onProductsLoaded(Arrays.stream(products).map(Product::getId).toList(), List.of(products));
+	}
+
+	private static Product product(int id, String name, String brand, Long version) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName(name);
+		product.setBrand(brand);
+		product.setVersion(version);
+		return product;
+	}
+}
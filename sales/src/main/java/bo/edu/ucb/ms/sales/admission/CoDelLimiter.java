@@ -0,0 +1,80 @@
+package bo.edu.ucb.ms.sales.admission;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrency limiter with CoDel (controlled delay) queue management
+ *
+ * At most maxConcurrent requests run at once; the rest wait for a permit.
+ * While the minimum queue delay seen during the last interval stays below the
+ * target, requests may wait a full interval. Once even the fastest request of an
+ * interval waited longer than the target the queue is considered standing and
+ * requests are only allowed to wait up to the target before being shed.
+ */
+public class CoDelLimiter {
+
+    private final Semaphore permits;
+    private final long targetNanos;
+    private final long intervalNanos;
+
+    private long intervalStartNanos;
+    private long minDelayInIntervalNanos = Long.MAX_VALUE;
+    private volatile boolean overloaded;
+
+    /**
+     * @param maxConcurrent Maximum number of requests executing at the same time
+     * @param targetMillis Acceptable standing queue delay
+     * @param intervalMillis Window over which the minimum queue delay is observed
+     */
+    public CoDelLimiter(int maxConcurrent, long targetMillis, long intervalMillis) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.intervalStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Wait for an execution permit
+     * @return true if the request was admitted and must call {@link #release()}, false if it was shed
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public boolean acquire() throws InterruptedException {
+        long start = System.nanoTime();
+        long maxWait = overloaded ? targetNanos : intervalNanos;
+        boolean acquired = permits.tryAcquire(maxWait, TimeUnit.NANOSECONDS);
+        long now = System.nanoTime();
+        recordDelay(now - start, now);
+        return acquired;
+    }
+
+    /**
+     * Return the permit taken by a successful {@link #acquire()}
+     */
+    public void release() {
+        permits.release();
+    }
+
+    private synchronized void recordDelay(long delayNanos, long now) {
+        if (delayNanos < minDelayInIntervalNanos) {
+            minDelayInIntervalNanos = delayNanos;
+        }
+        if (now - intervalStartNanos >= intervalNanos) {
+            overloaded = minDelayInIntervalNanos > targetNanos;
+            minDelayInIntervalNanos = Long.MAX_VALUE;
+            intervalStartNanos = now;
+        }
+    }
+
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    public long getIntervalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(intervalNanos);
+    }
+}
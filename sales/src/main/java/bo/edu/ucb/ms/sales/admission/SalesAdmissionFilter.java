@@ -0,0 +1,129 @@
+package bo.edu.ucb.ms.sales.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the sales write endpoints
+ *
+ * Every write request first passes a per-client token bucket (429 when empty) and
+ * then waits for an execution permit in the {@link CoDelLimiter} (503 when the queue
+ * delay exceeds what the limiter allows). Read requests are passed through untouched.
+ */
+public class SalesAdmissionFilter extends OncePerRequestFilter {
+
+    private static final int MAX_TRACKED_CLIENTS = 10_000;
+
+    private final CoDelLimiter limiter;
+    private final double permitsPerSecond;
+    private final double burst;
+    private final String clientHeader;
+    // In access order, so the least recently seen client is forgotten once the cap is reached
+    private final Map<String, TokenBucket> buckets = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+            return size() > MAX_TRACKED_CLIENTS;
+        }
+    };
+
+    private final Counter admitted;
+    private final Counter shedRateLimited;
+    private final Counter shedQueueDelay;
+
+    public SalesAdmissionFilter(CoDelLimiter limiter, double permitsPerSecond, double burst,
+                                String clientHeader, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.clientHeader = clientHeader;
+        this.admitted = Counter.builder("sales.admission.admitted")
+                .description("Write requests admitted by the admission controller")
+                .register(meterRegistry);
+        this.shedRateLimited = Counter.builder("sales.admission.shed")
+                .tag("reason", "rate_limited")
+                .description("Write requests rejected by the admission controller")
+                .register(meterRegistry);
+        this.shedQueueDelay = Counter.builder("sales.admission.shed")
+                .tag("reason", "queue_delay")
+                .description("Write requests rejected by the admission controller")
+                .register(meterRegistry);
+        Gauge.builder("sales.admission.queue.length", limiter, CoDelLimiter::getQueueLength)
+                .description("Write requests waiting for an execution permit")
+                .register(meterRegistry);
+        Gauge.builder("sales.admission.overloaded", limiter, l -> l.isOverloaded() ? 1 : 0)
+                .description("1 while the write queue has a standing delay above target")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long waitNanos = bucketFor(clientKey(request)).tryAcquire();
+        if (waitNanos > 0) {
+            shedRateLimited.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+            return;
+        }
+
+        boolean acquired;
+        try {
+            acquired = limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            shedQueueDelay.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, Math.max(1, TimeUnit.MILLISECONDS.toSeconds(limiter.getIntervalMillis())));
+            return;
+        }
+
+        admitted.increment();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release();
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(clientHeader);
+        return apiKey != null && !apiKey.isBlank() ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Get the bucket of a client, creating it on first use
+     * At most MAX_TRACKED_CLIENTS buckets are kept; at the cap the least recently seen
+     * client is dropped and starts again with a full bucket if it comes back.
+     */
+    private TokenBucket bucketFor(String clientKey) {
+        synchronized (buckets) {
+            return buckets.computeIfAbsent(clientKey, k -> new TokenBucket(permitsPerSecond, burst));
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds) {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    }
+}
@@ -0,0 +1,41 @@
+package bo.edu.ucb.ms.sales.admission;
+
+/**
+ * Token bucket used to rate limit a single client on the sales write path
+ * Tokens refill continuously at a fixed rate up to the bucket capacity
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param permitsPerSecond Sustained rate of admitted requests
+     * @param burst Maximum number of requests admitted back to back
+     */
+    public TokenBucket(double permitsPerSecond, double burst) {
+        this.capacity = burst;
+        this.refillPerNano = permitsPerSecond / 1_000_000_000d;
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Try to take one token from the bucket
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available
+     */
+    public synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+
+        if (tokens >= 1d) {
+            tokens -= 1d;
+            return 0L;
+        }
+        return (long) Math.ceil((1d - tokens) / refillPerNano);
+    }
+}
@@ -0,0 +1,47 @@
+package bo.edu.ucb.ms.sales.config;
+
+import bo.edu.ucb.ms.sales.admission.CoDelLimiter;
+import bo.edu.ucb.ms.sales.admission.SalesAdmissionFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the admission controller in front of the sales write endpoints
+ */
+@Configuration
+@ConditionalOnProperty(name = "sales.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Value("${sales.admission.max-concurrent:32}")
+    private int maxConcurrent;
+
+    @Value("${sales.admission.codel.target-ms:20}")
+    private long targetMillis;
+
+    @Value("${sales.admission.codel.interval-ms:100}")
+    private long intervalMillis;
+
+    @Value("${sales.admission.rate-limit.permits-per-second:50}")
+    private double permitsPerSecond;
+
+    @Value("${sales.admission.rate-limit.burst:100}")
+    private double burst;
+
+    @Value("${sales.admission.client-header:X-API-Key}")
+    private String clientHeader;
+
+    @Bean
+    public FilterRegistrationBean<SalesAdmissionFilter> salesAdmissionFilter(MeterRegistry meterRegistry) {
+        CoDelLimiter limiter = new CoDelLimiter(maxConcurrent, targetMillis, intervalMillis);
+        SalesAdmissionFilter filter = new SalesAdmissionFilter(limiter, permitsPerSecond, burst, clientHeader, meterRegistry);
+
+        FilterRegistrationBean<SalesAdmissionFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/sales", "/api/sales/*");
+        registration.setName("salesAdmissionFilter");
+        return registration;
+    }
+}
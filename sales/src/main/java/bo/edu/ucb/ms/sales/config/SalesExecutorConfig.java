@@ -0,0 +1,38 @@
+package bo.edu.ucb.ms.sales.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Bounded executor for the remote calls a sale fans out to other services
+ */
+@Configuration
+public class SalesExecutorConfig {
+
+    @Value("${sales.executor.core-pool-size:16}")
+    private int corePoolSize;
+
+    @Value("${sales.executor.max-pool-size:64}")
+    private int maxPoolSize;
+
+    @Value("${sales.executor.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Bean(name = "salesTaskExecutor")
+    public ThreadPoolTaskExecutor salesTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("sales-step-");
+        // When saturated the request thread runs the step itself instead of failing the sale
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -31,6 +31,7 @@ public class JournalDto {
     private String status;
     private String reversedByEntry;
     private String notes;
+    private String idempotencyKey;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
@@ -235,6 +236,14 @@ public class JournalDto {
         this.notes = notes;
     }
     
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,43 @@
+package bo.edu.ucb.ms.sales.dto;
+
+import java.util.List;
+
+/**
+ * DTO for a batch of stock decrements or returns sent to Product Service
+ * Quantities are positive and applied in order.
+ * references.get(i), such as a sale number, is recorded in the inventory ledger with quantities.get(i).
+ */
+public class StockDecrementBatchDto {
+
+    private List<Integer> quantities;
+
+    private List<String> references;
+
+    // Default constructor
+    public StockDecrementBatchDto() {}
+
+    public StockDecrementBatchDto(List<Integer> quantities) {
+        this.quantities = quantities;
+    }
+
+    public StockDecrementBatchDto(List<Integer> quantities, List<String> references) {
+        this.quantities = quantities;
+        this.references = references;
+    }
+
+    public List<Integer> getQuantities() {
+        return quantities;
+    }
+
+    public void setQuantities(List<Integer> quantities) {
+        this.quantities = quantities;
+    }
+
+    public List<String> getReferences() {
+        return references;
+    }
+
+    public void setReferences(List<String> references) {
+        this.references = references;
+    }
+}
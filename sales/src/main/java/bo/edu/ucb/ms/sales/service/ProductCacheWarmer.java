@@ -0,0 +1,129 @@
+package bo.edu.ucb.ms.sales.service;
+
+import bo.edu.ucb.ms.sales.dto.ProductDto;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Warms the product cache from the binary snapshot file exported by the Product Service
+ *
+ * The file is memory-mapped and its fixed-size records are read in place, so a fresh
+ * instance starts with a populated cache within milliseconds instead of sending its
+ * first requests to the Product Service. Once the application is ready the preloaded
+ * products are refreshed from the Product Service in the background with bulk calls.
+ * Preloaded products are served until the file reaches the configured age, so they do
+ * not expire before traffic starts; sales always price from a fresh fetch. Files older
+ * than the configured age, or in an unknown format, are ignored.
+ */
+@Component
+public class ProductCacheWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCacheWarmer.class);
+
+    // Layout written by the Product Service: 32-byte header, then 20-byte records, big-endian
+    private static final int MAGIC = 0x50534E50;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final String[] STATUSES = { "active", "inactive", "discontinued" };
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Value("${sales.product-cache.snapshot-path:}")
+    private String snapshotPath;
+
+    @Value("${sales.product-cache.snapshot-max-age-seconds:300}")
+    private long snapshotMaxAgeSeconds;
+
+    private List<Integer> preloadedIds = List.of();
+
+    @PostConstruct
+    public void warm() {
+        if (snapshotPath.isBlank() || !Files.isReadable(Path.of(snapshotPath))) {
+            return;
+        }
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(Path.of(snapshotPath), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            List<ProductDto> products = read(buffer);
+            if (products == null) {
+                return;
+            }
+            long ageMillis = System.currentTimeMillis() - buffer.getLong(8);
+            productCatalogCache.preload(products, snapshotMaxAgeSeconds * 1000 - ageMillis);
+            preloadedIds = products.stream().map(ProductDto::getId).toList();
+            log.info("Product cache warmed with {} product(s) from {} in {} ms",
+                    products.size(), snapshotPath, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not warm the product cache from {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        if (preloadedIds.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = preloadedIds;
+        preloadedIds = List.of();
+        Thread thread = new Thread(() -> {
+            try {
+                productCatalogCache.catchUp(ids);
+            } catch (RuntimeException e) {
+                log.warn("Could not refresh the preloaded products: {}", e.getMessage());
+            }
+        }, "product-cache-catch-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private List<ProductDto> read(ByteBuffer buffer) {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            log.warn("Ignoring product snapshot {}: unknown format", snapshotPath);
+            return null;
+        }
+        long ageMillis = System.currentTimeMillis() - buffer.getLong(8);
+        if (ageMillis > snapshotMaxAgeSeconds * 1000) {
+            log.info("Ignoring product snapshot {}: {} s old", snapshotPath, ageMillis / 1000);
+            return null;
+        }
+        int count = buffer.getInt(16);
+        int recordSize = buffer.getInt(20);
+        if ((long) HEADER_SIZE + (long) count * recordSize > buffer.limit()) {
+            log.warn("Ignoring product snapshot {}: truncated", snapshotPath);
+            return null;
+        }
+
+        // Fill at most the cache capacity, so preloading never triggers a cache clear
+        int preload = Math.min(count, productCatalogCache.getMaxEntries());
+        List<ProductDto> products = new ArrayList<>(preload);
+        for (int i = 0; i < preload; i++) {
+            int offset = HEADER_SIZE + i * recordSize;
+            ProductDto product = new ProductDto();
+            product.setId(buffer.getInt(offset));
+            product.setPrice(BigDecimal.valueOf(buffer.getLong(offset + 4), 2));
+            product.setStockQuantity(buffer.getInt(offset + 12));
+            int status = buffer.get(offset + 16);
+            product.setStatus(status >= 0 && status < STATUSES.length ? STATUSES[status] : null);
+            products.add(product);
+        }
+        return products;
+    }
+}
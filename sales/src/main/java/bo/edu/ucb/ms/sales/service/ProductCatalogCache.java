@@ -0,0 +1,170 @@
+package bo.edu.ucb.ms.sales.service;
+
+import bo.edu.ucb.ms.sales.dto.ProductDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived cache of Product Service products
+ *
+ * Lookups for several IDs are answered from the cache where possible and the misses
+ * are fetched together with one bulk call, so resolving N products costs at most one
+ * round-trip. Entries expire after the configured TTL; callers that need the current
+ * stock or price, such as a sale being priced, use {@link #refresh(Integer)}.
+ */
+@Component
+public class ProductCatalogCache {
+
+    // Largest ID set the Product Service accepts in one lookup call
+    private static final int MAX_LOOKUP_IDS = 10000;
+
+    @Autowired
+    private ProductServiceClient productServiceClient;
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final int maxQueryIds;
+    private final Map<Integer, CachedProduct> cache = new ConcurrentHashMap<>();
+
+    public ProductCatalogCache(@Value("${sales.product-cache.ttl-ms:5000}") long ttlMillis,
+                               @Value("${sales.product-cache.max-entries:10000}") int maxEntries,
+                               @Value("${sales.product-cache.max-query-ids:200}") int maxQueryIds) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+        this.maxQueryIds = maxQueryIds;
+    }
+
+    /**
+     * @param productId Product ID
+     * @return ProductDto, or null if the product does not exist
+     */
+    public ProductDto getProduct(Integer productId) {
+        return getProducts(List.of(productId)).get(productId);
+    }
+
+    /**
+     * @param productIds Product IDs
+     * @return Products by ID in request order; unknown IDs are left out
+     */
+    public Map<Integer, ProductDto> getProducts(Collection<Integer> productIds) {
+        long now = System.nanoTime();
+        Set<Integer> ids = new LinkedHashSet<>(productIds);
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            CachedProduct cached = cache.get(id);
+            if (cached == null || cached.expiresAt - now < 0) {
+                missing.add(id);
+            }
+        }
+
+        Map<Integer, ProductDto> fetched = new LinkedHashMap<>();
+        if (!missing.isEmpty()) {
+            List<ProductDto> products = missing.size() <= maxQueryIds
+                    ? productServiceClient.getProducts(missing)
+                    : productServiceClient.lookupProducts(missing);
+            for (ProductDto product : products) {
+                fetched.put(product.getId(), product);
+                put(product, now);
+            }
+        }
+
+        Map<Integer, ProductDto> result = new LinkedHashMap<>();
+        for (Integer id : ids) {
+            ProductDto product = fetched.get(id);
+            if (product == null && !missing.contains(id)) {
+                CachedProduct cached = cache.get(id);
+                product = cached != null ? cached.product : null;
+            }
+            if (product != null) {
+                result.put(id, product);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drop the cached copy of a product and fetch it again
+     * @param productId Product ID
+     * @return ProductDto, or null if the product does not exist
+     */
+    public ProductDto refresh(Integer productId) {
+        cache.remove(productId);
+        return getProduct(productId);
+    }
+
+    /**
+     * @return Maximum number of cached products
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Seed the cache with products read from somewhere other than the Product Service, such as a snapshot file
+     * The entries outlive the regular TTL so they are still there when traffic starts; {@link #catchUp}
+     * replaces them with live ones.
+     * @param products Products to cache
+     * @param validForMillis How long the products may still be served, such as what is left of the snapshot's maximum age
+     */
+    public void preload(Collection<ProductDto> products, long validForMillis) {
+        long now = System.nanoTime();
+        long expiresAt = now + Math.max(ttlNanos, TimeUnit.MILLISECONDS.toNanos(validForMillis));
+        for (ProductDto product : products) {
+            put(product, now, expiresAt);
+        }
+    }
+
+    /**
+     * Replace preloaded products with their live state, fetching them in bulk calls
+     * Products the Product Service no longer returns are dropped from the cache.
+     * @param productIds Product IDs
+     */
+    public void catchUp(List<Integer> productIds) {
+        for (int from = 0; from < productIds.size(); from += MAX_LOOKUP_IDS) {
+            List<Integer> slice = productIds.subList(from, Math.min(productIds.size(), from + MAX_LOOKUP_IDS));
+            long now = System.nanoTime();
+            Set<Integer> stale = new HashSet<>(slice);
+            for (ProductDto product : productServiceClient.lookupProducts(slice)) {
+                stale.remove(product.getId());
+                put(product, now);
+            }
+            stale.forEach(cache::remove);
+        }
+    }
+
+    private void put(ProductDto product, long now) {
+        put(product, now, now + ttlNanos);
+    }
+
+    private void put(ProductDto product, long now, long expiresAt) {
+        if (cache.size() >= maxEntries) {
+            cache.values().removeIf(cached -> cached.expiresAt - now < 0);
+            if (cache.size() >= maxEntries) {
+                cache.clear();
+            }
+        }
+        cache.put(product.getId(), new CachedProduct(product, expiresAt));
+    }
+
+    private static class CachedProduct {
+        private final ProductDto product;
+        private final long expiresAt;
+
+        private CachedProduct(ProductDto product, long expiresAt) {
+            this.product = product;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package bo.edu.ucb.ms.sales.service;
 
 import bo.edu.ucb.ms.sales.dto.ProductDto;
+import bo.edu.ucb.ms.sales.dto.StockDecrementBatchDto;
+import bo.edu.ucb.ms.sales.dto.StockDecrementResultDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
 
 /**
  * Feign client for Product Service
@@ -22,6 +29,22 @@ public interface ProductServiceClient {
     @GetMapping("/api/warehouse/products/{id}")
     ProductDto getProduct(@PathVariable("id") Integer id);
     
+    /**
+     * Get several products in one call
+     * @param ids Product IDs, at most 1000
+     * @return ProductDto list in request order, without unknown IDs
+     */
+    @GetMapping("/api/warehouse/products")
+    List<ProductDto> getProducts(@RequestParam("ids") List<Integer> ids);
+    
+    /**
+     * Get several products in one call, for ID sets too large for a query string
+     * @param ids Product IDs, at most 10000
+     * @return ProductDto list in request order, without unknown IDs
+     */
+    @PostMapping("/api/warehouse/products/lookup")
+    List<ProductDto> lookupProducts(@RequestBody List<Integer> ids);
+    
     /**
      * Update product stock
      * @param id Product ID
@@ -30,5 +53,24 @@ public interface ProductServiceClient {
      */
     @PutMapping("/api/warehouse/products/{id}")
     ProductDto updateProduct(@PathVariable("id") Integer id, @RequestBody ProductDto productDto);
+    
+    /**
+     * Apply a batch of stock decrements to a product
+     * @param id Product ID
+     * @param batch Quantities to decrement, in arrival order
+     * @return StockDecrementResultDto telling which decrements were applied
+     */
+    @PostMapping("/api/warehouse/products/{id}/stock/decrements")
+    StockDecrementResultDto decrementStock(@PathVariable("id") Integer id, @RequestBody StockDecrementBatchDto batch);
+    
+    /**
+     * Give back stock taken by earlier decrements
+     * @param internalToken Shared token of the Product Service internal endpoints
+     * @param id Product ID
+     * @param batch Quantities to return
+     * @return StockDecrementResultDto telling which returns were applied
+     */
+    @PostMapping("/api/warehouse/internal/products/{id}/stock/returns")
+    StockDecrementResultDto returnStock(@RequestHeader("X-Internal-Token") String internalToken,
+                                        @PathVariable("id") Integer id, @RequestBody StockDecrementBatchDto batch);
 }
-
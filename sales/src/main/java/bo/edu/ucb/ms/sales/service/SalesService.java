@@ -5,16 +5,24 @@ import bo.edu.ucb.ms.sales.dto.ProductDto;
 import bo.edu.ucb.ms.sales.dto.SaleDto;
 import bo.edu.ucb.ms.sales.entity.Sale;
 import bo.edu.ucb.ms.sales.repository.SaleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Service class for Sales business logic
@@ -24,25 +32,38 @@ import java.util.UUID;
 @Transactional
 public class SalesService {
     
+    private static final Logger log = LoggerFactory.getLogger(SalesService.class);
+    
     @Autowired
     private SaleRepository saleRepository;
     
     @Autowired
-    private ProductServiceClient productServiceClient;
+    private AccountingServiceClient accountingServiceClient;
     
     @Autowired
-    private AccountingServiceClient accountingServiceClient;
+    private StockDecrementCoalescer stockDecrementCoalescer;
+    
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+    
+    @Autowired
+    @Qualifier("salesTaskExecutor")
+    private TaskExecutor salesTaskExecutor;
     
     /**
      * Create a new sale with complete transaction flow
+     * The sale row is committed on its own; the stock update and the accounting
+     * entries then run concurrently, and if any of them fails the ones that
+     * succeeded are compensated and the sale is cancelled.
      * @param productId Product ID to sell
      * @param quantity Quantity to sell
      * @param customerName Customer name
      * @return Created SaleDto
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public SaleDto createSale(Integer productId, Integer quantity, String customerName) {
-        // 1. Validate and get product from Product Service
-        ProductDto product = productServiceClient.getProduct(productId);
+        // 1. Validate and get product from Product Service; the sale is priced, so a cached copy is not used
+        ProductDto product = productCatalogCache.refresh(productId);
         if (product == null) {
             throw new IllegalArgumentException("Product with ID " + productId + " not found");
         }
@@ -65,56 +86,129 @@ public class SalesService {
         sale.setTotalAmount(totalAmount);
         // finalAmount is calculated automatically by database trigger
         
-        // 4. Save sale
+        // 4. Save sale (commits immediately, no transaction is held across remote calls)
         Sale savedSale = saleRepository.save(sale);
         
-        // 5. Update product stock in Product Service
-        product.setStockQuantity(product.getStockQuantity() - quantity);
-        productServiceClient.updateProduct(productId, product);
+        // 5. Update product stock and create accounting entries concurrently
+        JournalDto debitDto = createJournalDto(
+            "1200", 
+            "Cuentas por Cobrar", 
+            "Venta - " + savedSale.getSaleNumber() + " - Producto ID: " + savedSale.getProductId(),
+            savedSale.getTotalAmount(),
+            "D",
+            savedSale.getSaleNumber()
+        );
+        JournalDto creditDto = createJournalDto(
+            "4100", 
+            "Ingresos por Ventas", 
+            "Venta - " + savedSale.getSaleNumber() + " - Producto ID: " + savedSale.getProductId(),
+            savedSale.getTotalAmount(),
+            "C",
+            savedSale.getSaleNumber()
+        );
+        
+        CompletableFuture<Void> stockStep = stockDecrementCoalescer.decrement(productId, quantity, savedSale.getSaleNumber())
+            .thenAccept(fulfilled -> {
+                if (!fulfilled) {
+                    throw new IllegalArgumentException("Insufficient stock for product " + productId + ". Requested: " + quantity);
+                }
+            });
+        CompletableFuture<Void> debitStep = CompletableFuture.runAsync(
+            () -> createJournalEntryWithRetry(debitDto), salesTaskExecutor);
+        CompletableFuture<Void> creditStep = CompletableFuture.runAsync(
+            () -> createJournalEntryWithRetry(creditDto), salesTaskExecutor);
+        
+        // 6. Wait for all steps and compensate the successful ones if any failed
+        List<Throwable> failures = awaitAll(stockStep, debitStep, creditStep);
+        if (!failures.isEmpty()) {
+            compensateSale(savedSale, stockStep, debitStep, debitDto, creditStep, creditDto);
+            throw aggregateFailures(savedSale, failures);
+        }
         
-        // 6. Create accounting entries
-        createAccountingEntries(savedSale);
+        log.info("Accounting entries created for sale {}", savedSale.getSaleNumber());
         
         // 7. Convert to DTO and return
         return convertToDto(savedSale);
     }
     
     /**
-     * Create accounting journal entries for a sale
-     * @param sale Sale entity
+     * Wait for every step to finish and collect their failures
+     * @param steps Steps running concurrently
+     * @return Failures of the steps that completed exceptionally
+     */
+    private List<Throwable> awaitAll(CompletableFuture<?>... steps) {
+        CompletableFuture.allOf(steps).exceptionally(ex -> null).join();
+        List<Throwable> failures = new ArrayList<>();
+        for (CompletableFuture<?> step : steps) {
+            if (step.isCompletedExceptionally()) {
+                try {
+                    step.join();
+                } catch (CompletionException e) {
+                    failures.add(e.getCause() != null ? e.getCause() : e);
+                }
+            }
+        }
+        return failures;
+    }
+    
+    /**
+     * Build the exception reported for a cancelled sale
+     * Running out of stock is a client error, like the validation done before saving
+     */
+    private RuntimeException aggregateFailures(Sale sale, List<Throwable> failures) {
+        String message = "Sale " + sale.getSaleNumber() + " was cancelled: " + failures.size() + " downstream step(s) failed";
+        boolean outOfStock = failures.stream().anyMatch(IllegalArgumentException.class::isInstance);
+        RuntimeException error = outOfStock ? new IllegalArgumentException(message) : new IllegalStateException(message);
+        failures.forEach(error::addSuppressed);
+        return error;
+    }
+    
+    /**
+     * Undo the steps of a sale that succeeded and mark the sale as cancelled
      */
-    private void createAccountingEntries(Sale sale) {
-        try {
-            // Create debit entry for Accounts Receivable
-            JournalDto debitDto = createJournalDto(
-                "1200", 
-                "Cuentas por Cobrar", 
-                "Venta - " + sale.getSaleNumber() + " - Producto ID: " + sale.getProductId(),
-                sale.getTotalAmount(),
-                "D",
-                sale.getSaleNumber()
-            );
-            
-            // Create credit entry for Sales Revenue
-            JournalDto creditDto = createJournalDto(
-                "4100", 
-                "Ingresos por Ventas", 
-                "Venta - " + sale.getSaleNumber() + " - Producto ID: " + sale.getProductId(),
-                sale.getTotalAmount(),
-                "C",
-                sale.getSaleNumber()
-            );
-            
-            // Send to Accounting Service with retry logic for duplicate key errors
-            createJournalEntryWithRetry(debitDto);
-            createJournalEntryWithRetry(creditDto);
-            
-            System.out.println("Accounting entries created for sale " + sale.getSaleNumber());
-            
-        } catch (Exception e) {
-            System.err.println("Error creating accounting entries for sale " + sale.getSaleNumber() + ": " + e.getMessage());
-            e.printStackTrace();
+    private void compensateSale(Sale sale, CompletableFuture<Void> stockStep,
+                                CompletableFuture<Void> debitStep, JournalDto debitDto,
+                                CompletableFuture<Void> creditStep, JournalDto creditDto) {
+        List<CompletableFuture<Void>> compensations = new ArrayList<>();
+        if (!stockStep.isCompletedExceptionally()) {
+            compensations.add(stockDecrementCoalescer.release(sale.getProductId(), sale.getQuantity(), sale.getSaleNumber())
+                .thenAccept(released -> {}));
+        }
+        if (!debitStep.isCompletedExceptionally()) {
+            compensations.add(CompletableFuture.runAsync(
+                () -> createJournalEntryWithRetry(createReversalDto(debitDto)), salesTaskExecutor));
         }
+        if (!creditStep.isCompletedExceptionally()) {
+            compensations.add(CompletableFuture.runAsync(
+                () -> createJournalEntryWithRetry(createReversalDto(creditDto)), salesTaskExecutor));
+        }
+        
+        for (Throwable failure : awaitAll(compensations.toArray(new CompletableFuture<?>[0]))) {
+            log.error("Error compensating sale {}", sale.getSaleNumber(), failure);
+        }
+        
+        sale.setPaymentStatus("cancelled");
+        saleRepository.save(sale);
+    }
+    
+    /**
+     * Create the journal entry that offsets a previously created one
+     * @param original Journal entry to offset
+     * @return JournalDto with debit and credit swapped
+     */
+    private JournalDto createReversalDto(JournalDto original) {
+        boolean debit = "D".equals(original.getBalanceType());
+        BigDecimal amount = debit ? original.getDebitAmount() : original.getCreditAmount();
+        JournalDto reversal = createJournalDto(
+            original.getAccountCode(),
+            original.getAccountName(),
+            "Anulación - " + original.getDescription(),
+            amount,
+            debit ? "C" : "D",
+            original.getReferenceNumber()
+        );
+        reversal.setNotes("Reversión automática por venta cancelada");
+        return reversal;
     }
     
     /**
@@ -141,6 +235,8 @@ public class SalesService {
             dto.setCreditAmount(amount);
         }
         dto.setBalanceType(balanceType);
+        // One line per sale, account and side, so a retried call returns the entry already created
+        dto.setIdempotencyKey(saleNumber + ":" + accountCode + ":" + balanceType);
         
         return dto;
     }
@@ -162,7 +258,7 @@ public class SalesService {
                     if (retryCount < maxRetries) {
                         // Generate new journal entry number and retry
                         dto.setJournalEntryNumber(generateJournalEntryNumber());
-                        System.out.println("Retrying journal entry creation with new number: " + dto.getJournalEntryNumber());
+                        log.warn("Retrying journal entry creation with new number: {}", dto.getJournalEntryNumber());
                         try {
                             Thread.sleep(10); // Small delay to ensure different timestamp
                         } catch (InterruptedException ie) {
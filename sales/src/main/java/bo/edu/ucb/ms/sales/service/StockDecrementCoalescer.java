@@ -0,0 +1,167 @@
+package bo.edu.ucb.ms.sales.service;
+
+import bo.edu.ucb.ms.sales.dto.StockDecrementBatchDto;
+import bo.edu.ucb.ms.sales.dto.StockDecrementResultDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces stock decrements for the same product into one call to Product Service
+ *
+ * Decrements for a product are gathered until the batch window elapses or the batch
+ * is full, then sent as a single batch so Product Service locks the product row once
+ * for the whole group. Product Service applies the quantities first come, first served
+ * and each caller is completed with its own outcome.
+ */
+@Component
+public class StockDecrementCoalescer {
+
+    @Autowired
+    private ProductServiceClient productServiceClient;
+
+    @Value("${sales.product-service.internal-token:}")
+    private String internalToken;
+
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final ConcurrentHashMap<Integer, PendingBatch> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+    private final ExecutorService dispatcher;
+
+    public StockDecrementCoalescer(@Value("${sales.stock-coalescer.window-ms:2}") long windowMillis,
+                                   @Value("${sales.stock-coalescer.max-batch-size:64}") int maxBatchSize,
+                                   @Value("${sales.stock-coalescer.dispatch-threads:8}") int dispatchThreads) {
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.timer = Executors.newSingleThreadScheduledExecutor(namedThreads("stock-coalescer-timer-"));
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, namedThreads("stock-coalescer-"));
+    }
+
+    /**
+     * Decrement the stock of a product
+     * @param productId Product ID
+     * @param quantity Quantity to take from stock
+     * @param reference Business reference recorded with the movement, such as the sale number
+     * @return Future completed with true if the stock covered the quantity, false otherwise
+     */
+    public CompletableFuture<Boolean> decrement(Integer productId, int quantity, String reference) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        PendingBatch[] full = new PendingBatch[1];
+
+        pending.compute(productId, (id, batch) -> {
+            if (batch == null) {
+                PendingBatch created = new PendingBatch(id);
+                timer.schedule(() -> flush(created), windowMillis, TimeUnit.MILLISECONDS);
+                batch = created;
+            }
+            batch.quantities.add(quantity);
+            batch.references.add(reference);
+            batch.results.add(result);
+            if (batch.quantities.size() >= maxBatchSize) {
+                full[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+
+        if (full[0] != null) {
+            dispatcher.execute(() -> send(full[0]));
+        }
+        return result;
+    }
+
+    /**
+     * Give back stock previously taken with {@link #decrement(Integer, int, String)}
+     * Returns are rare compensations, so they are sent on their own instead of coalesced.
+     * @param productId Product ID
+     * @param quantity Quantity to return to stock
+     * @param reference Business reference recorded with the movement
+     * @return Future completed once the stock was returned
+     */
+    public CompletableFuture<Boolean> release(Integer productId, int quantity, String reference) {
+        return CompletableFuture.supplyAsync(() -> {
+            StockDecrementResultDto result = productServiceClient.returnStock(internalToken,
+                productId, new StockDecrementBatchDto(List.of(quantity), Collections.singletonList(reference)));
+            return Boolean.TRUE.equals(fulfilled(result, 1).get(0));
+        }, dispatcher);
+    }
+
+    private void flush(PendingBatch batch) {
+        // The batch may already have been sent because it filled up before the window elapsed
+        if (pending.remove(batch.productId, batch)) {
+            dispatcher.execute(() -> send(batch));
+        }
+    }
+
+    private void send(PendingBatch batch) {
+        try {
+            StockDecrementResultDto result = productServiceClient.decrementStock(
+                batch.productId, new StockDecrementBatchDto(batch.quantities, batch.references));
+            List<Boolean> fulfilled = fulfilled(result, batch.results.size());
+            for (int i = 0; i < batch.results.size(); i++) {
+                batch.results.get(i).complete(Boolean.TRUE.equals(fulfilled.get(i)));
+            }
+        } catch (Exception e) {
+            batch.results.forEach(r -> r.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Outcomes of a batch, checked to hold exactly one entry per decrement sent
+     * @param result Response of Product Service
+     * @param expected Number of decrements in the batch
+     * @return One outcome per decrement, in the order they were sent
+     */
+    private static List<Boolean> fulfilled(StockDecrementResultDto result, int expected) {
+        List<Boolean> fulfilled = result == null ? null : result.getFulfilled();
+        if (fulfilled == null || fulfilled.size() != expected) {
+            throw new IllegalStateException("Product Service returned " + (fulfilled == null ? "no" : fulfilled.size())
+                + " outcomes for a batch of " + expected + " decrements");
+        }
+        return fulfilled;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdown();
+        pending.values().forEach(this::flush);
+        dispatcher.shutdown();
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Decrements gathered for one product; only mutated inside pending.compute
+     */
+    private static class PendingBatch {
+        private final Integer productId;
+        private final List<Integer> quantities = new ArrayList<>();
+        private final List<String> references = new ArrayList<>();
+        private final List<CompletableFuture<Boolean>> results = new ArrayList<>();
+
+        private PendingBatch(Integer productId) {
+            this.productId = productId;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package bo.edu.ucb.ms.sales.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoDelLimiterTests {
+
+	@Test
+	void admitsUpToMaxConcurrent() throws InterruptedException {
+		CoDelLimiter limiter = new CoDelLimiter(2, 5, 100);
+
+		assertTrue(limiter.acquire());
+		assertTrue(limiter.acquire());
+		assertFalse(limiter.acquire());
+		limiter.release();
+		assertTrue(limiter.acquire());
+		assertEquals(100, limiter.getIntervalMillis());
+	}
+
+	@Test
+	void releaseHandsThePermitToAWaitingRequest() throws InterruptedException {
+		CoDelLimiter limiter = new CoDelLimiter(1, 5, 5000);
+		assertTrue(limiter.acquire());
+
+		AtomicBoolean admitted = new AtomicBoolean();
+		Thread waiter = new Thread(() -> {
+			try {
+				admitted.set(limiter.acquire());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		waiter.start();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (limiter.getQueueLength() == 0 && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertEquals(1, limiter.getQueueLength());
+
+		limiter.release();
+		waiter.join(5000);
+		assertTrue(admitted.get());
+		assertEquals(0, limiter.getQueueLength());
+	}
+
+	@Test
+	void standingQueueShortensTheWaitToTheTarget() throws InterruptedException {
+		CoDelLimiter limiter = new CoDelLimiter(1, 5, 200);
+		assertTrue(limiter.acquire());
+		assertFalse(limiter.isOverloaded());
+
+		// First interval still saw the immediate admission, so it is not overloaded
+		assertFalse(limiter.acquire());
+		assertFalse(limiter.isOverloaded());
+		// Every request of the next interval waited past the target
+		assertFalse(limiter.acquire());
+		assertTrue(limiter.isOverloaded());
+
+		long started = System.nanoTime();
+		assertFalse(limiter.acquire());
+		assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(200));
+	}
+}
@@ -0,0 +1,52 @@
+package bo.edu.ucb.ms.sales.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTests {
+
+	@Test
+	void burstIsAdmittedBackToBack() {
+		TokenBucket bucket = new TokenBucket(1, 3);
+
+		assertEquals(0, bucket.tryAcquire());
+		assertEquals(0, bucket.tryAcquire());
+		assertEquals(0, bucket.tryAcquire());
+		assertTrue(bucket.tryAcquire() > 0);
+	}
+
+	@Test
+	void emptyBucketReportsTheWaitForTheNextToken() {
+		TokenBucket bucket = new TokenBucket(2, 1);
+		bucket.tryAcquire();
+
+		long waitNanos = bucket.tryAcquire();
+		assertTrue(waitNanos > 0);
+		assertTrue(waitNanos <= TimeUnit.MILLISECONDS.toNanos(500), waitNanos + " ns");
+	}
+
+	@Test
+	void tokensRefillOverTime() throws InterruptedException {
+		TokenBucket bucket = new TokenBucket(1000, 1);
+		assertEquals(0, bucket.tryAcquire());
+
+		long waitNanos = bucket.tryAcquire();
+		assertTrue(waitNanos > 0);
+		TimeUnit.NANOSECONDS.sleep(waitNanos + TimeUnit.MILLISECONDS.toNanos(5));
+		assertEquals(0, bucket.tryAcquire());
+	}
+
+	@Test
+	void refillNeverExceedsTheBurst() throws InterruptedException {
+		TokenBucket bucket = new TokenBucket(100, 2);
+		Thread.sleep(50);
+
+		assertEquals(0, bucket.tryAcquire());
+		assertEquals(0, bucket.tryAcquire());
+		assertTrue(bucket.tryAcquire() > 0);
+	}
+}
@@ -0,0 +1,172 @@
+package bo.edu.ucb.ms.sales.service;
+
+import bo.edu.ucb.ms.sales.dto.ProductDto;
+import bo.edu.ucb.ms.sales.dto.StockDecrementBatchDto;
+import bo.edu.ucb.ms.sales.dto.StockDecrementResultDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StockDecrementCoalescerTests {
+
+	private final FakeProductServiceClient client = new FakeProductServiceClient();
+	private StockDecrementCoalescer coalescer;
+
+	@AfterEach
+	void shutdown() {
+		if (coalescer != null) {
+			coalescer.shutdown();
+		}
+	}
+
+	@Test
+	void decrementsWithinTheWindowAreSentAsOneBatch() throws Exception {
+		coalescer = coalescer(100, 64);
+		client.respond(batch -> List.of(true, false, true));
+
+		CompletableFuture<Boolean> first = coalescer.decrement(1, 2, "S-1");
+		CompletableFuture<Boolean> second = coalescer.decrement(1, 5, "S-2");
+		CompletableFuture<Boolean> third = coalescer.decrement(1, 1, "S-3");
+
+		assertTrue(first.get(1, TimeUnit.SECONDS));
+		assertEquals(false, second.get(1, TimeUnit.SECONDS));
+		assertTrue(third.get(1, TimeUnit.SECONDS));
+		assertEquals(1, client.decrements.size());
+		assertEquals(List.of(2, 5, 1), client.decrements.get(0).getQuantities());
+		assertEquals(List.of("S-1", "S-2", "S-3"), client.decrements.get(0).getReferences());
+	}
+
+	@Test
+	void fullBatchIsSentWithoutWaitingForTheWindow() throws Exception {
+		coalescer = coalescer(60000, 2);
+		client.respond(batch -> List.of(true, true));
+
+		CompletableFuture<Boolean> first = coalescer.decrement(1, 1, "S-1");
+		CompletableFuture<Boolean> second = coalescer.decrement(1, 1, "S-2");
+
+		assertTrue(first.get(1, TimeUnit.SECONDS));
+		assertTrue(second.get(1, TimeUnit.SECONDS));
+		assertEquals(1, client.decrements.size());
+	}
+
+	@Test
+	void productsAreBatchedSeparately() throws Exception {
+		coalescer = coalescer(50, 64);
+		client.respond(batch -> Collections.nCopies(batch.getQuantities().size(), true));
+
+		CompletableFuture<Boolean> first = coalescer.decrement(1, 1, "S-1");
+		CompletableFuture<Boolean> second = coalescer.decrement(2, 1, "S-2");
+
+		assertTrue(first.get(1, TimeUnit.SECONDS));
+		assertTrue(second.get(1, TimeUnit.SECONDS));
+		assertEquals(2, client.decrements.size());
+	}
+
+	@Test
+	void mismatchedOutcomeCountFailsTheWholeBatch() {
+		coalescer = coalescer(60000, 2);
+		client.respond(batch -> List.of(true));
+
+		CompletableFuture<Boolean> first = coalescer.decrement(1, 1, "S-1");
+		CompletableFuture<Boolean> second = coalescer.decrement(1, 1, "S-2");
+
+		for (CompletableFuture<Boolean> result : List.of(first, second)) {
+			ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+			assertInstanceOf(IllegalStateException.class, e.getCause());
+		}
+	}
+
+	@Test
+	void clientFailureFailsEveryCallerOfTheBatch() {
+		coalescer = coalescer(60000, 2);
+		client.respond(batch -> {
+			throw new IllegalArgumentException("Product Service is down");
+		});
+
+		CompletableFuture<Boolean> first = coalescer.decrement(1, 1, "S-1");
+		CompletableFuture<Boolean> second = coalescer.decrement(1, 1, "S-2");
+
+		for (CompletableFuture<Boolean> result : List.of(first, second)) {
+			ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+			assertInstanceOf(IllegalArgumentException.class, e.getCause());
+		}
+	}
+
+	@Test
+	void releaseIsSentOnItsOwnWithTheInternalToken() throws Exception {
+		coalescer = coalescer(60000, 64);
+		client.respond(batch -> List.of(true));
+
+		assertTrue(coalescer.release(1, 3, "S-1").get(1, TimeUnit.SECONDS));
+		assertEquals(List.of("secret"), client.tokens);
+		assertEquals(List.of(3), client.returns.get(0).getQuantities());
+		assertTrue(client.decrements.isEmpty());
+	}
+
+	private StockDecrementCoalescer coalescer(long windowMillis, int maxBatchSize) {
+		StockDecrementCoalescer created = new StockDecrementCoalescer(windowMillis, maxBatchSize, 2);
+		ReflectionTestUtils.setField(created, "productServiceClient", client);
+		ReflectionTestUtils.setField(created, "internalToken", "secret");
+		return created;
+	}
+
+	/**
+	 * Records the stock calls and answers them with the configured outcomes
+	 */
+	private static class FakeProductServiceClient implements ProductServiceClient {
+		private final List<StockDecrementBatchDto> decrements = Collections.synchronizedList(new ArrayList<>());
+		private final List<StockDecrementBatchDto> returns = Collections.synchronizedList(new ArrayList<>());
+		private final List<String> tokens = Collections.synchronizedList(new ArrayList<>());
+		private volatile Function<StockDecrementBatchDto, List<Boolean>> outcomes;
+
+		private void respond(Function<StockDecrementBatchDto, List<Boolean>> outcomes) {
+			this.outcomes = outcomes;
+		}
+
+		@Override
+		public StockDecrementResultDto decrementStock(Integer id, StockDecrementBatchDto batch) {
+			decrements.add(batch);
+			return new StockDecrementResultDto(id, outcomes.apply(batch), null);
+		}
+
+		@Override
+		public StockDecrementResultDto returnStock(String internalToken, Integer id, StockDecrementBatchDto batch) {
+			tokens.add(internalToken);
+			returns.add(batch);
+			return new StockDecrementResultDto(id, outcomes.apply(batch), null);
+		}
+
+		@Override
+		public ProductDto getProduct(Integer id) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<ProductDto> getProducts(List<Integer> ids) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<ProductDto> lookupProducts(List<Integer> ids) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ProductDto updateProduct(Integer id, ProductDto productDto) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}